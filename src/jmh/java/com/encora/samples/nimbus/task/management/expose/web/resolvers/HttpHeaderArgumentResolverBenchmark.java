@@ -0,0 +1,73 @@
+package com.encora.samples.nimbus.task.management.expose.web.resolvers;
+
+import com.encora.samples.nimbus.task.management.model.api.AuthorizationHeader;
+import com.encora.samples.nimbus.task.management.utils.annotations.HttpHeadersMapping;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.server.ServerWebExchange;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpHeaderArgumentResolverBenchmark {
+
+  private ValidatorFactory validatorFactory;
+
+  private HttpHeaderArgumentResolver resolver;
+
+  private MethodParameter parameter;
+
+  private BindingContext bindingContext;
+
+  private ServerWebExchange exchange;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    validatorFactory = Validation.buildDefaultValidatorFactory();
+    resolver = new HttpHeaderArgumentResolver(validatorFactory.getValidator());
+    parameter = new MethodParameter(HttpHeaderArgumentResolverBenchmark.class
+            .getDeclaredMethod("handle", AuthorizationHeader.class), 0);
+    bindingContext = new BindingContext();
+    exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks")
+            .header("X-Request-Id", "550e8400-e29b-41d4-a716-446655440000")
+            .header("X-Request-Date", "2024-01-01T00:00:00")
+            .header("X-User-Id", "user1")
+            .header("Accept", "application/json")
+            .header("User-Agent", "benchmark"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    validatorFactory.close();
+  }
+
+  @Benchmark
+  public Object resolveArgument() {
+    return resolver.resolveArgument(parameter, bindingContext, exchange).block();
+  }
+
+  @SuppressWarnings("unused")
+  private static void handle(@HttpHeadersMapping AuthorizationHeader header) {
+    // only its parameter is used
+  }
+
+}
@@ -0,0 +1,73 @@
+package com.encora.samples.nimbus.task.management.mapper;
+
+import com.encora.samples.nimbus.task.management.model.api.TaskRequest;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+  private TaskMapper taskMapper;
+
+  private TaskRequest taskRequest;
+
+  private Task task;
+
+  @Setup
+  public void setUp() {
+    taskMapper = new TaskMapperImpl();
+
+    taskRequest = new TaskRequest();
+    taskRequest.setUserId("user1");
+    taskRequest.setTitle("Prepare the quarterly report");
+    taskRequest.setDescription("Collect the figures of every team and summarize them");
+    taskRequest.setDueDate("2030-01-01T00:00:00");
+
+    task = new Task();
+    task.setId("65a1f0c2e4b0a1b2c3d4e5f6");
+    task.setUserId("user1");
+    task.setTitle("Prepare the quarterly report");
+    task.setDescription("Collect the figures of every team and summarize them");
+    task.setDueDate(LocalDate.of(2030, 1, 1));
+    task.setStatus("PENDING");
+    task.setCreatedDate(LocalDateTime.of(2024, 1, 1, 10, 0));
+    task.setCreatedBy("user1");
+    task.setLastModifiedDate(LocalDateTime.of(2024, 1, 2, 10, 0));
+    task.setLastModifiedBy("user1");
+    task.setDeleted(false);
+  }
+
+  @Benchmark
+  public Task createOf() {
+    return taskMapper.createOf(taskRequest);
+  }
+
+  @Benchmark
+  public TaskResponse responseOf() {
+    return taskMapper.responseOf(task);
+  }
+
+  @Benchmark
+  public TaskResponse withDetailsOf() {
+    return taskMapper.withDetailsOf(task);
+  }
+
+}
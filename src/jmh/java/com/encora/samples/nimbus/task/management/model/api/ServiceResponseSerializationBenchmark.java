@@ -0,0 +1,68 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceResponseSerializationBenchmark {
+
+  @Param({"25", "100"})
+  private int size;
+
+  private ObjectMapper objectMapper;
+
+  private ServiceResponse<List<TaskResponse>> response;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    List<TaskResponse> tasks = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      TaskResponse task = new TaskResponse();
+      task.setId("65a1f0c2e4b0a1b2c3d4" + String.format("%04d", i));
+      task.setUserId("user1");
+      task.setTitle("Task " + i);
+      task.setDescription("Description of the task number " + i);
+      task.setDueDate(LocalDate.of(2030, 1, 1).plusDays(i));
+      task.setStatus("PENDING");
+      task.setCreatedDate(LocalDateTime.of(2024, 1, 1, 10, 0));
+      tasks.add(task);
+    }
+    response = ServiceResponse.queryResponse(tasks, ServiceResponse.PageInfo.builder()
+            .totalElements(size * 10)
+            .pageSize(size)
+            .totalPages(10)
+            .currentPage(0)
+            .numberOfElements(size)
+            .build());
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(response);
+  }
+
+}
@@ -0,0 +1,50 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.model.api.QueryRequest;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponse;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+  private QueryRequest queryRequest;
+
+  private List<Task> tasks;
+
+  @Setup
+  public void setUp() {
+    queryRequest = new QueryRequest();
+    tasks = new ArrayList<>(queryRequest.getSize());
+    for (int i = 0; i < queryRequest.getSize(); i++) {
+      Task task = new Task();
+      task.setId("65a1f0c2e4b0a1b2c3d4" + String.format("%04d", i));
+      task.setDueDate(LocalDate.of(2030, 1, 1).minusDays(i));
+      tasks.add(task);
+    }
+  }
+
+  @Benchmark
+  public ServiceResponse.PageInfo buildPageInfo() {
+    return TaskService.buildPageInfo(1000, queryRequest, tasks.size(), tasks.get(tasks.size() - 1));
+  }
+
+}
@@ -0,0 +1,42 @@
+package com.encora.samples.nimbus.task.management.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histogram and error count of one endpoint.
+ */
+class EndpointStats {
+
+  private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+
+  private final LongAdder errors = new LongAdder();
+
+  void record(long latencyNanos, boolean success) {
+    recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+    if (!success) {
+      errors.increment();
+    }
+  }
+
+  /**
+   * Discards everything recorded so far.
+   */
+  void reset() {
+    recorder.reset();
+    errors.reset();
+  }
+
+  Histogram histogram() {
+    return recorder.getIntervalHistogram();
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+
+}
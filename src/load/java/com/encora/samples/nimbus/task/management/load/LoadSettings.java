@@ -0,0 +1,140 @@
+package com.encora.samples.nimbus.task.management.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Value;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Settings of a load test run, read from {@code load.*} system properties.
+ */
+@Value
+class LoadSettings {
+
+  /**
+   * Time during which the results are recorded.
+   */
+  Duration duration;
+
+  /**
+   * Time during which load is applied before recording, to warm up the JIT, pools and caches.
+   */
+  Duration warmup;
+
+  /**
+   * Number of virtual clients, each sending its next request as soon as the previous one completed.
+   */
+  int concurrency;
+
+  /**
+   * Number of distinct users the virtual clients are spread over.
+   */
+  int users;
+
+  /**
+   * Tasks created by every virtual client before the warmup.
+   */
+  int seedTasks;
+
+  /**
+   * Relative weight of every operation.
+   */
+  Map<Operation, Integer> mix;
+
+  /**
+   * URI of an existing Mongo to use instead of starting an embedded mongod.
+   */
+  String mongoUri;
+
+  /**
+   * Version of the embedded mongod.
+   */
+  String mongoVersion;
+
+  /**
+   * Base URL the embedded mongod archive is downloaded from, e.g. a {@code file:} URL of a local
+   * mirror to run fully offline. Downloaded archives are cached under {@code ~/.embedmongo} anyway.
+   */
+  String mongoDistributionUrl;
+
+  /**
+   * Spring profiles the application is started with.
+   */
+  String profiles;
+
+  /**
+   * Listing engine of the application, {@code counters} or {@code facet}, to compare how both
+   * read the task lists.
+   */
+  String listingEngine;
+
+  /**
+   * Whether the application rate limits its users. Off by default, the virtual clients of a user
+   * would otherwise mostly measure their own rejections.
+   */
+  boolean rateLimited;
+
+  /**
+   * File the report of the run is written to, along with the log of the application.
+   */
+  Path reportFile;
+
+  /**
+   * Whether the application keeps its tasks in memory, so no Mongo is needed.
+   */
+  boolean isInMemory() {
+    return Arrays.asList(profiles.split(",")).contains("inmemory");
+  }
+
+  static LoadSettings fromSystemProperties() {
+    return new LoadSettings(
+            DurationStyle.detectAndParse(System.getProperty("load.duration", "60s")),
+            DurationStyle.detectAndParse(System.getProperty("load.warmup", "15s")),
+            Integer.getInteger("load.concurrency", 64),
+            Integer.getInteger("load.users", 16),
+            Integer.getInteger("load.seed-tasks", 20),
+            parseMix(System.getProperty("load.mix", "create=10,list=30,get=40,update=15,delete=5")),
+            System.getProperty("load.mongo-uri"),
+            System.getProperty("load.mongo-version", "7.0"),
+            System.getProperty("load.mongo-distribution-url"),
+            System.getProperty("load.profiles", ""),
+            System.getProperty("load.listing-engine", "counters"),
+            Boolean.getBoolean("load.rate-limited"),
+            Path.of(System.getProperty("load.report-file", "target/load/report.txt")));
+  }
+
+  private static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new LinkedHashMap<>();
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Invalid load.mix entry " + entry);
+      }
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) {
+        weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("load.mix has no operation");
+    }
+    return weights;
+  }
+
+  enum Operation {
+
+    CREATE,
+
+    LIST,
+
+    GET,
+
+    UPDATE,
+
+    DELETE
+
+  }
+}
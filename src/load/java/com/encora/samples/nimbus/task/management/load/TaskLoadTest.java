@@ -0,0 +1,312 @@
+package com.encora.samples.nimbus.task.management.load;
+
+import com.encora.samples.nimbus.task.management.TaskManagementApplication;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.embed.mongo.types.DistributionBaseUrl;
+import de.flapdoodle.reverse.TransitionWalker;
+import de.flapdoodle.reverse.transitions.Start;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * End-to-end load test of a single application instance.
+ *
+ * Starts an embedded mongod (or uses {@code load.mongo-uri}, or none with the {@code inmemory}
+ * profile), boots the application on a random port and drives it with {@code load.concurrency}
+ * virtual clients, each sending a weighted random mix of create, list, get, update and delete
+ * requests back to back. Reports the throughput, error count and p50/p99/p99.9 latency of every
+ * endpoint to {@code load.report-file} and the log. See {@link LoadSettings} for the settings.
+ *
+ * Both listing engines can be compared by running a list heavy mix under each, e.g.
+ * {@code -Dload.mix=list=100 -Dload.listing-engine=facet}.
+ */
+@Slf4j
+public class TaskLoadTest {
+
+  private static final DateTimeFormatter DUE_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+  private final LoadSettings settings;
+
+  private final WebClient webClient;
+
+  private final Map<LoadSettings.Operation, EndpointStats> stats = new EnumMap<>(LoadSettings.Operation.class);
+
+  private final LoadSettings.Operation[] operations;
+
+  private final int[] cumulativeWeights;
+
+  private volatile boolean recording;
+
+  TaskLoadTest(LoadSettings settings, String baseUrl) {
+    this.settings = settings;
+    ConnectionProvider connections = ConnectionProvider.builder("load")
+            .maxConnections(settings.getConcurrency())
+            .pendingAcquireMaxCount(-1)
+            .build();
+    this.webClient = WebClient.builder()
+            .baseUrl(baseUrl)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+            .build();
+
+    this.operations = settings.getMix().keySet().toArray(LoadSettings.Operation[]::new);
+    this.cumulativeWeights = new int[operations.length];
+    int total = 0;
+    for (int i = 0; i < operations.length; i++) {
+      total += settings.getMix().get(operations[i]);
+      cumulativeWeights[i] = total;
+    }
+    for (LoadSettings.Operation operation : LoadSettings.Operation.values()) {
+      stats.put(operation, new EndpointStats());
+    }
+  }
+
+  public static void main(String[] args) {
+    LoadSettings settings = LoadSettings.fromSystemProperties();
+    System.setProperty("spring.devtools.restart.enabled", "false");
+
+    TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+    ConfigurableApplicationContext context = null;
+    try {
+      String mongoUri = settings.getMongoUri();
+      if (!StringUtils.hasText(mongoUri) && !settings.isInMemory()) {
+        mongod = startMongod(settings);
+        mongoUri = "mongodb://" + mongod.current().getServerAddress();
+      }
+
+      SpringApplication application = new SpringApplication(TaskManagementApplication.class);
+      if (StringUtils.hasText(settings.getProfiles())) {
+        application.setAdditionalProfiles(settings.getProfiles().split(","));
+      }
+      context = application.run(
+              "--spring.data.mongodb.uri=" + mongoUri,
+              "--spring.data.mongodb.database=task-load",
+              "--spring.cloud.vault.enabled=false",
+              "--application.tasks.listing.engine=" + settings.getListingEngine(),
+              "--application.rate-limit.enabled=" + settings.isRateLimited(),
+              "--server.port=0",
+              "--logging.level.root=WARN",
+              "--logging.pattern.console=",
+              "--logging.file.name=target/load/task-management.log");
+
+      String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+              + context.getEnvironment().getProperty("application.api.path") + "/tasks";
+      new TaskLoadTest(settings, baseUrl).run();
+    } finally {
+      if (Objects.nonNull(context)) {
+        context.close();
+      }
+      if (Objects.nonNull(mongod)) {
+        mongod.close();
+      }
+    }
+  }
+
+  private static TransitionWalker.ReachedState<RunningMongodProcess> startMongod(LoadSettings settings) {
+    Mongod mongod = Mongod.instance();
+    if (StringUtils.hasText(settings.getMongoDistributionUrl())) {
+      mongod = Mongod.instance().withDistributionBaseUrl(Start.to(DistributionBaseUrl.class)
+              .initializedWith(DistributionBaseUrl.of(settings.getMongoDistributionUrl())));
+    }
+    return mongod.start(Version.Main.valueOf("V" + settings.getMongoVersion().replace('.', '_')));
+  }
+
+  void run() {
+    List<Client> clients = new ArrayList<>();
+    for (int i = 0; i < settings.getConcurrency(); i++) {
+      clients.add(new Client("load-user-" + (i % settings.getUsers())));
+    }
+
+    log.warn("Seeding {} tasks", (long) settings.getSeedTasks() * clients.size());
+    Flux.fromIterable(clients)
+            .flatMap(client -> Flux.range(0, settings.getSeedTasks())
+                    .concatMap(i -> execute(client, LoadSettings.Operation.CREATE)), clients.size())
+            .blockLast();
+
+    log.warn("Warming up for {}", settings.getWarmup());
+    drive(clients, settings.getWarmup().toNanos());
+
+    stats.values().forEach(EndpointStats::reset);
+    recording = true;
+    log.warn("Measuring for {}", settings.getDuration());
+    long start = System.nanoTime();
+    drive(clients, settings.getDuration().toNanos());
+    double seconds = (System.nanoTime() - start) / 1e9;
+    recording = false;
+
+    report(seconds);
+  }
+
+  private void drive(List<Client> clients, long durationNanos) {
+    long deadline = System.nanoTime() + durationNanos;
+    BooleanSupplier running = () -> System.nanoTime() < deadline;
+    Flux.fromIterable(clients)
+            .flatMap(client -> Mono.defer(() -> execute(client, nextOperation(client))).repeat(running),
+                    clients.size())
+            .blockLast();
+  }
+
+  private LoadSettings.Operation nextOperation(Client client) {
+    int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      if (value < cumulativeWeights[i]) {
+        LoadSettings.Operation operation = operations[i];
+        boolean needsTask = operation == LoadSettings.Operation.GET || operation == LoadSettings.Operation.UPDATE
+                || operation == LoadSettings.Operation.DELETE;
+        return needsTask && client.taskIds.isEmpty() ? LoadSettings.Operation.CREATE : operation;
+      }
+    }
+    return operations[operations.length - 1];
+  }
+
+  private Mono<Void> execute(Client client, LoadSettings.Operation operation) {
+    long start = System.nanoTime();
+    Mono<Boolean> request = switch (operation) {
+      case CREATE -> client.request(webClient.post())
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(taskBody(client))
+              .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                      ? response.bodyToMono(Map.class).map(body -> {
+                        client.taskIds.add((String) body.get("id"));
+                        return true;
+                      })
+                      : release(response));
+      case LIST -> client.request(webClient.get().uri(uri -> uri
+                      .queryParam("page", ThreadLocalRandom.current().nextInt(3))
+                      .queryParam("size", 25)
+                      .build()))
+              .exchangeToMono(TaskLoadTest::release);
+      case GET -> client.request(webClient.get().uri("/{id}", client.randomTaskId()))
+              .exchangeToMono(TaskLoadTest::release);
+      case UPDATE -> client.request(webClient.put().uri("/{id}", client.randomTaskId()))
+              .contentType(MediaType.APPLICATION_JSON)
+              .bodyValue(taskBody(client))
+              .exchangeToMono(TaskLoadTest::release);
+      case DELETE -> client.request(webClient.delete().uri("/{id}", client.removeRandomTaskId()))
+              .exchangeToMono(TaskLoadTest::release);
+    };
+
+    return request
+            .onErrorResume(throwable -> Mono.just(false))
+            .doOnNext(success -> {
+              if (recording) {
+                stats.get(operation).record(System.nanoTime() - start, success);
+              }
+            })
+            .then();
+  }
+
+  private static Mono<Boolean> release(ClientResponse response) {
+    return response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful());
+  }
+
+  private static Map<String, String> taskBody(Client client) {
+    return Map.of(
+            "title", "Load task " + UUID.randomUUID(),
+            "description", "Created by the load test for " + client.userId,
+            "dueDate", LocalDateTime.now().plusDays(ThreadLocalRandom.current().nextInt(1, 60)).format(DUE_DATE),
+            "status", "IN_PROGRESS");
+  }
+
+  private void report(double seconds) {
+    StringBuilder report = new StringBuilder(System.lineSeparator())
+            .append(String.format("%-8s %10s %10s %8s %10s %10s %10s %10s%n",
+                    "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+    Histogram total = new Histogram(3);
+    long totalErrors = 0;
+    for (Map.Entry<LoadSettings.Operation, EndpointStats> entry : stats.entrySet()) {
+      Histogram histogram = entry.getValue().histogram();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+      total.add(histogram);
+      totalErrors += entry.getValue().errors();
+      appendLine(report, entry.getKey().name().toLowerCase(), histogram, entry.getValue().errors(), seconds);
+    }
+    appendLine(report, "total", total, totalErrors, seconds);
+    log.warn("Results:{}", report);
+    try {
+      Path reportFile = settings.getReportFile();
+      if (Objects.nonNull(reportFile.getParent())) {
+        Files.createDirectories(reportFile.getParent());
+      }
+      Files.writeString(reportFile, report);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to write the report to " + settings.getReportFile(), e);
+    }
+  }
+
+  private static void appendLine(StringBuilder report, String name, Histogram histogram, long errors, double seconds) {
+    report.append(String.format("%-8s %10d %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+            name,
+            histogram.getTotalCount(),
+            histogram.getTotalCount() / seconds,
+            errors,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0));
+  }
+
+  /**
+   * A virtual client. Its requests are sequential, so the tasks it created need no synchronization.
+   */
+  private static class Client {
+
+    private final String userId;
+
+    private final List<String> taskIds = new ArrayList<>();
+
+    Client(String userId) {
+      this.userId = userId;
+    }
+
+    <S extends WebClient.RequestHeadersSpec<?>> S request(S spec) {
+      spec.header("X-Request-Id", UUID.randomUUID().toString())
+              .header("X-Request-Date", LocalDateTime.now().toString())
+              .header("X-User-Id", userId)
+              .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+      return spec;
+    }
+
+    String randomTaskId() {
+      return taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size()));
+    }
+
+    String removeRandomTaskId() {
+      int index = ThreadLocalRandom.current().nextInt(taskIds.size());
+      String id = taskIds.get(index);
+      taskIds.set(index, taskIds.get(taskIds.size() - 1));
+      taskIds.remove(taskIds.size() - 1);
+      return id;
+    }
+  }
+
+}
@@ -0,0 +1,26 @@
+package com.encora.samples.nimbus.task.management.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "application.audit")
+public class AuditProperties {
+
+    /**
+     * Audit events buffered in memory before new ones are dropped, rounded up to a power of two.
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * Maximum number of audit events written to the log at once.
+     */
+    private int batchSize = 256;
+
+    /**
+     * How long the writer waits for new audit events once the buffer is empty.
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+}
@@ -0,0 +1,55 @@
+package com.encora.samples.nimbus.task.management.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import reactor.core.Scannable;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Metrics beyond the ones auto-configured by Spring Boot, which already times every route
+ * ({@code http.server.requests}) and publishes the Mongo connection pool gauges
+ * ({@code mongodb.driver.pool.*}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final String SCHEDULER_METRICS = "reactor.scheduler.metrics";
+
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryMetricsPostProcessor(meterRegistry);
+    }
+
+    /**
+     * Publishes the {@code executor.*} metrics of the executors backing the Reactor schedulers
+     * created from now on, tagged with the scheduler name.
+     */
+    @Bean
+    public SchedulerMetrics schedulerMetrics(MeterRegistry meterRegistry) {
+        AtomicInteger executors = new AtomicInteger();
+        Schedulers.addExecutorServiceDecorator(SCHEDULER_METRICS, (scheduler, executor) -> {
+            String name = Scannable.from(scheduler).scanOrDefault(Scannable.Attr.NAME, scheduler.toString());
+            return ExecutorServiceMetrics.monitor(meterRegistry, executor, name + "-" + executors.incrementAndGet(),
+                    List.of(Tag.of("scheduler", name)));
+        });
+        return new SchedulerMetrics();
+    }
+
+    public static class SchedulerMetrics {
+
+        @EventListener(ContextClosedEvent.class)
+        public void close() {
+            Schedulers.removeExecutorServiceDecorator(SCHEDULER_METRICS);
+        }
+
+    }
+}
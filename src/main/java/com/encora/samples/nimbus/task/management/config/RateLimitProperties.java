@@ -0,0 +1,53 @@
+package com.encora.samples.nimbus.task.management.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "application.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether the requests of every user are rate limited.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Budget of the reads (GET, HEAD and OPTIONS) of every user.
+     */
+    private Budget read = new Budget(200, 100);
+
+    /**
+     * Budget of the writes (any other method) of every user.
+     */
+    private Budget write = new Budget(50, 20);
+
+    /**
+     * Maximum number of users whose budgets are tracked at once. Users left out get a full budget
+     * again when they come back.
+     */
+    private long maximumUsers = 100_000;
+
+    @Data
+    public static class Budget {
+
+        /**
+         * Requests a user can send in a burst.
+         */
+        private int capacity;
+
+        /**
+         * Requests a user is granted back every second, up to the capacity.
+         */
+        private double refillPerSecond;
+
+        public Budget() {
+        }
+
+        public Budget(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+    }
+}
@@ -0,0 +1,104 @@
+package com.encora.samples.nimbus.task.management.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Times every reactive method of the application repositories as the {@code tasks.repository}
+ * timer, tagged with the repository, the method and the outcome of the call. The time runs from
+ * subscription until the publisher completes, fails or is cancelled. The timers are registered
+ * once per method and outcome, and reused by every later call.
+ */
+class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private static final String TIMER = "tasks.repository";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository<?, ?>)) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(new TimingInterceptor(repositoryName(bean)));
+        return proxyFactory.getProxy();
+    }
+
+    private static String repositoryName(Object bean) {
+        for (Class<?> type : bean.getClass().getInterfaces()) {
+            if (Repository.class.isAssignableFrom(type)) {
+                return type.getSimpleName();
+            }
+        }
+        return bean.getClass().getSimpleName();
+    }
+
+    private class TimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+
+        private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+        TimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object result = invocation.proceed();
+            String method = invocation.getMethod().getName();
+            if (result instanceof Mono<?> mono) {
+                return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return mono.doFinally(signal -> record(method, signal, start));
+                });
+            }
+            if (result instanceof Flux<?> flux) {
+                return Flux.defer(() -> {
+                    long start = System.nanoTime();
+                    return flux.doFinally(signal -> record(method, signal, start));
+                });
+            }
+            return result;
+        }
+
+        private void record(String method, SignalType signal, long start) {
+            timers.computeIfAbsent(new TimerKey(method, outcomeOf(signal)), key -> Timer.builder(TIMER)
+                            .description("Time taken by the repository calls")
+                            .tag("repository", repository)
+                            .tag("method", key.method())
+                            .tag("outcome", key.outcome())
+                            .register(meterRegistry.getObject()))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        private String outcomeOf(SignalType signal) {
+            return switch (signal) {
+                case ON_COMPLETE -> "success";
+                case ON_ERROR -> "error";
+                case CANCEL -> "cancelled";
+                default -> signal.name().toLowerCase();
+            };
+        }
+    }
+
+    private record TimerKey(String method, String outcome) {
+    }
+}
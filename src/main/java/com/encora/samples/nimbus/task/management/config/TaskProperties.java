@@ -0,0 +1,206 @@
+package com.encora.samples.nimbus.task.management.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "application.tasks")
+public class TaskProperties {
+
+    private Batch batch = new Batch();
+
+    private Changes changes = new Changes();
+
+    private Cache cache = new Cache();
+
+    private Search search = new Search();
+
+    private Listing listing = new Listing();
+
+    private Coalescing coalescing = new Coalescing();
+
+    private InMemory inMemory = new InMemory();
+
+    private Expiry expiry = new Expiry();
+
+    @Data
+    public static class Batch {
+
+        /**
+         * Number of operations sent to Mongo in a single bulkWrite.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Maximum number of operations accepted in a single batch request.
+         */
+        private int maxOperations = 5000;
+
+    }
+
+    @Data
+    public static class Changes {
+
+        /**
+         * Interval of the keep-alive comments sent to idle change feed clients.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        /**
+         * Changes buffered per client before a slow client is disconnected.
+         */
+        private int bufferSize = 256;
+
+        /**
+         * Recent changes kept for clients reconnecting with the ID of the last event they saw.
+         */
+        private int historySize = 1000;
+
+        /**
+         * Time the shared change stream stays open after the last client left, for clients
+         * reconnecting in the meantime to resume from the recent changes.
+         */
+        private Duration resumeWindow = Duration.ofSeconds(30);
+
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether task details are cached in memory.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of task details kept in the cache.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Time after which a cached task detail is read again from the database. It also bounds
+         * how long other instances may serve a task changed elsewhere.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+    }
+
+    @Data
+    public static class Search {
+
+        /**
+         * Whether the type-ahead suggestions are served from in-process indexes of the tasks of
+         * the users searching. Suggestions are read from the text index of Mongo otherwise.
+         */
+        private boolean indexEnabled = true;
+
+        /**
+         * Maximum number of users whose tasks are indexed at once.
+         */
+        private long maximumUsers = 1_000;
+
+        /**
+         * Time after which the index of a user who stopped searching is dropped. It also bounds
+         * how long other instances may suggest from tasks changed elsewhere.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Users with more live tasks are not indexed, their suggestions are read from Mongo.
+         */
+        private int maximumTasks = 10_000;
+
+        /**
+         * Maximum number of suggestions returned at once.
+         */
+        private int maximumSuggestions = 20;
+
+    }
+
+    @Data
+    public static class Listing {
+
+        /**
+         * How a page of tasks and its total are read.
+         */
+        private Engine engine = Engine.COUNTERS;
+
+        public enum Engine {
+
+            /**
+             * The total is read from the materialized counters of the user, the page from the
+             * tasks, in two round trips. The counters also provide the ETag of the list.
+             */
+            COUNTERS,
+
+            /**
+             * The page and the total are read from the tasks in a single $facet aggregation. Its
+             * cost grows with the number of tasks of the user, and lists get no ETag. Only lists
+             * ordered by due date, the order of the indexes, are read this way; the other ones
+             * are read as with the counters engine.
+             */
+            FACET
+
+        }
+
+    }
+
+    @Data
+    public static class Coalescing {
+
+        /**
+         * Whether concurrent identical reads of tasks share a single database read.
+         */
+        private boolean enabled = true;
+
+    }
+
+    @Data
+    public static class InMemory {
+
+        /**
+         * Number of lock stripes the users of the in-memory engine are spread over.
+         */
+        private int stripes = 64;
+
+        /**
+         * Recent changes kept to resume change feed clients after a reconnection.
+         */
+        private int changeHistory = 1024;
+
+        /**
+         * File the tasks are snapshotted to and restored from on startup. No snapshots are taken
+         * when unset.
+         */
+        private Path snapshotFile;
+
+        /**
+         * Interval between two snapshots. A last snapshot is always taken on shutdown.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(1);
+
+    }
+
+    @Data
+    public static class Expiry {
+
+        /**
+         * Overdue tasks expired by a single updateMany.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Maximum number of batches of a sweep, the remaining tasks are left to the next one.
+         */
+        private int maxBatches = 100;
+
+        /**
+         * Time after which the lock of a sweep is released if the instance running it died. It is
+         * extended before every batch, so it only has to outlast a single batch.
+         */
+        private Duration lockLease = Duration.ofMinutes(10);
+
+    }
+}
@@ -1,17 +1,26 @@
 package com.encora.samples.nimbus.task.management.config;
 
+import com.encora.samples.nimbus.task.management.expose.web.codecs.ServiceResponseStreamWriter;
 import com.encora.samples.nimbus.task.management.expose.web.resolvers.HttpHeaderArgumentResolver;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebFluxConfigurer {
 
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -25,6 +34,11 @@ public class WebConfig implements WebFluxConfigurer {
     @Override
     public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
         WebFluxConfigurer.super.configureArgumentResolvers(configurer);
-        configurer.addCustomResolver(new HttpHeaderArgumentResolver(new ObjectMapper()));
+        configurer.addCustomResolver(new HttpHeaderArgumentResolver(validator));
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new ServiceResponseStreamWriter(objectMapper));
     }
 }
@@ -1,12 +1,21 @@
 package com.encora.samples.nimbus.task.management.expose.web;
 
 import com.encora.samples.nimbus.task.management.model.api.AuthorizationHeader;
+import com.encora.samples.nimbus.task.management.model.api.BatchRequest;
+import com.encora.samples.nimbus.task.management.model.api.BatchResponse;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteRequest;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteResponse;
 import com.encora.samples.nimbus.task.management.model.api.QueryRequest;
 import com.encora.samples.nimbus.task.management.model.api.ServiceResponse;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponseStream;
 import com.encora.samples.nimbus.task.management.model.api.TaskIDResponse;
+import com.encora.samples.nimbus.task.management.model.api.TaskPatchRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.api.TaskStatsResponse;
+import com.encora.samples.nimbus.task.management.services.TaskChangeFeed;
 import com.encora.samples.nimbus.task.management.services.TaskService;
+import com.encora.samples.nimbus.task.management.utils.TaskETags;
 import com.encora.samples.nimbus.task.management.utils.annotations.HttpHeadersMapping;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,19 +25,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * REST controller for managing tasks.
  *
@@ -43,6 +61,8 @@ public class TaskController {
 
     private final TaskService taskService;
 
+    private final TaskChangeFeed taskChangeFeed;
+
     /**
      * Creates a new task for the authenticated user.
      *
@@ -65,19 +85,97 @@ public class TaskController {
                         .body(response));
     }
 
+    /**
+     * Executes a batch of create, update and delete operations for the authenticated user.
+     *
+     * @param authorizationHeader The authorization header containing the user ID.
+     * @param request The batch request containing the operations to execute.
+     * @return A Mono emitting a ResponseEntity with the result of every operation.
+     */
+    @Operation(summary = "Execute a batch of task operations")
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<BatchResponse>> executeBatch(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
+                                                            @RequestBody @Valid BatchRequest request) {
+        return taskService.executeBatch(authorizationHeader.getUserId(), request)
+                .map(response -> ResponseEntity.ok(response));
+    }
+
     /**
      * Retrieves a list of tasks for the authenticated user.
      *
      * @param authorizationHeader The authorization header containing the user ID.
      * @param queryRequest The query request object containing the search criteria.
-     * @return A Mono emitting a ResponseEntity with a ServiceResponse containing a set of TaskResponse objects.
+     * @return A Mono emitting a ResponseEntity with the TaskResponse objects, written in order as they are read,
+     *         tagged with a weak ETag so unchanged listings are answered with 304 Not Modified.
      */
     @GetMapping
-    public Mono<ResponseEntity<ServiceResponse>> getTasks(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
-                                                          QueryRequest queryRequest) {
+    public Mono<ResponseEntity<ServiceResponseStream<TaskResponse>>> getTasks(
+            @HttpHeadersMapping AuthorizationHeader authorizationHeader, QueryRequest queryRequest) {
         return taskService.getTasks(authorizationHeader.getUserId(),
                         queryRequest)
-                .map(response -> ResponseEntity.ok(response));
+                .map(response -> ResponseEntity.ok()
+                        .eTag(TaskETags.weakOf(response.getRevision()))
+                        .body(response));
+    }
+
+    /**
+     * Suggests tasks of the authenticated user while they type a search.
+     *
+     * @param authorizationHeader The authorization header containing the user ID.
+     * @param q The text typed so far, every term of it being matched as a prefix.
+     * @param limit The maximum number of suggestions.
+     * @return A Mono emitting a ResponseEntity with the id and title of the suggested tasks.
+     */
+    @Operation(summary = "Suggest tasks of the user matching a text being typed")
+    @GetMapping("/suggest")
+    public Mono<ResponseEntity<ServiceResponse<List<TaskResponse>>>> suggestTasks(
+            @HttpHeadersMapping AuthorizationHeader authorizationHeader, @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return taskService.suggestTasks(authorizationHeader.getUserId(), q, limit)
+                .map(response -> ResponseEntity.ok(ServiceResponse.success(response)));
+    }
+
+    /**
+     * Summarizes the tasks of the authenticated user for their dashboard.
+     *
+     * @param authorizationHeader The authorization header containing the user ID.
+     * @return A Mono emitting a ResponseEntity with the counts of tasks per status and due date.
+     */
+    @Operation(summary = "Get statistics of the tasks of the user")
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<TaskStatsResponse>> getTaskStats(
+            @HttpHeadersMapping AuthorizationHeader authorizationHeader) {
+        return taskService.getTaskStats(authorizationHeader.getUserId())
+                .map(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams every task of the authenticated user as newline delimited JSON or server-sent events.
+     *
+     * @param authorizationHeader The authorization header containing the user ID.
+     * @param status The optional status the exported tasks must have.
+     * @return A Flux emitting the TaskResponse objects as they are read from the database.
+     */
+    @Operation(summary = "Export the tasks of the user")
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<TaskResponse> exportTasks(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
+                                          @RequestParam(required = false) String status) {
+        return taskService.exportTasks(authorizationHeader.getUserId(), status);
+    }
+
+    /**
+     * Streams the changes of the tasks of the authenticated user as server-sent events.
+     *
+     * @param authorizationHeader The authorization header containing the user ID.
+     * @param lastEventId The ID of the last event received, sent by clients when reconnecting.
+     * @return A Flux emitting an event per task change.
+     */
+    @Operation(summary = "Subscribe to the task changes of the user")
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TaskResponse>> streamChanges(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
+                                                             @RequestHeader(value = "Last-Event-ID", required = false)
+                                                             String lastEventId) {
+        return taskChangeFeed.subscribe(authorizationHeader.getUserId(), lastEventId);
     }
 
     /**
@@ -85,13 +183,13 @@ public class TaskController {
      *
      * @param authorizationHeader The authorization header containing the user ID.
      * @param id The ID of the task.
-     * @return A Mono emitting a ResponseEntity with the TaskResponse object.
+     * @return A Mono emitting a ResponseEntity with the TaskResponse object, tagged with its version.
      */
     @GetMapping("/{id}")
     public Mono<ResponseEntity<TaskResponse>> getTaskById(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
                                                           @PathVariable String id) {
         return taskService.getTaskById(id)
-                .map(response -> ResponseEntity.ok(response));
+                .map(TaskController::tagged);
     }
 
     /**
@@ -100,14 +198,36 @@ public class TaskController {
      * @param authorizationHeader The authorization header containing the user ID.
      * @param id The ID of the task to update.
      * @param task The task request object containing the updated task details.
+     * @param ifMatch The optional ETags the task must have to be updated.
      * @return A Mono emitting a ResponseEntity with the updated TaskResponse object.
      */
     @PutMapping("/{id}")
     public Mono<ResponseEntity<TaskResponse>> updateTask(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
                                                          @PathVariable String id,
-                                                         @RequestBody TaskRequest task) {
-        return taskService.updateTask(id, task)
-                .map(response -> ResponseEntity.ok(response));
+                                                         @RequestBody TaskRequest task,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                         String ifMatch) {
+        return taskService.updateTask(id, task, ifMatch)
+                .map(TaskController::tagged);
+    }
+
+    /**
+     * Partially updates an existing task, changing only the supplied fields.
+     *
+     * @param authorizationHeader The authorization header containing the user ID.
+     * @param id The ID of the task to update.
+     * @param task The patch request object containing the fields to change.
+     * @param ifMatch The optional ETags the task must have to be updated.
+     * @return A Mono emitting a ResponseEntity with the updated TaskResponse object.
+     */
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<TaskResponse>> patchTask(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
+                                                        @PathVariable String id,
+                                                        @RequestBody @Valid TaskPatchRequest task,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                        String ifMatch) {
+        return taskService.patchTask(authorizationHeader.getUserId(), id, task, ifMatch)
+                .map(TaskController::tagged);
     }
 
     /**
@@ -115,12 +235,34 @@ public class TaskController {
      *
      * @param authorizationHeader The authorization header containing the user ID.
      * @param id The ID of the task to delete.
+     * @param ifMatch The optional ETags the task must have to be deleted.
      * @return A Mono emitting a void value.
      */
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteTask(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
-                                 @PathVariable String id) {
-        return taskService.deleteTask(id);
+                                 @PathVariable String id,
+                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return taskService.deleteTask(id, ifMatch);
+    }
+
+    /**
+     * Deletes every task of the authenticated user matching the given ids and/or status.
+     *
+     * @param authorizationHeader The authorization header containing the user ID.
+     * @param request The bulk delete request containing the ids and/or status to delete.
+     * @return A Mono emitting a ResponseEntity with the number of tasks deleted.
+     */
+    @DeleteMapping
+    public Mono<ResponseEntity<BulkDeleteResponse>> deleteTasks(@HttpHeadersMapping AuthorizationHeader authorizationHeader,
+                                                                @Valid BulkDeleteRequest request) {
+        return taskService.deleteTasks(authorizationHeader.getUserId(), request)
+                .map(response -> ResponseEntity.ok(response));
+    }
+
+    private static ResponseEntity<TaskResponse> tagged(TaskResponse response) {
+        return ResponseEntity.ok()
+                .eTag(TaskETags.of(response.getVersion()))
+                .body(response);
     }
 }
@@ -0,0 +1,98 @@
+package com.encora.samples.nimbus.task.management.expose.web.codecs;
+
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponseStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes a {@link ServiceResponseStream} as the JSON envelope of a
+ * {@link com.encora.samples.nimbus.task.management.model.api.ServiceResponse}, encoding each item
+ * as soon as it is emitted instead of serializing the whole tree at once.
+ *
+ * The paging is appended after the items. Nothing is written before the first item, so errors
+ * raised while the query starts still become error responses.
+ */
+@RequiredArgsConstructor
+public class ServiceResponseStreamWriter implements HttpMessageWriter<ServiceResponseStream<?>> {
+
+    private static final byte[] DATA_START = "{\"data\":[".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] DATA_END = "]".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] PAGING_START = ",\"paging\":".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] END = "}".getBytes(StandardCharsets.UTF_8);
+
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return ServiceResponseStream.class.isAssignableFrom(elementType.toClass())
+                && (Objects.isNull(mediaType) || MediaType.APPLICATION_JSON.isCompatibleWith(mediaType));
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends ServiceResponseStream<?>> inputStream, ResolvableType elementType,
+                            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBufferFactory bufferFactory = message.bufferFactory();
+        return message.writeWith(Flux.from(inputStream)
+                .concatMap(response -> encode(response, bufferFactory)));
+    }
+
+    private Flux<DataBuffer> encode(ServiceResponseStream<?> response, DataBufferFactory bufferFactory) {
+        Flux<DataBuffer> data = response.getData()
+                .index()
+                .map(item -> encode(item.getT1() == 0 ? DATA_START : SEPARATOR, item.getT2(), bufferFactory))
+                .switchIfEmpty(Mono.fromSupplier(() -> bufferFactory.wrap(DATA_START)));
+
+        return Flux.concat(data,
+                Mono.fromSupplier(() -> bufferFactory.wrap(DATA_END)),
+                response.getPaging().map(pageInfo -> encode(PAGING_START, pageInfo, bufferFactory)),
+                Mono.fromSupplier(() -> bufferFactory.wrap(END)));
+    }
+
+    private DataBuffer encode(byte[] prefix, Object value, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        boolean release = true;
+        try (OutputStream outputStream = buffer.asOutputStream()) {
+            outputStream.write(prefix);
+            objectMapper.writeValue(outputStream, value);
+            release = false;
+            return buffer;
+        } catch (IOException e) {
+            throw new EncodingException("JSON encoding error: " + e.getMessage(), e);
+        } finally {
+            if (release) {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.encora.samples.nimbus.task.management.expose.web.filters;
+
+import lombok.Value;
+
+/**
+ * Compact record of a served request, captured on the request path and formatted later by the
+ * {@link AuditLogWriter}.
+ */
+@Value
+public class AuditEvent {
+
+    long timestamp;
+
+    String requestId;
+
+    String method;
+
+    String path;
+
+    String query;
+
+    int status;
+
+    long durationMillis;
+
+}
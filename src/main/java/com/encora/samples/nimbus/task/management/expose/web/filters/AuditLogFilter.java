@@ -1,43 +1,47 @@
 package com.encora.samples.nimbus.task.management.expose.web.filters;
 
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Audits every request. Only the raw request attributes are captured on the request path; the
+ * event is formatted and written asynchronously by the {@link AuditLogWriter}. It runs first, so
+ * requests rejected by the other filters are audited too.
+ */
 @Component
-@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
 public class AuditLogFilter implements WebFilter {
-    @Override
-    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        Instant startTime = Instant.now();
-        
-        ServerHttpRequest request = exchange.getRequest();
 
-        String requestId = exchange.getRequest()
-                .getHeaders()
-                .getFirst("X-Request-Id");
+    private final AuditLogWriter auditLogWriter;
 
-        log.info("Request {} - Method: {}, Path: {}, QueryParams: {}",
-                requestId,
-                request.getMethod(),
-                request.getURI().getPath(),
-                request.getQueryParams());
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long timestamp = System.currentTimeMillis();
+        long startTime = System.nanoTime();
 
-        return chain.filter(exchange).doOnSuccess(aVoid -> {
-            ServerHttpResponse response = exchange.getResponse();
-            Duration duration = Duration.between(startTime, Instant.now());
+        ServerHttpRequest request = exchange.getRequest();
 
-            log.info("Response - Status: {}, Time Taken: {}ms",
-                    response.getStatusCode(),
-                    duration.toMillis());
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            auditLogWriter.submit(new AuditEvent(timestamp,
+                    request.getHeaders().getFirst("X-Request-Id"),
+                    request.getMethod().name(),
+                    request.getURI().getRawPath(),
+                    request.getURI().getRawQuery(),
+                    Objects.isNull(status) ? 0 : status.value(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
         });
     }
 }
@@ -0,0 +1,147 @@
+package com.encora.samples.nimbus.task.management.expose.web.filters;
+
+import com.encora.samples.nimbus.task.management.config.AuditProperties;
+import com.encora.samples.nimbus.task.management.utils.MpscRingBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes audit events to the log from a single background thread.
+ *
+ * Request threads only hand events over through a lock-free ring buffer, so audit logging never
+ * blocks the event loop; when the buffer is full the event is dropped and counted instead. The
+ * writer drains the buffer in batches and logs every batch with a single call, one line per event.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private final MpscRingBuffer<AuditEvent> events;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final StringBuilder batch = new StringBuilder();
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public AuditLogWriter(AuditProperties auditProperties, MeterRegistry meterRegistry) {
+        this.events = new MpscRingBuffer<>(auditProperties.getBufferSize());
+        this.batchSize = auditProperties.getBatchSize();
+        this.flushIntervalNanos = auditProperties.getFlushInterval().toNanos();
+
+        FunctionCounter.builder("audit.events.written", written, AtomicLong::get)
+                .description("Audit events written to the log")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.events.dropped", dropped, LongAdder::sum)
+                .description("Audit events dropped because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("audit.events.pending", events, MpscRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands an event over to the writer, without blocking.
+     *
+     * @param event The audit event.
+     * @return False when the buffer is full and the event was dropped.
+     */
+    public boolean submit(AuditEvent event) {
+        if (events.offer(event)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::run, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer once the pending events are written.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (Objects.nonNull(writer)) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        while (flush() > 0) {
+            // drain whatever was submitted while stopping
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (flush() == 0) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+            } catch (RuntimeException e) {
+                log.error("Error writing audit events", e);
+            }
+        }
+    }
+
+    /**
+     * Writes the next batch of events. Only called by the writer thread, or once it stopped.
+     *
+     * @return The number of events written.
+     */
+    synchronized int flush() {
+        batch.setLength(0);
+        int count = events.drain(this::append, batchSize);
+        if (count > 0) {
+            log.info(batch.toString());
+            written.addAndGet(count);
+        }
+        return count;
+    }
+
+    private void append(AuditEvent event) {
+        if (!batch.isEmpty()) {
+            batch.append(System.lineSeparator());
+        }
+        batch.append(Instant.ofEpochMilli(event.getTimestamp()))
+                .append(" Request ").append(event.getRequestId())
+                .append(" - Method: ").append(event.getMethod())
+                .append(", Path: ").append(event.getPath())
+                .append(", QueryParams: ").append(Objects.isNull(event.getQuery()) ? "" : event.getQuery())
+                .append(", Status: ").append(event.getStatus())
+                .append(", Time Taken: ").append(event.getDurationMillis()).append("ms");
+    }
+
+}
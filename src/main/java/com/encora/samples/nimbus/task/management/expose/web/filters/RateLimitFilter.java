@@ -0,0 +1,134 @@
+package com.encora.samples.nimbus.task.management.expose.web.filters;
+
+import com.encora.samples.nimbus.task.management.config.RateLimitProperties;
+import com.encora.samples.nimbus.task.management.model.api.ErrorResponse;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponse;
+import com.encora.samples.nimbus.task.management.utils.TokenBucket;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limits the requests of every user, identified by their {@code X-User-Id} header, so a
+ * single client cannot saturate the database for everyone.
+ *
+ * Every user has a token bucket for their reads and another one for their writes, see
+ * {@link RateLimitProperties}. A request finding its bucket empty is answered
+ * {@code 429 Too Many Requests} right away, with a {@code Retry-After} telling when a token is
+ * back. Buckets are dropped once idle long enough to be full again, so forgetting them changes
+ * nothing, and at most {@code maximumUsers} of them are kept, whatever the user ids sent.
+ * Requests without a user are left to the validation of the endpoints.
+ *
+ * Decisions are counted by the {@code rate.limit.requests} metric, tagged with the budget and
+ * whether the request was allowed, and the users tracked by the {@code rate.limit.users} gauge.
+ */
+@Slf4j
+@Component
+public class RateLimitFilter implements WebFilter {
+
+    private static final String USER_ID = "X-User-Id";
+
+    private final TokenBucket reads;
+
+    private final TokenBucket writes;
+
+    private final Cache<String, UserBuckets> buckets;
+
+    private final byte[] rejection;
+
+    private final Counter readsAllowed;
+
+    private final Counter readsRejected;
+
+    private final Counter writesAllowed;
+
+    private final Counter writesRejected;
+
+    public RateLimitFilter(RateLimitProperties rateLimitProperties, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) throws JsonProcessingException {
+        this.reads = new TokenBucket(rateLimitProperties.getRead().getCapacity(),
+                rateLimitProperties.getRead().getRefillPerSecond());
+        this.writes = new TokenBucket(rateLimitProperties.getWrite().getCapacity(),
+                rateLimitProperties.getWrite().getRefillPerSecond());
+        this.rejection = objectMapper.writeValueAsBytes(ServiceResponse.failed(
+                new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests")));
+
+        if (rateLimitProperties.isEnabled()) {
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(rateLimitProperties.getMaximumUsers())
+                    .expireAfterAccess(Duration.ofNanos(Math.max(reads.refillNanos(), writes.refillNanos())))
+                    .build();
+            Gauge.builder("rate.limit.users", buckets, Cache::estimatedSize)
+                    .description("Users whose request budgets are tracked")
+                    .register(meterRegistry);
+        } else {
+            this.buckets = null;
+            log.info("Rate limiting disabled");
+        }
+
+        this.readsAllowed = decisions(meterRegistry, "read", "allowed");
+        this.readsRejected = decisions(meterRegistry, "read", "rejected");
+        this.writesAllowed = decisions(meterRegistry, "write", "allowed");
+        this.writesRejected = decisions(meterRegistry, "write", "rejected");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String userId = exchange.getRequest().getHeaders().getFirst(USER_ID);
+        if (Objects.isNull(buckets) || !StringUtils.hasText(userId)) {
+            return chain.filter(exchange);
+        }
+
+        long now = System.nanoTime();
+        UserBuckets user = buckets.get(userId, key -> new UserBuckets(reads.full(now), writes.full(now)));
+        boolean read = isRead(exchange.getRequest().getMethod());
+        long wait = read ? reads.tryTake(user.read, now) : writes.tryTake(user.write, now);
+        if (wait == 0) {
+            (read ? readsAllowed : writesAllowed).increment();
+            return chain.filter(exchange);
+        }
+
+        (read ? readsRejected : writesRejected).increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejection)));
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method);
+    }
+
+    private static Counter decisions(MeterRegistry meterRegistry, String budget, String result) {
+        return Counter.builder("rate.limit.requests")
+                .description("Requests of the users checked against their budget")
+                .tag("budget", budget)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record UserBuckets(AtomicLong read, AtomicLong write) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.encora.samples.nimbus.task.management.expose.web.resolvers;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lombok.Value;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Precomputed header-to-field mapping for a type annotated with {@code @HttpHeadersMapping}.
+ *
+ * The header name of every field is taken from its {@link JsonProperty} annotation (falling back
+ * to the field name), so only the declared headers are read from the request and no intermediate
+ * map or JSON tree is built.
+ */
+class HeaderBinding {
+
+  private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+  private final Constructor<?> constructor;
+
+  private final List<HeaderField> fields;
+
+  private HeaderBinding(Constructor<?> constructor, List<HeaderField> fields) {
+    this.constructor = constructor;
+    this.fields = fields;
+  }
+
+  /**
+   * Inspects the given type once and builds its binding.
+   *
+   * @param type The parameter type to bind headers into.
+   * @return The binding for the type.
+   */
+  static HeaderBinding of(Class<?> type) {
+    List<HeaderField> fields = new ArrayList<>();
+    ReflectionUtils.doWithFields(type, field -> {
+      ReflectionUtils.makeAccessible(field);
+      fields.add(new HeaderField(headerName(field), field));
+    }, field -> !Modifier.isStatic(field.getModifiers()) && !field.isSynthetic());
+
+    try {
+      Constructor<?> constructor = ReflectionUtils.accessibleConstructor(type);
+      return new HeaderBinding(constructor, List.copyOf(fields));
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("Header mapping type " + type.getName()
+              + " needs a no-args constructor", e);
+    }
+  }
+
+  /**
+   * Creates a new instance populated from the request headers.
+   *
+   * @param headers The request headers.
+   * @return The bound instance.
+   */
+  Object bind(HttpHeaders headers) {
+    Object target = instantiate();
+    for (HeaderField headerField : fields) {
+      String value = headers.getFirst(headerField.getName());
+      if (Objects.nonNull(value)) {
+        ReflectionUtils.setField(headerField.getField(), target, convert(value, headerField.getField()));
+      }
+    }
+    return target;
+  }
+
+  private Object instantiate() {
+    try {
+      return constructor.newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Unable to instantiate " + constructor.getDeclaringClass().getName(), e);
+    }
+  }
+
+  private static Object convert(String value, Field field) {
+    if (field.getType() == String.class) {
+      return value;
+    }
+    return CONVERSION_SERVICE.convert(value, field.getType());
+  }
+
+  private static String headerName(Field field) {
+    JsonProperty property = field.getAnnotation(JsonProperty.class);
+    if (Objects.nonNull(property) && StringUtils.hasText(property.value())) {
+      return property.value();
+    }
+    return field.getName();
+  }
+
+  @Value
+  private static class HeaderField {
+
+    String name;
+
+    Field field;
+
+  }
+
+}
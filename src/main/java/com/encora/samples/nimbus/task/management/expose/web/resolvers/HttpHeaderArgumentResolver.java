@@ -1,33 +1,35 @@
 package com.encora.samples.nimbus.task.management.expose.web.resolvers;
 
 import com.encora.samples.nimbus.task.management.utils.annotations.HttpHeadersMapping;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
-import jakarta.validation.Validation;
 import jakarta.validation.Validator;
-import jakarta.validation.ValidatorFactory;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.validator.internal.engine.ValidatorFactoryImpl;
 import org.springframework.core.MethodParameter;
 import org.springframework.web.reactive.BindingContext;
 import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+/**
+ * Binds request headers into parameters annotated with {@link HttpHeadersMapping}.
+ *
+ * The header-to-field mapping of each parameter type is computed once and cached, and a single
+ * shared {@link Validator} (which caches the constraint metadata per type) checks the result.
+ */
 @Slf4j
 public class HttpHeaderArgumentResolver implements HandlerMethodArgumentResolver {
 
-  private ObjectMapper mapper;
+  private final Validator validator;
 
-  public HttpHeaderArgumentResolver(ObjectMapper mapper) {
+  private final Map<Class<?>, HeaderBinding> bindings = new ConcurrentHashMap<>();
+
+  public HttpHeaderArgumentResolver(Validator validator) {
     super();
-    mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
-    this.mapper = mapper;
+    this.validator = validator;
   }
 
   @Override
@@ -40,34 +42,17 @@ public class HttpHeaderArgumentResolver implements HandlerMethodArgumentResolver
                                       BindingContext bindingContext,
                                       ServerWebExchange exchange) {
 
-    return Mono.create(sink -> {
-
-      Map<String, String> headersMap = new HashMap<>();
-
-      exchange.getRequest().getHeaders()
-              .forEach((s, strings) -> headersMap.put(s, strings.get(0)));
-
-      Map<String, Object> headers = this.convertFromHeaders(headersMap);
+    return Mono.defer(() -> {
+      HeaderBinding binding = bindings.computeIfAbsent(parameter.getParameterType(), HeaderBinding::of);
 
-      Object obj = mapper.convertValue(headers, parameter.getParameterType());
-
-      ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
-      Validator validator = factory.getValidator();
+      Object obj = binding.bind(exchange.getRequest().getHeaders());
 
       Set<ConstraintViolation<Object>> violations = validator.validate(obj);
       if (!violations.isEmpty()) {
-        sink.error(new ConstraintViolationException(violations));
-      } else {
-        sink.success(obj);
+        return Mono.error(new ConstraintViolationException(violations));
       }
-
+      return Mono.just(obj);
     });
   }
 
-  private Map<String, Object> convertFromHeaders(Map<String, String> headers) {
-    Map<String, Object> headersMap = new HashMap<>();
-    headers.entrySet().forEach(entry -> headersMap.put(entry.getKey(), entry.getValue()));
-    return headersMap;
-  }
-
-}
\ No newline at end of file
+}
@@ -1,8 +1,10 @@
 package com.encora.samples.nimbus.task.management.mapper;
 
+import com.encora.samples.nimbus.task.management.model.api.TaskPatchRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
 import com.encora.samples.nimbus.task.management.model.domain.Task;
+import java.util.Set;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -14,13 +16,22 @@ public interface TaskMapper {
   @Mapping(source = "dueDate" , target = "dueDate" , dateFormat = "yyyy-MM-dd'T'HH:mm:ss")
   @Mapping(source = "userId" , target = "createdBy")
   @Mapping(constant = "false" , target = "deleted")
+  @Mapping(target = "version" , ignore = true)
   Task createOf(TaskRequest taskRequest);
 
   @Mapping(source = "dueDate" , target = "dueDate" , dateFormat = "yyyy-MM-dd'T'HH:mm:ss")
   @Mapping(expression = "java(java.time.LocalDateTime.now())" , target = "lastModifiedDate")
   @Mapping(source = "userId" , target = "lastModifiedBy")
+  @Mapping(target = "version" , ignore = true)
   Task updateOf(TaskRequest taskRequest);
 
+  @Mapping(source = "dueDate" , target = "dueDate" , dateFormat = "yyyy-MM-dd'T'HH:mm:ss")
+  @Mapping(expression = "java(java.time.LocalDateTime.now())" , target = "lastModifiedDate")
+  @Mapping(source = "userId" , target = "lastModifiedBy")
+  @Mapping(target = "userId" , ignore = true)
+  @Mapping(target = "version" , ignore = true)
+  Task patchOf(TaskPatchRequest taskPatchRequest);
+
 
   TaskResponse withDetailsOf(Task task);
 
@@ -35,4 +46,32 @@ public interface TaskMapper {
   @Mapping(target = "deleted" , ignore = true)
   TaskResponse responseOf(Task task);
 
+  /**
+   * Maps only the given properties of a task, the sparse fieldset of a listing.
+   *
+   * @param task The task, read with at least the given properties.
+   * @param fields The properties to map, see {@link com.encora.samples.nimbus.task.management.utils.TaskFields}.
+   * @return The response holding only the given properties.
+   */
+  default TaskResponse responseOf(Task task, Set<String> fields) {
+    TaskResponse response = new TaskResponse();
+    for (String field : fields) {
+      switch (field) {
+        case "id" -> response.setId(task.getId());
+        case "userId" -> response.setUserId(task.getUserId());
+        case "title" -> response.setTitle(task.getTitle());
+        case "description" -> response.setDescription(task.getDescription());
+        case "dueDate" -> response.setDueDate(task.getDueDate());
+        case "status" -> response.setStatus(task.getStatus());
+        case "lastModifiedDate" -> response.setLastModifiedDate(task.getLastModifiedDate());
+        case "createdDate" -> response.setCreatedDate(task.getCreatedDate());
+        case "createdBy" -> response.setCreatedBy(task.getCreatedBy());
+        case "lastModifiedBy" -> response.setLastModifiedBy(task.getLastModifiedBy());
+        default -> {
+        }
+      }
+    }
+    return response;
+  }
+
 }
@@ -0,0 +1,18 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+public class BatchOperation {
+
+  @NotBlank(message = "Operation is mandatory")
+  @Pattern(regexp = "^(CREATE|UPDATE|DELETE)$")
+  private String operation;
+
+  private String id;
+
+  private TaskRequest task;
+
+}
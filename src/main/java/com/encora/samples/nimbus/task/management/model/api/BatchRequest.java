@@ -0,0 +1,16 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BatchRequest {
+
+  private boolean ordered = true;
+
+  @NotEmpty(message = "Operations are mandatory")
+  private List<@Valid BatchOperation> operations;
+
+}
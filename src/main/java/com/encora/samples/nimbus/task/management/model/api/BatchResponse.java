@@ -0,0 +1,43 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BatchResponse {
+
+  @Schema(description = "Number of operations applied", required = true)
+  private Integer succeeded;
+
+  @Schema(description = "Number of updates and deletes of tasks that do not exist, which do not stop an ordered batch",
+          required = true)
+  private Integer notFound;
+
+  @Schema(description = "Number of operations that failed, or were skipped after a failure", required = true)
+  private Integer failed;
+
+  @Schema(description = "Result of every operation, in request order", required = true)
+  private List<BatchItemResult> results;
+
+  @Data
+  @Builder
+  public static class BatchItemResult {
+
+    @Schema(description = "Position of the operation in the request", required = true)
+    private Integer index;
+
+    @Schema(description = "ID of the task affected")
+    private String id;
+
+    @Schema(description = "HTTP status equivalent of the operation outcome", required = true)
+    private Integer status;
+
+    @Schema(description = "Error detail when the operation was not applied")
+    private String message;
+
+  }
+
+}
@@ -0,0 +1,17 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BulkDeleteRequest {
+
+  @Size(max = 1000, message = "At most 1000 ids can be deleted at once")
+  private List<String> ids;
+
+  @Pattern(regexp = "^(PENDING|IN_PROGRESS|EXPIRED|COMPLETED)$")
+  private String status;
+
+}
@@ -0,0 +1,14 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkDeleteResponse {
+
+  @Schema(description = "Number of tasks deleted", required = true)
+  private Long deleted;
+
+}
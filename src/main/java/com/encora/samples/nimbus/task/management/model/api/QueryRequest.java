@@ -17,4 +17,10 @@ public class QueryRequest {
 
   private String sortDirection = "desc";
 
+  private String cursor;
+
+  private String fields;
+
+  private String q;
+
 }
@@ -39,6 +39,9 @@ public class ServiceResponse<T> {
     @Schema(description = "Number of items on the current page", required = true)
     private Integer numberOfElements;
 
+    @Schema(description = "Cursor to request the next page, absent on the last page")
+    private String nextCursor;
+
   }
 
   public static <T> ServiceResponse<T> success(T element){
@@ -0,0 +1,38 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ServiceResponse} whose items are still being read.
+ *
+ * It is written as the same JSON envelope, but the items are encoded in order as they arrive and
+ * the paging is appended once they have all been written. The paging may depend on the items
+ * emitted, so it must only be subscribed alongside them.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ServiceResponseStream<T> {
+
+  private final Flux<T> data;
+
+  private final Mono<ServiceResponse.PageInfo> paging;
+
+  /**
+   * Changes whenever the items may have, the weak validator of the response. Null when unknown.
+   */
+  private final String revision;
+
+  /**
+   * Collects the items, for callers that need the whole response at once.
+   *
+   * @return A Mono emitting the buffered ServiceResponse.
+   */
+  public Mono<ServiceResponse<List<T>>> collect() {
+    return Mono.zip(data.collectList(), paging, ServiceResponse::queryResponse);
+  }
+
+}
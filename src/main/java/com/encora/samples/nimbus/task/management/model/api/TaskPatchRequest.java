@@ -0,0 +1,21 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+public class TaskPatchRequest {
+
+  private String userId;
+
+  @Pattern(regexp = "^(?!\\s*$).+", message = "Title must not be blank")
+  private String title;
+
+  private String description;
+
+  private String dueDate;
+
+  @Pattern(regexp = "^(PENDING|IN_PROGRESS|EXPIRED|COMPLETED)$")
+  private String status;
+
+}
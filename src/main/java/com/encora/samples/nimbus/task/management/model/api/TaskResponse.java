@@ -1,5 +1,6 @@
 package com.encora.samples.nimbus.task.management.model.api;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDate;
@@ -33,4 +34,10 @@ public class TaskResponse {
 
   private Boolean deleted;
 
+  /**
+   * Sent as the ETag of the task rather than in the body.
+   */
+  @JsonIgnore
+  private Long version;
+
 }
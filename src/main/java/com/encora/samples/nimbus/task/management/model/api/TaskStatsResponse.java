@@ -0,0 +1,33 @@
+package com.encora.samples.nimbus.task.management.model.api;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class TaskStatsResponse {
+
+  @Schema(description = "Number of tasks", required = true)
+  private Long total;
+
+  @Schema(description = "Number of tasks per status", required = true)
+  private Map<String, Long> statuses;
+
+  @Schema(description = "Number of tasks not completed whose due date has passed", required = true)
+  private Long overdue;
+
+  @Schema(description = "Number of open tasks due today", required = true)
+  private Long dueToday;
+
+  @Schema(description = "Number of open tasks due after today and until Sunday", required = true)
+  private Long dueThisWeek;
+
+  @Schema(description = "Number of open tasks due after this week", required = true)
+  private Long dueLater;
+
+  @Schema(description = "Number of open tasks without due date", required = true)
+  private Long withoutDueDate;
+
+}
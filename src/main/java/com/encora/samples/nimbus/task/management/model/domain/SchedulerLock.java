@@ -0,0 +1,24 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import java.time.Instant;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Lease on a scheduled job, held by a single instance at a time until it is released or expires.
+ */
+@Data
+@Document("scheduler_locks")
+public class SchedulerLock {
+
+    @Id
+    private String name;
+
+    private String owner;
+
+    private Instant lockedAt;
+
+    private Instant lockedUntil;
+
+}
@@ -6,10 +6,20 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @Document("tasks") 
+@CompoundIndexes({
+        @CompoundIndex(name = "user_deleted_due_idx", def = "{'userId': 1, 'deleted': 1, 'dueDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_deleted_status_due_idx", def = "{'userId': 1, 'deleted': 1, 'status': 1, 'dueDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "user_title_uq", def = "{'userId': 1, 'title': 1}", unique = true),
+        @CompoundIndex(name = "status_due_idx", def = "{'status': 1, 'dueDate': 1}", partialFilter = "{'deleted': false}"),
+        @CompoundIndex(name = "user_text_idx", def = "{'userId': 1, 'title': 'text', 'description': 'text'}")
+})
 public class Task {
 
     @Id
@@ -37,4 +47,10 @@ public class Task {
 
 
     private Boolean deleted;
+
+    /**
+     * Incremented on every write. Tasks written before versioning have none, which stands for 0.
+     */
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A change applied to a task, as reported by the tasks change stream.
+ */
+@Data
+@AllArgsConstructor
+public class TaskChange {
+
+    private String operation;
+
+    private String resumeToken;
+
+    private Task task;
+
+}
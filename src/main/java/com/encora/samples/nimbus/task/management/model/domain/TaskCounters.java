@@ -0,0 +1,38 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Materialized number of live tasks of a user, in total and per {@link TaskStatus}.
+ */
+@Data
+@Document("task_counters")
+public class TaskCounters {
+
+    @Id
+    private String userId;
+
+    private Long total = 0L;
+
+    private Map<String, Long> statuses = new HashMap<>();
+
+    /**
+     * Opaque token replaced on every write to the tasks of the user, the validator of its task
+     * listings.
+     */
+    private String revision;
+
+    /**
+     * Number of live tasks of the user with the given status, or all of them when no status is given.
+     */
+    public long count(String status) {
+        if (status == null || status.isBlank()) {
+            return total;
+        }
+        return statuses.getOrDefault(status, 0L);
+    }
+}
@@ -0,0 +1,54 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * Accumulates the changes to apply to the {@link TaskCounters} of a user with a single $inc.
+ */
+@Getter
+public class TaskCountersDelta {
+
+    private long total;
+
+    private final Map<String, Long> statuses = new HashMap<>();
+
+    public TaskCountersDelta add(String status) {
+        return add(status, 1);
+    }
+
+    public TaskCountersDelta add(String status, long count) {
+        total += count;
+        return change(status, count);
+    }
+
+    public TaskCountersDelta remove(String status) {
+        return remove(status, 1);
+    }
+
+    public TaskCountersDelta remove(String status, long count) {
+        total -= count;
+        return change(status, -count);
+    }
+
+    public TaskCountersDelta move(String fromStatus, String toStatus) {
+        if (!Objects.equals(fromStatus, toStatus)) {
+            change(fromStatus, -1);
+            change(toStatus, 1);
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return total == 0 && statuses.values().stream().allMatch(count -> count == 0);
+    }
+
+    private TaskCountersDelta change(String status, long count) {
+        if (Objects.nonNull(status)) {
+            statuses.merge(status, count, Long::sum);
+        }
+        return this;
+    }
+}
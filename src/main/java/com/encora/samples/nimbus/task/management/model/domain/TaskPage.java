@@ -0,0 +1,18 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A page of tasks along with the number of tasks of all the pages.
+ */
+@Data
+@AllArgsConstructor
+public class TaskPage {
+
+    private List<Task> tasks;
+
+    private long total;
+
+}
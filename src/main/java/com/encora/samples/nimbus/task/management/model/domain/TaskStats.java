@@ -0,0 +1,34 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * Summary of the live tasks of a user, computed on demand.
+ *
+ * The due date counts only cover the open tasks, the ones still to be done.
+ */
+@Data
+public class TaskStats {
+
+    private long total;
+
+    private Map<String, Long> statuses = new HashMap<>();
+
+    /**
+     * Open tasks whose due date has passed, not yet expired by the sweeper.
+     */
+    private long overdue;
+
+    private long dueToday;
+
+    /**
+     * Open tasks due after today and until the end of the week.
+     */
+    private long dueThisWeek;
+
+    private long dueLater;
+
+    private long withoutDueDate;
+}
@@ -0,0 +1,17 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A task before and after an in-place update.
+ */
+@Data
+@AllArgsConstructor
+public class TaskUpdate {
+
+    private Task previous;
+
+    private Task current;
+
+}
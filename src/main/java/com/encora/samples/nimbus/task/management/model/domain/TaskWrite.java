@@ -0,0 +1,40 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A single write of a bulk operation over the tasks of a user.
+ */
+@Data
+@AllArgsConstructor
+public class TaskWrite {
+
+    private Type type;
+
+    private String id;
+
+    private Task task;
+
+    public static TaskWrite insert(Task task) {
+        return new TaskWrite(Type.INSERT, task.getId(), task);
+    }
+
+    public static TaskWrite update(String id, Task changes) {
+        return new TaskWrite(Type.UPDATE, id, changes);
+    }
+
+    public static TaskWrite delete(String id) {
+        return new TaskWrite(Type.DELETE, id, null);
+    }
+
+    public enum Type {
+
+        INSERT,
+
+        UPDATE,
+
+        DELETE
+
+    }
+}
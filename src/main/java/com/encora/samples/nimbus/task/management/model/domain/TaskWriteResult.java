@@ -0,0 +1,49 @@
+package com.encora.samples.nimbus.task.management.model.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of a single {@link TaskWrite} of a bulk operation.
+ */
+@Data
+@AllArgsConstructor
+public class TaskWriteResult {
+
+    private String id;
+
+    private Outcome outcome;
+
+    /**
+     * Status the task had before an update or delete, when known.
+     */
+    private String previousStatus;
+
+    /**
+     * Whether the outcome or the previous status may be wrong, as the writes of the batch raced
+     * with others. The counters of the user have to be recomputed instead of moved by it.
+     */
+    private boolean unconfirmed;
+
+    public TaskWriteResult(String id, Outcome outcome) {
+        this(id, outcome, null);
+    }
+
+    public TaskWriteResult(String id, Outcome outcome, String previousStatus) {
+        this(id, outcome, previousStatus, false);
+    }
+
+    public enum Outcome {
+
+        APPLIED,
+
+        NOT_FOUND,
+
+        DUPLICATED,
+
+        FAILED,
+
+        SKIPPED
+
+    }
+}
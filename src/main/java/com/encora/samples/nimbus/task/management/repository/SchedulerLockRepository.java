@@ -0,0 +1,8 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.SchedulerLock;
+import org.springframework.data.repository.Repository;
+
+public interface SchedulerLockRepository extends Repository<SchedulerLock, String>, SchedulerLockRepositoryCustom {
+
+}
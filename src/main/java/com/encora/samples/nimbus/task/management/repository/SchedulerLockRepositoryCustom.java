@@ -0,0 +1,11 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import java.time.Duration;
+import reactor.core.publisher.Mono;
+
+public interface SchedulerLockRepositoryCustom {
+
+    Mono<Boolean> acquire(String name , String owner, Duration lease);
+
+    Mono<Void> release(String name , String owner);
+}
@@ -0,0 +1,48 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.SchedulerLock;
+import java.time.Duration;
+import java.time.Instant;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class SchedulerLockRepositoryCustomImpl implements SchedulerLockRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Takes or extends the lease with a single upsert, matching the lock only when it expired or
+     * is already held by the owner. When another instance holds it, the upsert fails on the
+     * duplicated id instead.
+     *
+     * @return Whether the owner holds the lease.
+     */
+    @Override
+    public Mono<Boolean> acquire(String name, String owner, Duration lease) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(name)
+                .orOperator(Criteria.where("lockedUntil").lte(now), Criteria.where("owner").is(owner)));
+        Update update = Update.update("owner", owner)
+                .set("lockedAt", now)
+                .set("lockedUntil", now.plus(lease));
+        return mongoTemplate.upsert(query, update, SchedulerLock.class)
+                .thenReturn(true)
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+    }
+
+    /**
+     * Ends the lease early, if still held by the owner.
+     */
+    @Override
+    public Mono<Void> release(String name, String owner) {
+        Query query = Query.query(Criteria.where("_id").is(name).and("owner").is(owner));
+        return mongoTemplate.updateFirst(query, Update.update("lockedUntil", Instant.now()), SchedulerLock.class)
+                .then();
+    }
+}
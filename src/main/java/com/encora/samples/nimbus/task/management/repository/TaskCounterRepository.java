@@ -0,0 +1,11 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Mono;
+
+public interface TaskCounterRepository extends Repository<TaskCounters, String>, TaskCounterRepositoryCustom {
+
+    Mono<TaskCounters> findById(String userId);
+
+}
@@ -0,0 +1,14 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCountersDelta;
+import reactor.core.publisher.Mono;
+
+public interface TaskCounterRepositoryCustom {
+
+    Mono<Void> increment(String userId , TaskCountersDelta delta);
+
+    Mono<TaskCounters> reconcile(String userId);
+
+    Mono<Void> reconcileAll();
+}
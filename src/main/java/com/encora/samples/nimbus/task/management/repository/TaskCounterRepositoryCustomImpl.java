@@ -0,0 +1,137 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCountersDelta;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+@RequiredArgsConstructor
+public class TaskCounterRepositoryCustomImpl implements TaskCounterRepositoryCustom {
+
+    private static final int RECONCILE_RETRIES = 3;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Applies the delta with a single $inc, replacing the revision of the tasks of the user even
+     * when no count changes. Counters that were never initialized are left alone, they are seeded
+     * from the tasks the first time they are read.
+     */
+    @Override
+    public Mono<Void> increment(String userId, TaskCountersDelta delta) {
+        Update update = Update.update("revision", newRevision());
+        if (delta.getTotal() != 0) {
+            update.inc("total", delta.getTotal());
+        }
+        delta.getStatuses().forEach((status, count) -> {
+            if (count != 0) {
+                update.inc("statuses." + status, count);
+            }
+        });
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("userId").is(userId)), update, TaskCounters.class)
+                .then();
+    }
+
+    /**
+     * Recomputes the counters of a user from its live tasks. They are written with a single
+     * upsert conditioned on the revision read before counting, so an $inc landing in between
+     * fails the write, on the duplicated id, and the counters are recomputed again.
+     */
+    @Override
+    public Mono<TaskCounters> reconcile(String userId) {
+        return Mono.defer(() -> revisionOf(userId)
+                        .flatMap(revision -> countLiveTasks(userId)
+                                .flatMap(counters -> replace(counters, revision.orElse(null)))))
+                .retryWhen(Retry.max(RECONCILE_RETRIES)
+                        .filter(DuplicateKeyException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Mono<Optional<String>> revisionOf(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().include("revision");
+        return mongoTemplate.findOne(query, TaskCounters.class)
+                .map(counters -> Optional.ofNullable(counters.getRevision()))
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private Mono<TaskCounters> countLiveTasks(String userId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId).and("deleted").is(false)),
+                Aggregation.group("status").count().as("count"));
+
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Task.class), Document.class)
+                .collectList()
+                .map(groups -> {
+                    TaskCounters counters = new TaskCounters();
+                    counters.setUserId(userId);
+                    counters.setRevision(newRevision());
+                    groups.forEach(group -> {
+                        long count = group.get("count", Number.class).longValue();
+                        counters.setTotal(counters.getTotal() + count);
+                        String status = group.getString("_id");
+                        if (status != null) {
+                            counters.getStatuses().put(status, count);
+                        }
+                    });
+                    return counters;
+                });
+    }
+
+    private Mono<TaskCounters> replace(TaskCounters counters, String revision) {
+        Query query = Query.query(Criteria.where("userId").is(counters.getUserId()).and("revision").is(revision));
+        Update update = Update.update("total", counters.getTotal())
+                .set("statuses", counters.getStatuses())
+                .set("revision", counters.getRevision());
+        return mongoTemplate.upsert(query, update, TaskCounters.class)
+                .thenReturn(counters);
+    }
+
+    /**
+     * Recomputes the counters of every user in a single server side pipeline merged into the
+     * counters collection. Deleted tasks are scanned too, so users whose tasks were all deleted
+     * are reset to zero, and tasks without status only count in the total. The revisions are
+     * kept, the tasks behind them did not change.
+     */
+    @Override
+    public Mono<Void> reconcileAll() {
+        Document liveTask = new Document("$cond", List.of(new Document("$eq", List.of("$deleted", true)), 0, 1));
+        Document withStatus = new Document("$filter", new Document("input", "$statuses")
+                .append("cond", new Document("$ne", Arrays.asList("$$this.k", null))));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.stage(new Document("$group", new Document("_id",
+                        new Document("userId", "$userId").append("status", "$status"))
+                        .append("count", new Document("$sum", liveTask)))),
+                Aggregation.stage(new Document("$group", new Document("_id", "$_id.userId")
+                        .append("total", new Document("$sum", "$count"))
+                        .append("statuses", new Document("$push",
+                                new Document("k", "$_id.status").append("v", new Document("$toLong", "$count")))))),
+                Aggregation.stage(new Document("$project", new Document("total", new Document("$toLong", "$total"))
+                        .append("statuses", new Document("$arrayToObject", withStatus)))),
+                Aggregation.stage(new Document("$merge", new Document("into",
+                        mongoTemplate.getCollectionName(TaskCounters.class))
+                        .append("on", "_id")
+                        .append("whenMatched", "merge")
+                        .append("whenNotMatched", "insert"))));
+
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Task.class), Document.class)
+                .then();
+    }
+
+    private static String newRevision() {
+        return new ObjectId().toHexString();
+    }
+}
@@ -1,18 +1,21 @@
 package com.encora.samples.nimbus.task.management.repository;
 
 import com.encora.samples.nimbus.task.management.model.domain.Task;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.repository.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface TaskRepository extends ReactiveMongoRepository<Task, String> {
+public interface TaskRepository extends Repository<Task, String>, TaskRepositoryCustom {
 
-    Mono<Task> findByTitleAndUserId(String title , String userId);
+    Mono<Task> findById(String id);
 
-    Mono<Integer> countByUserIdAndDeleted(String userId , boolean deleted);
+    <S extends Task> Mono<S> insert(S entity);
 
-    Mono<Integer> countByUserIdAndStatusAndDeleted(String userId , String status, boolean deleted);
+    @Meta(cursorBatchSize = 500)
+    Flux<Task> streamAllByUserIdAndDeleted(String userId , boolean deleted, Sort sort);
 
-    Flux<Task> findAllByUserId(String userId , Pageable pageable);
+    @Meta(cursorBatchSize = 500)
+    Flux<Task> streamAllByUserIdAndStatusAndDeleted(String userId , String status, boolean deleted, Sort sort);
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskChange;
+import com.encora.samples.nimbus.task.management.model.domain.TaskPage;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStats;
+import com.encora.samples.nimbus.task.management.model.domain.TaskUpdate;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface TaskRepositoryCustom {
+
+    Flux<Task> findAllByUserId(String userId , String status, Pageable pageable, Collection<String> fields);
+
+    Flux<Task> findAllByUserIdAfter(String userId , String status, TaskCursor cursor, int size, Collection<String> fields);
+
+    Mono<TaskPage> findPageByUserId(String userId , String status, Pageable pageable, Collection<String> fields);
+
+    Mono<TaskPage> findPageByUserIdAfter(String userId , String status, TaskCursor cursor, int size, Collection<String> fields);
+
+    Flux<Task> searchByUserId(String userId , String status, String text, Pageable pageable, Collection<String> fields);
+
+    Mono<TaskStats> statsByUserId(String userId , Collection<String> openStatuses, LocalDate today, LocalDate endOfWeek);
+
+    Mono<Task> replaceById(Task task , long version);
+
+    Mono<TaskUpdate> updateFieldsById(String id , Task changes, Collection<Long> versions);
+
+    Mono<Task> softDeleteById(String id , Collection<Long> versions);
+
+    Mono<Long> softDeleteAllByUserId(String userId , List<String> ids, String status);
+
+    Mono<List<TaskWriteResult>> bulkWrite(String userId , List<TaskWrite> writes, boolean ordered);
+
+    Flux<TaskChange> watchChanges(String userId , String resumeToken);
+
+    Flux<Task> findOverdue(List<String> statuses , LocalDate date, int size);
+
+    Mono<Long> markOverdue(List<String> ids , List<String> statuses, LocalDate date, String status);
+}
@@ -0,0 +1,652 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskChange;
+import com.encora.samples.nimbus.task.management.model.domain.TaskPage;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStats;
+import com.encora.samples.nimbus.task.management.model.domain.TaskUpdate;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import com.encora.samples.nimbus.task.management.utils.TaskSearchTerms;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.common.util.StringUtils;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveChangeStreamOperation;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.CollectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String ID = "id";
+
+    private static final String VERSION = "version";
+
+    private static final String PAGE = "page";
+
+    private static final String TOTAL = "total";
+
+    private static final String COUNT = "count";
+
+    private static final String DUE_OVERDUE = "overdue";
+
+    private static final String DUE_TODAY = "today";
+
+    private static final String DUE_THIS_WEEK = "thisWeek";
+
+    private static final String DUE_LATER = "later";
+
+    private static final String DUE_NONE = "none";
+
+    private static final String STATS_INDEX = "user_deleted_status_due_idx";
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final String RESUME_TOKEN_DATA = "_data";
+
+    private static final String OVERDUE_INDEX = "status_due_idx";
+
+    private static final String BULK_WRITE_ID = "bulkWriteId";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Reads a page of the live tasks of a user. Only the given fields are read, all of them
+     * when none is given.
+     */
+    @Override
+    public Flux<Task> findAllByUserId(String userId, String status, Pageable pageable, Collection<String> fields) {
+        Query query = Query.query(liveTasksOf(userId, status))
+                .with(pageable);
+        include(query, fields);
+        return mongoTemplate.find(query, Task.class);
+    }
+
+    /**
+     * Reads the live tasks of a user located after a keyset cursor. Only the given fields are
+     * read, all of them when none is given.
+     */
+    @Override
+    public Flux<Task> findAllByUserIdAfter(String userId, String status, TaskCursor cursor, int size,
+                                          Collection<String> fields) {
+        Query query = Query.query(liveTasksOf(userId, status).orOperator(after(cursor)))
+                .with(Sort.by(cursor.getDirection(), cursor.getSortBy(), ID))
+                .limit(size);
+        include(query, fields);
+        return mongoTemplate.find(query, Task.class);
+    }
+
+    /**
+     * Reads a page of the live tasks of a user along with their number, in a single aggregation.
+     * The tasks are sorted on the user_deleted_due_idx index before a $facet splits them into the
+     * requested page and their count, so the sort has to be by due date: any other one is a
+     * blocking sort of every task of the user in memory. Only the given fields are read, all of
+     * them when none is given.
+     */
+    @Override
+    public Mono<TaskPage> findPageByUserId(String userId, String status, Pageable pageable, Collection<String> fields) {
+        List<AggregationOperation> page = new ArrayList<>();
+        if (pageable.isPaged()) {
+            page.add(Aggregation.skip(pageable.getOffset()));
+            page.add(Aggregation.limit(pageable.getPageSize()));
+        }
+        return findPage(liveTasksOf(userId, status), pageable.getSort(), page, fields);
+    }
+
+    /**
+     * Reads the live tasks of a user located after a keyset cursor along with the number of all
+     * their live tasks, in a single aggregation. Only the given fields are read, all of them when
+     * none is given.
+     */
+    @Override
+    public Mono<TaskPage> findPageByUserIdAfter(String userId, String status, TaskCursor cursor, int size,
+                                                Collection<String> fields) {
+        List<AggregationOperation> page = List.of(
+                Aggregation.match(new Criteria().orOperator(after(cursor))),
+                Aggregation.limit(size));
+        return findPage(liveTasksOf(userId, status), Sort.by(cursor.getDirection(), cursor.getSortBy(), ID), page,
+                fields);
+    }
+
+    /**
+     * Reads a page of the live tasks of a user matching any term of a text, most relevant first,
+     * through the user_text_idx text index. Terms are matched whole, after stemming, against the
+     * title and description. Only the given fields are read, all of them when none is given.
+     */
+    @Override
+    public Flux<Task> searchByUserId(String userId, String status, String text, Pageable pageable,
+                                     Collection<String> fields) {
+        List<String> terms = TaskSearchTerms.of(text);
+        if (terms.isEmpty()) {
+            return Flux.empty();
+        }
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matchingAny(terms.toArray(String[]::new)))
+                .sortByScore()
+                .addCriteria(liveTasksOf(userId, status))
+                .with(pageable)
+                .with(Sort.by(ID));
+        include(query, fields);
+        return mongoTemplate.find(query, Task.class);
+    }
+
+    /**
+     * Summarizes the live tasks of a user in a single aggregation. Only their status and due date
+     * are projected and the user_deleted_status_due_idx index is hinted, so the scan is covered by
+     * it, and a $facet counts them per status and the open ones per due date bucket in the same
+     * pass.
+     */
+    @Override
+    public Mono<TaskStats> statsByUserId(String userId, Collection<String> openStatuses, LocalDate today,
+                                         LocalDate endOfWeek) {
+        Object todayDate = mongoTemplate.getConverter().convertToMongoType(today);
+        Object endOfWeekDate = mongoTemplate.getConverter().convertToMongoType(endOfWeek);
+        Document dueDateBucket = new Document("$switch", new Document("branches", List.of(
+                new Document("case", new Document("$eq", Arrays.asList(
+                        new Document("$ifNull", Arrays.asList("$dueDate", null)), null)))
+                        .append("then", DUE_NONE),
+                new Document("case", new Document("$lt", List.of("$dueDate", todayDate))).append("then", DUE_OVERDUE),
+                new Document("case", new Document("$eq", List.of("$dueDate", todayDate))).append("then", DUE_TODAY),
+                new Document("case", new Document("$lte", List.of("$dueDate", endOfWeekDate))).append("then", DUE_THIS_WEEK)))
+                .append("default", DUE_LATER));
+        Document tally = new Document("$sum", 1);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(liveTasksOf(userId, null)),
+                Aggregation.stage(new Document("$project", new Document("_id", 0)
+                        .append("status", 1)
+                        .append("dueDate", 1))),
+                Aggregation.stage(new Document("$facet", new Document("statuses", List.of(
+                        new Document("$group", new Document("_id", "$status").append("count", tally))))
+                        .append("dueDates", List.of(
+                                new Document("$match", new Document("status", new Document("$in", openStatuses))),
+                                new Document("$group", new Document("_id", dueDateBucket)
+                                        .append("count", tally)))))))
+                .withOptions(AggregationOptions.builder().hint(STATS_INDEX).build());
+
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Task.class), Document.class)
+                .next()
+                .map(facets -> {
+                    TaskStats stats = new TaskStats();
+                    facets.getList("statuses", Document.class).forEach(group -> {
+                        long count = group.get("count", Number.class).longValue();
+                        stats.setTotal(stats.getTotal() + count);
+                        if (Objects.nonNull(group.getString("_id"))) {
+                            stats.getStatuses().put(group.getString("_id"), count);
+                        }
+                    });
+                    facets.getList("dueDates", Document.class).forEach(group -> {
+                        long count = group.get("count", Number.class).longValue();
+                        switch (group.getString("_id")) {
+                            case DUE_OVERDUE -> stats.setOverdue(count);
+                            case DUE_TODAY -> stats.setDueToday(count);
+                            case DUE_THIS_WEEK -> stats.setDueThisWeek(count);
+                            case DUE_LATER -> stats.setDueLater(count);
+                            default -> stats.setWithoutDueDate(count);
+                        }
+                    });
+                    return stats;
+                });
+    }
+
+    /**
+     * Replaces a whole task as long as it is still at the given version, moving it to the next
+     * one.
+     *
+     * @return The task as replaced, empty when it does not exist or was changed in between.
+     */
+    @Override
+    public Mono<Task> replaceById(Task task, long version) {
+        Query query = Query.query(Criteria.where(ID).is(task.getId())
+                .and(VERSION).in(versionsMatching(List.of(version))));
+        task.setVersion(version + 1);
+        return mongoTemplate.findAndReplace(query, task, FindAndReplaceOptions.options().returnNew());
+    }
+
+    /**
+     * Sets every non null field of {@code changes} on a non deleted task in a single
+     * findAndModify, incrementing its version. The previous document is returned by the server
+     * and the update is applied to it locally, so both versions of the task come back without
+     * another round trip.
+     *
+     * @param versions The versions the task must have, any version when null.
+     */
+    @Override
+    public Mono<TaskUpdate> updateFieldsById(String id, Task changes, Collection<Long> versions) {
+        Document set = toSetDocument(changes);
+        Update update = new Update().inc(VERSION, 1L);
+        set.forEach(update::set);
+
+        Criteria criteria = Criteria.where("_id").is(toObjectId(id))
+                .and("deleted").is(false);
+        if (Objects.nonNull(versions)) {
+            criteria = criteria.and(VERSION).in(versionsMatching(versions));
+        }
+        return mongoTemplate.findAndModify(Query.query(criteria), update,
+                        FindAndModifyOptions.options().returnNew(false), Document.class,
+                        mongoTemplate.getCollectionName(Task.class))
+                .map(previous -> {
+                    Document current = new Document(previous);
+                    current.putAll(set);
+                    Number version = previous.get(VERSION, Number.class);
+                    current.put(VERSION, (Objects.isNull(version) ? 0L : version.longValue()) + 1);
+                    return new TaskUpdate(mongoTemplate.getConverter().read(Task.class, previous),
+                            mongoTemplate.getConverter().read(Task.class, current));
+                });
+    }
+
+    /**
+     * Flags a task as deleted with a single conditional findAndModify.
+     *
+     * @param versions The versions the task must have, any version when null.
+     * @return The owner and status the task had, empty when the task does not exist, is already
+     * deleted or is at another version.
+     */
+    @Override
+    public Mono<Task> softDeleteById(String id, Collection<Long> versions) {
+        Criteria criteria = Criteria.where(ID).is(id)
+                .and("deleted").is(false);
+        if (Objects.nonNull(versions)) {
+            criteria = criteria.and(VERSION).in(versionsMatching(versions));
+        }
+        Query query = Query.query(criteria);
+        query.fields().include("userId", "status");
+        return mongoTemplate.findAndModify(query, softDelete(), FindAndModifyOptions.options().returnNew(false),
+                Task.class);
+    }
+
+    /**
+     * Flags every live task of a user matching the given ids and/or status as deleted.
+     *
+     * @return The number of tasks deleted.
+     */
+    @Override
+    public Mono<Long> softDeleteAllByUserId(String userId, List<String> ids, String status) {
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("deleted").is(false);
+        if (!CollectionUtils.isEmpty(ids)) {
+            criteria = criteria.and(ID).in(ids);
+        }
+        if (StringUtils.isNotBlank(status)) {
+            criteria = criteria.and("status").is(status);
+        }
+        return mongoTemplate.updateMulti(Query.query(criteria), softDelete().set("lastModifiedBy", userId), Task.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    /**
+     * Executes the writes of a user as a single Mongo bulkWrite. Updates and deletes are
+     * restricted to live tasks of the user; their targets are resolved with one projected
+     * query first so every write gets an accurate outcome, following the status of the tasks
+     * written more than once through the batch. A task deleted after that query is caught by the
+     * number of tasks the bulkWrite matched.
+     *
+     * @return The outcome of every write, in the same order as {@code writes}.
+     */
+    @Override
+    public Mono<List<TaskWriteResult>> bulkWrite(String userId, List<TaskWrite> writes, boolean ordered) {
+        Set<String> targetIds = writes.stream()
+                .filter(write -> write.getType() != TaskWrite.Type.INSERT)
+                .map(TaskWrite::getId)
+                .collect(Collectors.toSet());
+
+        Mono<Map<String, String>> existingIds = targetIds.isEmpty()
+                ? Mono.just(Map.of())
+                : findLiveIds(userId, targetIds);
+
+        return existingIds.flatMap(existing -> executeBulkWrite(userId, writes, existing, ordered));
+    }
+
+    /**
+     * Resolves which of the given tasks are live, along with their current status.
+     */
+    private Mono<Map<String, String>> findLiveIds(String userId, Set<String> ids) {
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                .and("deleted").is(false)
+                .and(ID).in(ids));
+        query.fields().include(ID, "status");
+        return mongoTemplate.find(query, Task.class)
+                .collect(HashMap::new, (statuses, task) -> statuses.put(task.getId(), task.getStatus()));
+    }
+
+    private Mono<List<TaskWriteResult>> executeBulkWrite(String userId, List<TaskWrite> writes,
+                                                         Map<String, String> existingIds, boolean ordered) {
+        TaskWriteResult[] results = new TaskWriteResult[writes.size()];
+        String[] previousStatuses = new String[writes.size()];
+        List<WriteModel<Document>> models = new ArrayList<>();
+        List<Integer> modelIndexes = new ArrayList<>();
+        // Set by this bulkWrite only, tells the tasks it matched from the ones deleted before it ran
+        ObjectId bulkWriteId = new ObjectId();
+        Map<String, String> liveIds = new HashMap<>(existingIds);
+        Set<String> writtenIds = new HashSet<>();
+        boolean rewritten = false;
+
+        for (int i = 0; i < writes.size(); i++) {
+            TaskWrite write = writes.get(i);
+            if (write.getType() == TaskWrite.Type.INSERT) {
+                write.getTask().setId(new ObjectId().toHexString());
+                write.setId(write.getTask().getId());
+            } else if (!liveIds.containsKey(write.getId())) {
+                results[i] = new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.NOT_FOUND);
+                continue;
+            } else {
+                rewritten = !writtenIds.add(write.getId()) || rewritten;
+                previousStatuses[i] = liveIds.get(write.getId());
+                if (write.getType() == TaskWrite.Type.DELETE) {
+                    liveIds.remove(write.getId());
+                } else if (Objects.nonNull(write.getTask().getStatus())) {
+                    liveIds.put(write.getId(), write.getTask().getStatus());
+                }
+            }
+            models.add(toWriteModel(userId, write, bulkWriteId));
+            modelIndexes.add(i);
+        }
+
+        if (models.isEmpty()) {
+            return Mono.just(Arrays.asList(results));
+        }
+
+        boolean anyRewritten = rewritten;
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Task.class))
+                .flatMap(collection -> Mono.from(collection.bulkWrite(models, new BulkWriteOptions().ordered(ordered))))
+                .map(bulkWriteResult -> new BulkWriteOutcome(bulkWriteResult.getMatchedCount(), Map.of()))
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(new BulkWriteOutcome(
+                        e.getWriteResult().getMatchedCount(), e.getWriteErrors().stream()
+                        .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getCode)))))
+                .flatMap(outcome -> {
+                    Map<Integer, Integer> errors = outcome.errors();
+                    int firstError = errors.keySet().stream().min(Integer::compare).orElse(Integer.MAX_VALUE);
+                    List<String> updatedIds = new ArrayList<>();
+                    for (int m = 0; m < models.size(); m++) {
+                        if (models.get(m) instanceof UpdateOneModel && !errors.containsKey(m)
+                                && !(ordered && m > firstError)) {
+                            updatedIds.add(writes.get(modelIndexes.get(m)).getId());
+                        }
+                    }
+                    Mono<Set<String>> unmatchedIds = outcome.matched() >= updatedIds.size()
+                            ? Mono.just(Set.of())
+                            : findUnmatchedIds(userId, updatedIds, bulkWriteId);
+                    return unmatchedIds.map(unmatched -> {
+                        long matched = updatedIds.stream().filter(id -> !unmatched.contains(id)).count();
+                        // A failed write leaves the previous status of the later writes of its task wrong
+                        boolean unconfirmed = matched != outcome.matched() || (anyRewritten && !errors.isEmpty());
+                        for (int m = 0; m < models.size(); m++) {
+                            int index = modelIndexes.get(m);
+                            String id = writes.get(index).getId();
+                            results[index] = new TaskWriteResult(id, unmatched.contains(id)
+                                    ? TaskWriteResult.Outcome.NOT_FOUND
+                                    : outcomeOf(m, errors, ordered && m > firstError),
+                                    previousStatuses[index], unconfirmed);
+                        }
+                        return Arrays.asList(results);
+                    });
+                });
+    }
+
+    /**
+     * Tells which of the updated tasks a bulkWrite did not match: the ones no longer live that do
+     * not bear its id either. A task replaced after the bulkWrite loses that id, but being live it
+     * was matched by it, as deleted tasks never come back.
+     */
+    private Mono<Set<String>> findUnmatchedIds(String userId, List<String> ids, ObjectId bulkWriteId) {
+        Query query = Query.query(Criteria.where(ID).in(ids)
+                .and("userId").is(userId)
+                .orOperator(Criteria.where("deleted").is(false), Criteria.where(BULK_WRITE_ID).is(bulkWriteId)));
+        query.fields().include(ID);
+        return mongoTemplate.find(query, Task.class)
+                .map(Task::getId)
+                .collect(Collectors.toSet())
+                .map(matched -> ids.stream()
+                        .filter(id -> !matched.contains(id))
+                        .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Opens a change stream over the tasks collection, looking up the full document of updates.
+     *
+     * @param userId The optional user whose changes are wanted, filtered by the server.
+     * @param resumeToken The optional token of the last change seen, to resume after it.
+     * @return The changes, as they happen.
+     */
+    @Override
+    public Flux<TaskChange> watchChanges(String userId, String resumeToken) {
+        ReactiveChangeStreamOperation.ChangeStreamWithFilterAndProjection<Task> changeStream = mongoTemplate
+                .changeStream(Task.class)
+                .withOptions(options -> {
+                    options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+                    if (StringUtils.isNotBlank(resumeToken)) {
+                        options.resumeAfter(new BsonDocument(RESUME_TOKEN_DATA, new BsonString(resumeToken)));
+                    }
+                })
+                .watchCollection(Task.class);
+        if (StringUtils.isNotBlank(userId)) {
+            changeStream = changeStream.filter(Criteria.where("fullDocument.userId").is(userId));
+        }
+        return changeStream.listen()
+                .filter(event -> Objects.nonNull(event.getBody()) && Objects.nonNull(event.getResumeToken()))
+                .map(event -> new TaskChange(
+                        Objects.isNull(event.getOperationType()) ? null : event.getOperationType().getValue(),
+                        event.getResumeToken().asDocument().getString(RESUME_TOKEN_DATA).getValue(),
+                        event.getBody()));
+    }
+
+    /**
+     * Finds the live tasks in one of the given statuses due before a date, the longest overdue
+     * first. Only the fields needed to expire them are read, through the status_due_idx index.
+     */
+    @Override
+    public Flux<Task> findOverdue(List<String> statuses, LocalDate date, int size) {
+        Query query = Query.query(Criteria.where("status").in(statuses)
+                        .and("dueDate").lt(date)
+                        .and("deleted").is(false))
+                .with(Sort.by(Sort.Direction.ASC, "dueDate"))
+                .withHint(OVERDUE_INDEX)
+                .limit(size);
+        query.fields().include(ID, "userId", "status", "dueDate");
+        return mongoTemplate.find(query, Task.class);
+    }
+
+    /**
+     * Moves the given tasks to a new status with a single updateMany, re-checking they are still
+     * overdue so tasks changed in between are left alone.
+     *
+     * @return The number of tasks updated.
+     */
+    @Override
+    public Mono<Long> markOverdue(List<String> ids, List<String> statuses, LocalDate date, String status) {
+        Query query = Query.query(Criteria.where(ID).in(ids)
+                .and("status").in(statuses)
+                .and("dueDate").lt(date)
+                .and("deleted").is(false));
+        Update update = Update.update("status", status)
+                .set("lastModifiedDate", LocalDateTime.now())
+                .inc(VERSION, 1L);
+        return mongoTemplate.updateMulti(query, update, Task.class)
+                .map(UpdateResult::getModifiedCount);
+    }
+
+    private static TaskWriteResult.Outcome outcomeOf(int modelIndex, Map<Integer, Integer> errors, boolean skipped) {
+        if (skipped) {
+            return TaskWriteResult.Outcome.SKIPPED;
+        }
+        Integer code = errors.get(modelIndex);
+        if (Objects.isNull(code)) {
+            return TaskWriteResult.Outcome.APPLIED;
+        }
+        return code == DUPLICATE_KEY ? TaskWriteResult.Outcome.DUPLICATED : TaskWriteResult.Outcome.FAILED;
+    }
+
+    private WriteModel<Document> toWriteModel(String userId, TaskWrite write, ObjectId bulkWriteId) {
+        if (write.getType() == TaskWrite.Type.INSERT) {
+            write.getTask().setVersion(0L);
+            Document document = new Document();
+            mongoTemplate.getConverter().write(write.getTask(), document);
+            return new InsertOneModel<>(document);
+        }
+
+        Document filter = new Document("_id", toObjectId(write.getId()))
+                .append("userId", userId)
+                .append("deleted", false);
+
+        Task changes = write.getTask();
+        if (write.getType() == TaskWrite.Type.DELETE) {
+            changes = new Task();
+            changes.setDeleted(Boolean.TRUE);
+            changes.setLastModifiedDate(LocalDateTime.now());
+            changes.setLastModifiedBy(userId);
+        }
+        return new UpdateOneModel<>(filter, new Document("$set", toSetDocument(changes)
+                .append(BULK_WRITE_ID, bulkWriteId))
+                .append("$inc", new Document(VERSION, 1L)));
+    }
+
+    /**
+     * Converts the non null fields of a partial task into the document of a $set operation.
+     */
+    private Document toSetDocument(Task changes) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(changes, document);
+        document.remove("_id");
+        document.remove("_class");
+        document.remove(VERSION);
+        return document;
+    }
+
+    private Mono<TaskPage> findPage(Criteria criteria, Sort sort, List<AggregationOperation> page,
+                                    Collection<String> fields) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(criteria));
+        if (sort.isSorted()) {
+            operations.add(Aggregation.sort(sort));
+        }
+        List<AggregationOperation> pageOperations = new ArrayList<>(page);
+        if (!CollectionUtils.isEmpty(fields)) {
+            pageOperations.add(Aggregation.project(fields.toArray(String[]::new)));
+        }
+        operations.add(Aggregation.facet(pageOperations.toArray(AggregationOperation[]::new)).as(PAGE)
+                .and(Aggregation.count().as(COUNT)).as(TOTAL));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(Task.class, operations), Document.class)
+                .next()
+                .map(facets -> new TaskPage(
+                        facets.getList(PAGE, Document.class).stream()
+                                .map(document -> mongoTemplate.getConverter().read(Task.class, document))
+                                .toList(),
+                        facets.getList(TOTAL, Document.class).stream()
+                                .findFirst()
+                                .map(total -> total.get(COUNT, Number.class).longValue())
+                                .orElse(0L)));
+    }
+
+    private static Criteria liveTasksOf(String userId, String status) {
+        Criteria criteria = Criteria.where("userId").is(userId)
+                .and("deleted").is(false);
+        if (StringUtils.isNotBlank(status)) {
+            criteria = criteria.and("status").is(status);
+        }
+        return criteria;
+    }
+
+    private static void include(Query query, Collection<String> fields) {
+        if (!CollectionUtils.isEmpty(fields)) {
+            query.fields().include(fields.toArray(String[]::new));
+        }
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static Update softDelete() {
+        return Update.update("deleted", true)
+                .set("lastModifiedDate", LocalDateTime.now())
+                .inc(VERSION, 1L);
+    }
+
+    /**
+     * The stored values of the version field matching the given versions, a missing version
+     * standing for 0.
+     */
+    private static List<Long> versionsMatching(Collection<Long> versions) {
+        List<Long> matching = new ArrayList<>(versions);
+        if (versions.contains(0L)) {
+            matching.add(null);
+        }
+        return matching;
+    }
+
+    /**
+     * Keyset condition selecting the documents located after the cursor position, as
+     * alternatives to be or'ed together. Mongo orders null (and missing) values first, so they
+     * are the tail of a descending ordering and the head of an ascending one.
+     */
+    static Criteria[] after(TaskCursor cursor) {
+        String field = cursor.getSortBy();
+        boolean ascending = cursor.getDirection().isAscending();
+        // Range operators on ids are not converted to ObjectId by the mapping, only equality is
+        Object id = toObjectId(cursor.getId());
+        if (ID.equals(field)) {
+            return new Criteria[] {ascending
+                    ? Criteria.where(ID).gt(id)
+                    : Criteria.where(ID).lt(id)};
+        }
+
+        Criteria sameValueNextId = ascending
+                ? Criteria.where(field).is(cursor.getValue()).and(ID).gt(id)
+                : Criteria.where(field).is(cursor.getValue()).and(ID).lt(id);
+        if (Objects.isNull(cursor.getValue())) {
+            return ascending
+                    ? new Criteria[] {sameValueNextId, Criteria.where(field).ne(null)}
+                    : new Criteria[] {sameValueNextId};
+        }
+        return ascending
+                ? new Criteria[] {Criteria.where(field).gt(cursor.getValue()), sameValueNextId}
+                : new Criteria[] {Criteria.where(field).lt(cursor.getValue()), sameValueNextId,
+                        Criteria.where(field).is(null)};
+    }
+
+    /**
+     * What a bulkWrite reports: the number of documents its updates matched, and the error code of
+     * every failed write model by index.
+     */
+    private record BulkWriteOutcome(long matched, Map<Integer, Integer> errors) {
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.encora.samples.nimbus.task.management.repository.inmemory;
+
+import com.encora.samples.nimbus.task.management.model.domain.SchedulerLock;
+import com.encora.samples.nimbus.task.management.repository.SchedulerLockRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link SchedulerLockRepository} of the in-memory engine. The tasks of the engine are local to
+ * the instance, so the leases only exclude the jobs of this instance from each other.
+ */
+@Component
+@Profile("inmemory")
+public class InMemorySchedulerLockRepository implements SchedulerLockRepository {
+
+    private final Map<String, SchedulerLock> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Boolean> acquire(String name, String owner, Duration lease) {
+        return Mono.fromSupplier(() -> {
+            Instant now = Instant.now();
+            SchedulerLock lock = locks.compute(name, (key, current) -> {
+                if (Objects.nonNull(current) && !current.getOwner().equals(owner) && current.getLockedUntil().isAfter(now)) {
+                    return current;
+                }
+                SchedulerLock acquired = new SchedulerLock();
+                acquired.setName(name);
+                acquired.setOwner(owner);
+                acquired.setLockedAt(now);
+                acquired.setLockedUntil(now.plus(lease));
+                return acquired;
+            });
+            return lock.getOwner().equals(owner);
+        });
+    }
+
+    @Override
+    public Mono<Void> release(String name, String owner) {
+        return Mono.fromRunnable(() -> locks.computeIfPresent(name,
+                (key, current) -> current.getOwner().equals(owner) ? null : current));
+    }
+}
@@ -0,0 +1,42 @@
+package com.encora.samples.nimbus.task.management.repository.inmemory;
+
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCountersDelta;
+import com.encora.samples.nimbus.task.management.repository.TaskCounterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link TaskCounterRepository} of the in-memory engine. The counters are read from the size of
+ * the views of the {@link InMemoryTaskStore}, so they are always exact: increments are ignored
+ * and nothing is ever reconciled.
+ */
+@Component
+@Profile("inmemory")
+@RequiredArgsConstructor
+public class InMemoryTaskCounterRepository implements TaskCounterRepository {
+
+    private final InMemoryTaskStore store;
+
+    @Override
+    public Mono<Void> increment(String userId, TaskCountersDelta delta) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<TaskCounters> reconcile(String userId) {
+        return findById(userId);
+    }
+
+    @Override
+    public Mono<Void> reconcileAll() {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<TaskCounters> findById(String userId) {
+        return Mono.fromSupplier(() -> store.counters(userId));
+    }
+}
@@ -0,0 +1,141 @@
+package com.encora.samples.nimbus.task.management.repository.inmemory;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskChange;
+import com.encora.samples.nimbus.task.management.model.domain.TaskPage;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStats;
+import com.encora.samples.nimbus.task.management.model.domain.TaskUpdate;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.encora.samples.nimbus.task.management.repository.TaskRepository;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import com.encora.samples.nimbus.task.management.utils.TaskSearchTerms;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link TaskRepository} backed by the {@link InMemoryTaskStore}, enabled by the
+ * {@code inmemory} profile.
+ */
+@Component
+@Profile("inmemory")
+@RequiredArgsConstructor
+public class InMemoryTaskRepository implements TaskRepository {
+
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final InMemoryTaskStore store;
+
+    /**
+     * Reads a page of the live tasks of a user. Projections would save nothing in memory, so
+     * whole tasks are returned whatever the fields asked for.
+     */
+    @Override
+    public Flux<Task> findAllByUserId(String userId, String status, Pageable pageable, Collection<String> fields) {
+        return Flux.defer(() -> Flux.fromIterable(store.find(userId, status, false, pageable.getSort(),
+                pageable.isPaged() ? pageable.getOffset() : 0, pageable.isPaged() ? pageable.getPageSize() : UNLIMITED)));
+    }
+
+    @Override
+    public Mono<TaskPage> findPageByUserId(String userId, String status, Pageable pageable,
+                                           Collection<String> fields) {
+        return Mono.fromSupplier(() -> store.findPage(userId, status, pageable.getSort(),
+                pageable.isPaged() ? pageable.getOffset() : 0, pageable.isPaged() ? pageable.getPageSize() : UNLIMITED));
+    }
+
+    @Override
+    public Mono<TaskPage> findPageByUserIdAfter(String userId, String status, TaskCursor cursor, int size,
+                                                Collection<String> fields) {
+        return Mono.fromSupplier(() -> store.findPageAfter(userId, status, cursor, size));
+    }
+
+    @Override
+    public Flux<Task> searchByUserId(String userId, String status, String text, Pageable pageable,
+                                     Collection<String> fields) {
+        return Flux.defer(() -> Flux.fromIterable(store.search(userId, status, TaskSearchTerms.of(text),
+                pageable.isPaged() ? pageable.getOffset() : 0, pageable.isPaged() ? pageable.getPageSize() : UNLIMITED)));
+    }
+
+    @Override
+    public Mono<TaskStats> statsByUserId(String userId, Collection<String> openStatuses, LocalDate today,
+                                         LocalDate endOfWeek) {
+        return Mono.fromSupplier(() -> store.stats(userId, openStatuses, today, endOfWeek));
+    }
+
+    @Override
+    public Flux<Task> streamAllByUserIdAndDeleted(String userId, boolean deleted, Sort sort) {
+        return Flux.defer(() -> Flux.fromIterable(store.find(userId, null, deleted, sort, 0, UNLIMITED)));
+    }
+
+    @Override
+    public Flux<Task> streamAllByUserIdAndStatusAndDeleted(String userId, String status, boolean deleted, Sort sort) {
+        return Flux.defer(() -> Flux.fromIterable(store.find(userId, status, deleted, sort, 0, UNLIMITED)));
+    }
+
+    @Override
+    public Flux<Task> findAllByUserIdAfter(String userId, String status, TaskCursor cursor, int size,
+                                          Collection<String> fields) {
+        return Flux.defer(() -> Flux.fromIterable(store.findAfter(userId, status, cursor, size)));
+    }
+
+    @Override
+    public Mono<Task> replaceById(Task task, long version) {
+        return Mono.fromSupplier(() -> store.replace(task, version));
+    }
+
+    @Override
+    public Mono<TaskUpdate> updateFieldsById(String id, Task changes, Collection<Long> versions) {
+        return Mono.fromSupplier(() -> store.update(id, null, changes, versions));
+    }
+
+    @Override
+    public Mono<Task> softDeleteById(String id, Collection<Long> versions) {
+        return Mono.fromSupplier(() -> store.softDelete(id, null, null, versions));
+    }
+
+    @Override
+    public Mono<Long> softDeleteAllByUserId(String userId, List<String> ids, String status) {
+        return Mono.fromSupplier(() -> store.softDeleteAll(userId, ids, status));
+    }
+
+    @Override
+    public Mono<List<TaskWriteResult>> bulkWrite(String userId, List<TaskWrite> writes, boolean ordered) {
+        return Mono.fromSupplier(() -> store.bulkWrite(userId, writes, ordered));
+    }
+
+    @Override
+    public Flux<TaskChange> watchChanges(String userId, String resumeToken) {
+        return store.changes(userId, resumeToken);
+    }
+
+    @Override
+    public Flux<Task> findOverdue(List<String> statuses, LocalDate date, int size) {
+        return Flux.defer(() -> Flux.fromIterable(store.findOverdue(statuses, date, size)));
+    }
+
+    @Override
+    public Mono<Long> markOverdue(List<String> ids, List<String> statuses, LocalDate date, String status) {
+        return Mono.fromSupplier(() -> store.markOverdue(ids, statuses, date, status));
+    }
+
+    @Override
+    public <S extends Task> Mono<S> insert(S entity) {
+        return Mono.fromSupplier(() -> {
+            store.insert(entity);
+            return entity;
+        });
+    }
+
+    @Override
+    public Mono<Task> findById(String id) {
+        return Mono.fromSupplier(() -> store.findById(id));
+    }
+}
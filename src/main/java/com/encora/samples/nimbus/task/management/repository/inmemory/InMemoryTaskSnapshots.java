@@ -0,0 +1,124 @@
+package com.encora.samples.nimbus.task.management.repository.inmemory;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ScheduledFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Snapshots the tasks of the in-memory engine to a local JSON file, enabled by setting
+ * {@code application.tasks.in-memory.snapshot-file}. The tasks are restored from the file on
+ * startup, so a restart only loses the writes applied since the last snapshot.
+ *
+ * Snapshots are written to a temporary file first and moved over the previous one, so a crash
+ * while writing never leaves a truncated snapshot behind.
+ */
+@Slf4j
+@Component
+@Profile("inmemory")
+@ConditionalOnProperty(prefix = "application.tasks.in-memory", name = "snapshot-file")
+public class InMemoryTaskSnapshots {
+
+    private static final TypeReference<List<Task>> TASKS = new TypeReference<>() {
+    };
+
+    private final InMemoryTaskStore store;
+
+    private final ObjectMapper objectMapper;
+
+    private final TaskScheduler taskScheduler;
+
+    private final Path file;
+
+    private final Duration interval;
+
+    private long snapshotVersion = -1;
+
+    private ScheduledFuture<?> snapshots;
+
+    InMemoryTaskSnapshots(InMemoryTaskStore store, ObjectMapper objectMapper, TaskScheduler taskScheduler,
+                          TaskProperties taskProperties) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.taskScheduler = taskScheduler;
+        this.file = taskProperties.getInMemory().getSnapshotFile();
+        this.interval = taskProperties.getInMemory().getSnapshotInterval();
+    }
+
+    /**
+     * Restores the last snapshot and schedules the next ones.
+     */
+    @PostConstruct
+    public void start() {
+        restore();
+        snapshots = taskScheduler.scheduleWithFixedDelay(this::snapshot, Instant.now().plus(interval), interval);
+    }
+
+    void restore() {
+        if (!Files.exists(file)) {
+            log.info("No task snapshot found at {}, starting empty", file);
+            return;
+        }
+        try (InputStream input = Files.newInputStream(file)) {
+            List<Task> tasks = objectMapper.readValue(input, TASKS);
+            store.restore(tasks);
+            snapshotVersion = store.version();
+            log.info("Restored {} tasks from {}", tasks.size(), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to restore the tasks from " + file, e);
+        }
+    }
+
+    /**
+     * Writes a snapshot, unless nothing changed since the previous one.
+     */
+    synchronized void snapshot() {
+        long version = store.version();
+        if (version == snapshotVersion) {
+            return;
+        }
+        List<Task> tasks = store.snapshot();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (Objects.nonNull(parent)) {
+                Files.createDirectories(parent);
+            }
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                objectMapper.writeValue(output, tasks);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotVersion = version;
+            log.debug("Snapshotted {} tasks to {}", tasks.size(), file);
+        } catch (IOException e) {
+            log.warn("Unable to snapshot the tasks to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (Objects.nonNull(snapshots)) {
+            snapshots.cancel(false);
+        }
+        snapshot();
+    }
+}
@@ -0,0 +1,812 @@
+package com.encora.samples.nimbus.task.management.repository.inmemory;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskChange;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.encora.samples.nimbus.task.management.model.domain.TaskPage;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStats;
+import com.encora.samples.nimbus.task.management.model.domain.TaskUpdate;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import com.encora.samples.nimbus.task.management.utils.TaskETags;
+import com.encora.samples.nimbus.task.management.utils.TaskSearchTerms;
+import io.micrometer.common.util.StringUtils;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Tasks kept in the heap of the instance, for deployments that can afford to lose recent writes.
+ *
+ * Tasks are looked up by id in a concurrent map. The tasks of every user are also indexed in
+ * views sorted by due date, globally and per status, separately for live and deleted tasks. Users
+ * are spread over lock stripes: writes lock the stripe of their user, reads of the views share
+ * it, so users of different stripes never contend.
+ *
+ * Stored tasks are never modified, a write replaces them with a new instance at the next version;
+ * callers always get copies.
+ */
+@Component
+@Profile("inmemory")
+class InMemoryTaskStore {
+
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+
+    private final Stripe[] stripes;
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicLong revisions = new AtomicLong();
+
+    private final Sinks.Many<SequencedChange> changes;
+
+    InMemoryTaskStore(TaskProperties taskProperties) {
+        TaskProperties.InMemory settings = taskProperties.getInMemory();
+        this.stripes = new Stripe[settings.getStripes()];
+        Arrays.setAll(stripes, Stripe::new);
+        this.changes = Sinks.many().replay().limit(settings.getChangeHistory());
+    }
+
+    Task findById(String id) {
+        return copyOf(tasks.get(id));
+    }
+
+    /**
+     * Reads a range of the tasks of a user. The default ordering is read straight from the sorted
+     * views, any other one sorts a copy of the view first.
+     *
+     * @param status The optional status of the tasks.
+     * @param offset The number of matching tasks to skip.
+     * @param limit The maximum number of tasks returned.
+     */
+    List<Task> find(String userId, String status, boolean deleted, Sort sort, long offset, int limit) {
+        return read(userId, index -> find(index.view(deleted, status), sort, offset, limit));
+    }
+
+    /**
+     * Reads the live tasks of a user located after a keyset cursor.
+     */
+    List<Task> findAfter(String userId, String status, TaskCursor cursor, int size) {
+        return read(userId, index -> findAfter(index.view(false, status), cursor, size));
+    }
+
+    /**
+     * Reads a range of the live tasks of a user along with their number, under the same lock so
+     * both agree.
+     */
+    TaskPage findPage(String userId, String status, Sort sort, long offset, int limit) {
+        return read(userId, index -> {
+            NavigableSet<Task> view = index.view(false, status);
+            return new TaskPage(find(view, sort, offset, limit), view.size());
+        });
+    }
+
+    /**
+     * Reads the live tasks of a user located after a keyset cursor along with the number of all
+     * their live tasks, under the same lock so both agree.
+     */
+    TaskPage findPageAfter(String userId, String status, TaskCursor cursor, int size) {
+        return read(userId, index -> {
+            NavigableSet<Task> view = index.view(false, status);
+            return new TaskPage(findAfter(view, cursor, size), view.size());
+        });
+    }
+
+    /**
+     * Adds a new task, generating its id when missing, at version 0.
+     *
+     * @throws DuplicateKeyException when the id, or the title for its user, is already taken.
+     */
+    Task insert(Task task) {
+        if (Objects.isNull(task.getId())) {
+            task.setId(new ObjectId().toHexString());
+        }
+        task.setVersion(0L);
+        Task stored = copyOf(task);
+        return write(List.of(stripeOf(task.getUserId())), () -> {
+            if (tasks.containsKey(stored.getId())) {
+                throw new DuplicateKeyException("Duplicate task id " + stored.getId());
+            }
+            put(null, stored, "insert");
+            return task;
+        });
+    }
+
+    /**
+     * Replaces a whole task as long as it is still at the given version, moving it to the next one.
+     *
+     * @return The task as replaced, null when it does not exist or is at another version.
+     * @throws DuplicateKeyException when the title is already taken by another task of its user.
+     */
+    Task replace(Task task, long version) {
+        Task previous = tasks.get(task.getId());
+        if (Objects.isNull(previous) || TaskETags.versionOf(previous.getVersion()) != version) {
+            return null;
+        }
+        Task stored = copyOf(task);
+        stored.setVersion(version + 1);
+        return write(List.of(stripeOf(task.getUserId()), stripeOf(previous.getUserId())), () -> {
+            // Every write moves the task to another version, so any other instance is a newer one
+            if (tasks.get(task.getId()) != previous) {
+                return null;
+            }
+            put(previous, stored, "replace");
+            task.setVersion(stored.getVersion());
+            return task;
+        });
+    }
+
+    /**
+     * Sets every non null field of {@code changes}, except the id and the owner, on a live task.
+     *
+     * @param userId The owner the task must have, any owner when null.
+     * @param versions The versions the task must have, any version when null.
+     * @return Both versions of the task, null when there is no such live task.
+     * @throws DuplicateKeyException when the new title is already taken by another task of the user.
+     */
+    TaskUpdate update(String id, String userId, Task changes, Collection<Long> versions) {
+        return writeExisting(id, previous -> {
+            if (Objects.isNull(previous) || !Boolean.FALSE.equals(previous.getDeleted())
+                    || (Objects.nonNull(userId) && !isLive(userId, previous))
+                    || (Objects.nonNull(versions) && !versions.contains(TaskETags.versionOf(previous.getVersion())))) {
+                return null;
+            }
+            Task current = merge(previous, changes);
+            put(previous, current, "update");
+            return new TaskUpdate(copyOf(previous), copyOf(current));
+        });
+    }
+
+    /**
+     * Flags a live task as deleted.
+     *
+     * @param versions The versions the task must have, any version when null.
+     * @return The task as it was before, null when there is no such live task.
+     */
+    Task softDelete(String id, String userId, String modifiedBy, Collection<Long> versions) {
+        Task changes = new Task();
+        changes.setDeleted(Boolean.TRUE);
+        changes.setLastModifiedDate(LocalDateTime.now());
+        changes.setLastModifiedBy(modifiedBy);
+        TaskUpdate update = update(id, userId, changes, versions);
+        return Objects.isNull(update) ? null : update.getPrevious();
+    }
+
+    /**
+     * Flags every live task of a user matching the given ids and/or status as deleted.
+     *
+     * @return The number of tasks deleted.
+     */
+    long softDeleteAll(String userId, List<String> ids, String status) {
+        return write(List.of(stripeOf(userId)), () -> {
+            List<Task> targets = CollectionUtils.isEmpty(ids)
+                    ? new ArrayList<>(stripeOf(userId).users.getOrDefault(userId, UserIndex.EMPTY).view(false, status))
+                    : ids.stream()
+                            .distinct()
+                            .map(tasks::get)
+                            .filter(Objects::nonNull)
+                            .filter(task -> isLive(userId, task))
+                            .filter(task -> StringUtils.isBlank(status) || status.equals(task.getStatus()))
+                            .toList();
+
+            Task changes = new Task();
+            changes.setDeleted(Boolean.TRUE);
+            changes.setLastModifiedDate(LocalDateTime.now());
+            changes.setLastModifiedBy(userId);
+            targets.forEach(task -> put(task, merge(task, changes), "update"));
+            return (long) targets.size();
+        });
+    }
+
+    /**
+     * Applies the writes of a user one by one, with the outcomes a Mongo bulkWrite would report.
+     * An ordered batch skips every write following a failed one.
+     */
+    List<TaskWriteResult> bulkWrite(String userId, List<TaskWrite> writes, boolean ordered) {
+        List<TaskWriteResult> results = new ArrayList<>(writes.size());
+        boolean failed = false;
+        for (TaskWrite write : writes) {
+            if (write.getType() == TaskWrite.Type.INSERT) {
+                write.getTask().setId(new ObjectId().toHexString());
+                write.setId(write.getTask().getId());
+            } else if (!isLive(userId, tasks.get(write.getId()))) {
+                results.add(new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.NOT_FOUND));
+                continue;
+            }
+            TaskWriteResult result = failed && ordered
+                    ? new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.SKIPPED)
+                    : execute(userId, write);
+            failed = failed || result.getOutcome() == TaskWriteResult.Outcome.DUPLICATED
+                    || result.getOutcome() == TaskWriteResult.Outcome.FAILED;
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Finds the live tasks in one of the given statuses due before a date, the longest overdue
+     * first, walking the status views of every user from their earliest due date. Only the
+     * {@code size} longest overdue tasks seen so far are kept, and the walk of a view stops at
+     * the first task due after all of them once they are found.
+     */
+    List<Task> findOverdue(List<String> statuses, LocalDate date, int size) {
+        if (size <= 0) {
+            return List.of();
+        }
+        Comparator<Task> byDueDate = Comparator.comparing(Task::getDueDate);
+        PriorityQueue<Task> overdue = new PriorityQueue<>(size + 1, byDueDate.reversed());
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                for (UserIndex index : stripe.users.values()) {
+                    for (String status : statuses) {
+                        for (Task task : index.view(false, status).descendingSet()) {
+                            if (Objects.isNull(task.getDueDate())) {
+                                continue;
+                            }
+                            if (!task.getDueDate().isBefore(date) || (overdue.size() == size
+                                    && !task.getDueDate().isBefore(overdue.peek().getDueDate()))) {
+                                break;
+                            }
+                            overdue.add(task);
+                            if (overdue.size() > size) {
+                                overdue.poll();
+                            }
+                        }
+                    }
+                }
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return overdue.stream()
+                .sorted(byDueDate)
+                .map(InMemoryTaskStore::copyOf)
+                .toList();
+    }
+
+    /**
+     * Moves the given tasks to a new status, as long as they are still overdue.
+     *
+     * @return The number of tasks updated.
+     */
+    long markOverdue(List<String> ids, List<String> statuses, LocalDate date, String status) {
+        Task changes = new Task();
+        changes.setStatus(status);
+        changes.setLastModifiedDate(LocalDateTime.now());
+        return ids.stream()
+                .filter(id -> Boolean.TRUE.equals(writeExisting(id, previous -> {
+                    if (Objects.isNull(previous) || !Boolean.FALSE.equals(previous.getDeleted())
+                            || !statuses.contains(previous.getStatus()) || Objects.isNull(previous.getDueDate())
+                            || !previous.getDueDate().isBefore(date)) {
+                        return false;
+                    }
+                    put(previous, merge(previous, changes), "update");
+                    return true;
+                })))
+                .count();
+    }
+
+    /**
+     * Counts the live tasks of a user from the size of its views.
+     */
+    TaskCounters counters(String userId) {
+        return read(userId, index -> countersOf(userId, index));
+    }
+
+    List<TaskCounters> counters() {
+        List<TaskCounters> counters = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                stripe.users.forEach((userId, index) -> counters.add(countersOf(userId, index)));
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Streams the changes applied to the tasks. Hard deletes are not reported, as the change
+     * streams of Mongo report them without a document.
+     *
+     * Recent changes are kept in memory, so a client reconnecting with the token of the last change
+     * it saw gets the changes it missed, as long as they are still recent. Tokens issued before a
+     * restart are ignored.
+     *
+     * @param userId The optional user whose changes are wanted.
+     * @param resumeToken The optional token of the last change seen, to resume after it.
+     */
+    Flux<TaskChange> changes(String userId, String resumeToken) {
+        return Flux.defer(() -> {
+                    long after = sequenceOf(resumeToken);
+                    return changes.asFlux()
+                            .filter(change -> change.sequence() > after)
+                            .map(SequencedChange::change)
+                            .filter(change -> StringUtils.isBlank(userId)
+                                    || userId.equals(change.getTask().getUserId()));
+                })
+                .publishOn(Schedulers.parallel());
+    }
+
+    /**
+     * The number of changes applied so far, to tell whether the tasks changed.
+     */
+    long version() {
+        return sequence.get();
+    }
+
+    /**
+     * Takes a consistent copy of every task.
+     */
+    List<Task> snapshot() {
+        Arrays.stream(stripes).forEach(stripe -> stripe.lock.readLock().lock());
+        try {
+            return List.copyOf(tasks.values());
+        } finally {
+            Arrays.stream(stripes).forEach(stripe -> stripe.lock.readLock().unlock());
+        }
+    }
+
+    /**
+     * Replaces every task with the given ones, without reporting any change.
+     */
+    void restore(Collection<Task> restored) {
+        write(Arrays.asList(stripes), () -> {
+            tasks.clear();
+            Arrays.stream(stripes).forEach(stripe -> stripe.users.clear());
+            restored.forEach(task -> {
+                Task stored = copyOf(task);
+                tasks.put(stored.getId(), stored);
+                indexOf(stored.getUserId()).add(stored);
+            });
+            return null;
+        });
+    }
+
+    private TaskWriteResult execute(String userId, TaskWrite write) {
+        try {
+            Task previous = switch (write.getType()) {
+                case INSERT -> null;
+                case UPDATE -> {
+                    TaskUpdate update = update(write.getId(), userId, write.getTask(), null);
+                    yield Objects.isNull(update) ? null : update.getPrevious();
+                }
+                case DELETE -> softDelete(write.getId(), userId, userId, null);
+            };
+            if (write.getType() == TaskWrite.Type.INSERT) {
+                insert(write.getTask());
+            } else if (Objects.isNull(previous)) {
+                return new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.NOT_FOUND);
+            }
+            return new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.APPLIED,
+                    Objects.isNull(previous) ? null : previous.getStatus());
+        } catch (DuplicateKeyException e) {
+            return new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.DUPLICATED);
+        } catch (RuntimeException e) {
+            return new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.FAILED);
+        }
+    }
+
+    private static boolean isLive(String userId, Task task) {
+        return Objects.nonNull(task) && Objects.equals(userId, task.getUserId())
+                && Boolean.FALSE.equals(task.getDeleted());
+    }
+
+    /**
+     * Stores a new version of a task, keeping the views and the title constraint up to date.
+     * Must be called holding the stripes of both versions.
+     */
+    private void put(Task previous, Task current, String operation) {
+        UserIndex index = indexOf(current.getUserId());
+        String owner = index.titles.get(current.getTitle());
+        if (Objects.nonNull(owner) && !owner.equals(current.getId())) {
+            throw new DuplicateKeyException("Duplicate title " + current.getTitle() + " for user " + current.getUserId());
+        }
+        if (Objects.nonNull(previous)) {
+            remove(previous);
+        }
+        tasks.put(current.getId(), current);
+        UserIndex target = indexOf(current.getUserId());
+        target.add(current);
+        target.revision = revisions.incrementAndGet();
+        publish(operation, current);
+    }
+
+    private void remove(Task task) {
+        tasks.remove(task.getId(), task);
+        Stripe stripe = stripeOf(task.getUserId());
+        UserIndex index = stripe.users.get(task.getUserId());
+        if (Objects.nonNull(index)) {
+            index.remove(task);
+            index.revision = revisions.incrementAndGet();
+            if (index.isEmpty()) {
+                stripe.users.remove(task.getUserId());
+            }
+        }
+    }
+
+    /**
+     * Reports a change. Changes are numbered in the order they are applied, which the lock
+     * preserves as every task is only written holding the stripe of its user.
+     */
+    private void publish(String operation, Task task) {
+        synchronized (changes) {
+            long number = sequence.incrementAndGet();
+            changes.emitNext(new SequencedChange(number,
+                            new TaskChange(operation, epoch + "-" + number, copyOf(task))),
+                    Sinks.EmitFailureHandler.FAIL_FAST);
+        }
+    }
+
+    private long sequenceOf(String resumeToken) {
+        if (StringUtils.isBlank(resumeToken) || !resumeToken.startsWith(epoch + "-")) {
+            return sequence.get();
+        }
+        try {
+            return Long.parseLong(resumeToken.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return sequence.get();
+        }
+    }
+
+    private <R> R read(String userId, Function<UserIndex, R> reader) {
+        Stripe stripe = stripeOf(userId);
+        stripe.lock.readLock().lock();
+        try {
+            return reader.apply(stripe.users.getOrDefault(userId, UserIndex.EMPTY));
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a range of the live tasks of a user matching any of the given terms, most relevant
+     * first. Like a Mongo text search, the relevance is the number of occurrences of the terms in
+     * the title and description, but terms are not stemmed.
+     *
+     * @param terms The terms, as split by {@link TaskSearchTerms}.
+     */
+    List<Task> search(String userId, String status, Collection<String> terms, long offset, int limit) {
+        Set<String> searched = Set.copyOf(terms);
+        return read(userId, index -> {
+            Map<Task, Long> scores = new IdentityHashMap<>();
+            for (Task task : index.view(false, status)) {
+                long score = Stream.concat(TaskSearchTerms.of(task.getTitle()).stream(),
+                                TaskSearchTerms.of(task.getDescription()).stream())
+                        .filter(searched::contains)
+                        .count();
+                if (score > 0) {
+                    scores.put(task, score);
+                }
+            }
+            List<Task> ranked = new ArrayList<>(scores.keySet());
+            ranked.sort(Comparator.<Task, Long>comparing(scores::get, Comparator.reverseOrder())
+                    .thenComparing(Task::getId));
+            return collect(ranked.iterator(), task -> true, offset, limit);
+        });
+    }
+
+    /**
+     * Summarizes the live tasks of a user in a single pass over their view, counting them per
+     * status and the open ones per due date bucket.
+     */
+    TaskStats stats(String userId, Collection<String> openStatuses, LocalDate today, LocalDate endOfWeek) {
+        return read(userId, index -> {
+            TaskStats stats = new TaskStats();
+            for (Task task : index.view(false, null)) {
+                stats.setTotal(stats.getTotal() + 1);
+                if (Objects.nonNull(task.getStatus())) {
+                    stats.getStatuses().merge(task.getStatus(), 1L, Long::sum);
+                }
+                if (Objects.isNull(task.getStatus()) || !openStatuses.contains(task.getStatus())) {
+                    continue;
+                }
+                LocalDate dueDate = task.getDueDate();
+                if (Objects.isNull(dueDate)) {
+                    stats.setWithoutDueDate(stats.getWithoutDueDate() + 1);
+                } else if (dueDate.isBefore(today)) {
+                    stats.setOverdue(stats.getOverdue() + 1);
+                } else if (dueDate.isEqual(today)) {
+                    stats.setDueToday(stats.getDueToday() + 1);
+                } else if (!dueDate.isAfter(endOfWeek)) {
+                    stats.setDueThisWeek(stats.getDueThisWeek() + 1);
+                } else {
+                    stats.setDueLater(stats.getDueLater() + 1);
+                }
+            }
+            return stats;
+        });
+    }
+
+    private List<Task> find(NavigableSet<Task> view, Sort sort, long offset, int limit) {
+        Iterable<Task> ordered;
+        if (!TaskOrdering.isDueDateOrder(sort)) {
+            List<Task> sorted = new ArrayList<>(view);
+            sorted.sort(TaskOrdering.comparator(sort));
+            ordered = sorted;
+        } else {
+            ordered = TaskOrdering.BY_DUE_DATE.equals(sort) ? view : view.descendingSet();
+        }
+        return collect(ordered.iterator(), task -> true, offset, limit);
+    }
+
+    private List<Task> findAfter(NavigableSet<Task> view, TaskCursor cursor, int size) {
+        if (TaskOrdering.DUE_DATE.equals(cursor.getSortBy())) {
+            Task position = new Task();
+            position.setDueDate((LocalDate) cursor.getValue());
+            position.setId(cursor.getId());
+            Iterable<Task> after = cursor.getDirection().isDescending()
+                    ? view.tailSet(position, false)
+                    : view.headSet(position, false).descendingSet();
+            return collect(after.iterator(), task -> true, 0, size);
+        }
+        List<Task> sorted = new ArrayList<>(view);
+        sorted.sort(TaskOrdering.comparator(Sort.by(cursor.getDirection(), cursor.getSortBy(), TaskOrdering.ID)));
+        return collect(sorted.iterator(), TaskOrdering.after(cursor), 0, size);
+    }
+
+    /**
+     * Runs a write holding the given stripes, locked in a fixed order so writes never deadlock.
+     */
+    private <R> R write(List<Stripe> locked, Supplier<R> writer) {
+        List<Stripe> ordered = locked.stream()
+                .distinct()
+                .sorted((left, right) -> Integer.compare(left.number, right.number))
+                .toList();
+        ordered.forEach(stripe -> stripe.lock.writeLock().lock());
+        try {
+            return writer.get();
+        } finally {
+            ordered.forEach(stripe -> stripe.lock.writeLock().unlock());
+        }
+    }
+
+    /**
+     * Runs a write over an existing task holding the stripe of its user, retrying when the task
+     * moved to another user in between.
+     *
+     * @param writer The write, given the current task or null when there is none.
+     */
+    private <R> R writeExisting(String id, Function<Task, R> writer) {
+        while (true) {
+            Task current = tasks.get(id);
+            if (Objects.isNull(current)) {
+                return writer.apply(null);
+            }
+            Stripe stripe = stripeOf(current.getUserId());
+            stripe.lock.writeLock().lock();
+            try {
+                Task locked = tasks.get(id);
+                if (Objects.isNull(locked) || Objects.equals(locked.getUserId(), current.getUserId())) {
+                    return writer.apply(locked);
+                }
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Stripe stripeOf(String userId) {
+        return stripes[Math.floorMod(Objects.hashCode(userId), stripes.length)];
+    }
+
+    private UserIndex indexOf(String userId) {
+        return stripeOf(userId).users.computeIfAbsent(userId, key -> new UserIndex());
+    }
+
+    private static List<Task> collect(Iterator<Task> iterator, Predicate<Task> filter, long offset, int limit) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 64));
+        long skipped = 0;
+        while (iterator.hasNext() && page.size() < limit) {
+            Task task = iterator.next();
+            if (!filter.test(task)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            page.add(copyOf(task));
+        }
+        return page;
+    }
+
+    private TaskCounters countersOf(String userId, UserIndex index) {
+        TaskCounters counters = new TaskCounters();
+        counters.setUserId(userId);
+        counters.setTotal((long) index.view(false, null).size());
+        counters.setRevision(epoch + "-" + index.revision);
+        Partition live = index.partitions.get(Boolean.FALSE);
+        if (Objects.nonNull(live)) {
+            live.byStatus.forEach((status, view) -> {
+                if (Objects.nonNull(status)) {
+                    counters.getStatuses().put(status, (long) view.size());
+                }
+            });
+        }
+        return counters;
+    }
+
+    /**
+     * Applies the non null fields of a partial task over a copy of a task, as a Mongo $set would,
+     * moving it to the next version.
+     */
+    private static Task merge(Task task, Task changes) {
+        Task merged = copyOf(task);
+        merged.setVersion(TaskETags.versionOf(task.getVersion()) + 1);
+        if (Objects.nonNull(changes.getTitle())) {
+            merged.setTitle(changes.getTitle());
+        }
+        if (Objects.nonNull(changes.getDescription())) {
+            merged.setDescription(changes.getDescription());
+        }
+        if (Objects.nonNull(changes.getDueDate())) {
+            merged.setDueDate(changes.getDueDate());
+        }
+        if (Objects.nonNull(changes.getStatus())) {
+            merged.setStatus(changes.getStatus());
+        }
+        if (Objects.nonNull(changes.getLastModifiedDate())) {
+            merged.setLastModifiedDate(changes.getLastModifiedDate());
+        }
+        if (Objects.nonNull(changes.getCreatedDate())) {
+            merged.setCreatedDate(changes.getCreatedDate());
+        }
+        if (Objects.nonNull(changes.getCreatedBy())) {
+            merged.setCreatedBy(changes.getCreatedBy());
+        }
+        if (Objects.nonNull(changes.getLastModifiedBy())) {
+            merged.setLastModifiedBy(changes.getLastModifiedBy());
+        }
+        if (Objects.nonNull(changes.getDeleted())) {
+            merged.setDeleted(changes.getDeleted());
+        }
+        return merged;
+    }
+
+    static Task copyOf(Task task) {
+        if (Objects.isNull(task)) {
+            return null;
+        }
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setUserId(task.getUserId());
+        copy.setTitle(task.getTitle());
+        copy.setDescription(task.getDescription());
+        copy.setDueDate(task.getDueDate());
+        copy.setStatus(task.getStatus());
+        copy.setLastModifiedDate(task.getLastModifiedDate());
+        copy.setCreatedDate(task.getCreatedDate());
+        copy.setCreatedBy(task.getCreatedBy());
+        copy.setLastModifiedBy(task.getLastModifiedBy());
+        copy.setDeleted(task.getDeleted());
+        copy.setVersion(task.getVersion());
+        return copy;
+    }
+
+    private record SequencedChange(long sequence, TaskChange change) {
+    }
+
+    private static final class Stripe {
+
+        private final int number;
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final Map<String, UserIndex> users = new HashMap<>();
+
+        private Stripe(int number) {
+            this.number = number;
+        }
+
+    }
+
+    /**
+     * The views of the tasks of a user, split by their deleted flag, the owners of its titles and
+     * the revision of its tasks, replaced on every write.
+     */
+    private static final class UserIndex {
+
+        private static final UserIndex EMPTY = new UserIndex();
+
+        private final Map<Boolean, Partition> partitions = new HashMap<>();
+
+        private final Map<String, String> titles = new HashMap<>();
+
+        private long revision;
+
+        NavigableSet<Task> view(Boolean deleted, String status) {
+            Partition partition = partitions.get(deleted);
+            if (Objects.isNull(partition)) {
+                return Collections.emptyNavigableSet();
+            }
+            return StringUtils.isBlank(status)
+                    ? partition.byDueDate
+                    : partition.byStatus.getOrDefault(status, Collections.emptyNavigableSet());
+        }
+
+        void add(Task task) {
+            partitions.computeIfAbsent(task.getDeleted(), deleted -> new Partition()).add(task);
+            titles.put(task.getTitle(), task.getId());
+        }
+
+        void remove(Task task) {
+            Partition partition = partitions.get(task.getDeleted());
+            if (Objects.nonNull(partition)) {
+                partition.remove(task);
+                if (partition.byDueDate.isEmpty()) {
+                    partitions.remove(task.getDeleted());
+                }
+            }
+            titles.remove(task.getTitle(), task.getId());
+        }
+
+        boolean isEmpty() {
+            return partitions.isEmpty();
+        }
+
+    }
+
+    private static final class Partition {
+
+        private final NavigableSet<Task> byDueDate = new TreeSet<>(TaskOrdering.BY_DUE_DATE_ORDER);
+
+        private final Map<String, NavigableSet<Task>> byStatus = new HashMap<>();
+
+        void add(Task task) {
+            byDueDate.add(task);
+            byStatus.computeIfAbsent(task.getStatus(), status -> new TreeSet<>(TaskOrdering.BY_DUE_DATE_ORDER))
+                    .add(task);
+        }
+
+        void remove(Task task) {
+            byDueDate.remove(task);
+            NavigableSet<Task> view = byStatus.get(task.getStatus());
+            if (Objects.nonNull(view)) {
+                view.remove(task);
+                if (view.isEmpty()) {
+                    byStatus.remove(task.getStatus());
+                }
+            }
+        }
+
+    }
+}
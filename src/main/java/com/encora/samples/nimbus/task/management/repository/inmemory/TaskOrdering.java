@@ -0,0 +1,106 @@
+package com.encora.samples.nimbus.task.management.repository.inmemory;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Orderings of tasks as Mongo applies them: null (and missing) values first when ascending,
+ * properties unknown to the task sorted as null.
+ */
+final class TaskOrdering {
+
+    static final String ID = "id";
+
+    static final String DUE_DATE = "dueDate";
+
+    @SuppressWarnings("rawtypes")
+    private static final Map<String, Function<Task, Comparable>> PROPERTIES = Map.ofEntries(
+            Map.entry(ID, Task::getId),
+            Map.entry("userId", Task::getUserId),
+            Map.entry("title", Task::getTitle),
+            Map.entry("description", Task::getDescription),
+            Map.entry(DUE_DATE, Task::getDueDate),
+            Map.entry("status", Task::getStatus),
+            Map.entry("lastModifiedDate", Task::getLastModifiedDate),
+            Map.entry("createdDate", Task::getCreatedDate),
+            Map.entry("createdBy", Task::getCreatedBy),
+            Map.entry("lastModifiedBy", Task::getLastModifiedBy),
+            Map.entry("deleted", Task::getDeleted));
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static final Comparator<Comparable> VALUES = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    /**
+     * Ordering of the sorted views of the engine, the default ordering of the task lists.
+     */
+    static final Sort BY_DUE_DATE = Sort.by(Sort.Direction.DESC, DUE_DATE, ID);
+
+    static final Comparator<Task> BY_DUE_DATE_ORDER = comparator(BY_DUE_DATE);
+
+    private TaskOrdering() {
+    }
+
+    /**
+     * Builds the comparator of a sort, always falling back to the id so the ordering is total.
+     */
+    static Comparator<Task> comparator(Sort sort) {
+        Comparator<Task> comparator = null;
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            Comparator<Task> next = Comparator.comparing(task -> valueOf(task, order.getProperty()), VALUES);
+            comparator = Objects.isNull(comparator) ? direct(next, order) : comparator.thenComparing(direct(next, order));
+            byId = byId || ID.equals(order.getProperty());
+        }
+        if (!byId) {
+            Comparator<Task> next = Comparator.comparing(Task::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = Objects.isNull(comparator) ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    /**
+     * Whether the tasks can be read straight from a sorted view, walked forwards or backwards.
+     */
+    static boolean isDueDateOrder(Sort sort) {
+        return BY_DUE_DATE.equals(sort) || BY_DUE_DATE.equals(reverse(sort));
+    }
+
+    /**
+     * Keyset condition selecting the tasks located after the cursor position.
+     */
+    @SuppressWarnings("unchecked")
+    static Predicate<Task> after(TaskCursor cursor) {
+        boolean ascending = cursor.getDirection().isAscending();
+        return task -> {
+            int comparison = ID.equals(cursor.getSortBy())
+                    ? 0
+                    : VALUES.compare(valueOf(task, cursor.getSortBy()), (Comparable<Object>) cursor.getValue());
+            if (comparison == 0) {
+                comparison = task.getId().compareTo(cursor.getId());
+            }
+            return ascending ? comparison > 0 : comparison < 0;
+        };
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable valueOf(Task task, String property) {
+        Function<Task, Comparable> getter = PROPERTIES.get(property);
+        return Objects.isNull(getter) ? null : getter.apply(task);
+    }
+
+    private static Comparator<Task> direct(Comparator<Task> comparator, Sort.Order order) {
+        return order.isDescending() ? comparator.reversed() : comparator;
+    }
+
+    private static Sort reverse(Sort sort) {
+        return Sort.by(sort.stream()
+                .map(order -> order.with(order.getDirection().isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC))
+                .toList());
+    }
+}
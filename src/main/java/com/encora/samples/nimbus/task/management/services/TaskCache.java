@@ -0,0 +1,108 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded in-process read-through cache of task details keyed by task id.
+ *
+ * Entries are loaded at most once per id at a time: concurrent readers of a missing id share the
+ * same pending load, and invalidating an id also discards a load in progress. Hits, misses and
+ * evictions are published as the {@code cache.*} metrics of the {@code tasks} cache.
+ */
+@Slf4j
+@Component
+public class TaskCache {
+
+  private static final String CACHE_NAME = "tasks";
+
+  private final AsyncCache<String, TaskResponse> cache;
+
+  public TaskCache(TaskProperties taskProperties, MeterRegistry meterRegistry) {
+    TaskProperties.Cache properties = taskProperties.getCache();
+    if (properties.isEnabled()) {
+      this.cache = Caffeine.newBuilder()
+              .maximumSize(properties.getMaximumSize())
+              .expireAfterWrite(properties.getTtl())
+              .recordStats()
+              .buildAsync();
+      CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    } else {
+      this.cache = null;
+      log.info("Task cache disabled");
+    }
+  }
+
+  /**
+   * Returns the cached task, loading and caching it when missing.
+   *
+   * @param id The ID of the task.
+   * @param loader Loads the task, completing empty when it does not exist.
+   * @return A Mono emitting the task, or empty when it does not exist.
+   */
+  public Mono<TaskResponse> get(String id, Function<String, Mono<TaskResponse>> loader) {
+    if (Objects.isNull(cache)) {
+      return loader.apply(id);
+    }
+    return Mono.defer(() -> Mono.fromFuture(cache.get(id, (key, executor) -> loader.apply(key).toFuture()), true));
+  }
+
+  /**
+   * Replaces the cached task with a fresh version, if it is cached. A load still in flight is
+   * replaced without waiting for it, as it may have read the task before the update.
+   *
+   * @param task The updated task.
+   */
+  public void refresh(TaskResponse task) {
+    if (Objects.nonNull(cache) && Objects.nonNull(task.getId())) {
+      cache.asMap().computeIfPresent(task.getId(), (id, cached) -> CompletableFuture.completedFuture(task));
+    }
+  }
+
+  /**
+   * Evicts a task.
+   *
+   * @param id The ID of the task.
+   */
+  public void invalidate(String id) {
+    if (Objects.nonNull(cache)) {
+      cache.synchronous().invalidate(id);
+    }
+  }
+
+  /**
+   * Evicts the given tasks.
+   *
+   * @param ids The IDs of the tasks.
+   */
+  public void invalidateAll(Collection<String> ids) {
+    if (Objects.nonNull(cache)) {
+      cache.synchronous().invalidateAll(ids);
+    }
+  }
+
+  /**
+   * Evicts every cached task of a user with the given status.
+   *
+   * @param userId The ID of the user.
+   * @param status The status of the tasks.
+   */
+  public void invalidateAll(String userId, String status) {
+    if (Objects.nonNull(cache)) {
+      cache.synchronous().asMap().values().removeIf(task -> Objects.equals(userId, task.getUserId())
+              && Objects.equals(status, task.getStatus()));
+    }
+  }
+
+}
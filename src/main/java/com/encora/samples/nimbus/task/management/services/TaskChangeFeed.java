@@ -0,0 +1,166 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.mapper.TaskMapper;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.domain.TaskChange;
+import com.encora.samples.nimbus.task.management.repository.TaskRepository;
+import io.micrometer.common.util.StringUtils;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+/**
+ * Fans task changes out to connected clients.
+ *
+ * All clients of an instance share a single change stream subscription, opened when the first
+ * client connects and closed a while after the last one leaves. The most recent changes are kept,
+ * so clients reconnecting with the ID of the last event they saw get the changes they missed
+ * before following the shared stream again.
+ */
+@Slf4j
+@Service
+public class TaskChangeFeed {
+
+  private final TaskMapper taskMapper;
+
+  private final TaskProperties taskProperties;
+
+  private final AtomicReference<String> lastResumeToken = new AtomicReference<>();
+
+  private final Deque<TaskChange> history = new ArrayDeque<>();
+
+  private final Flux<TaskChange> sharedChanges;
+
+  public TaskChangeFeed(TaskRepository taskRepository, TaskMapper taskMapper, TaskProperties taskProperties) {
+    this.taskMapper = taskMapper;
+    this.taskProperties = taskProperties;
+    this.sharedChanges = Flux.defer(() -> taskRepository.watchChanges(null, lastResumeToken.get()))
+            .doOnNext(change -> {
+              lastResumeToken.set(change.getResumeToken());
+              remember(change);
+            })
+            .doOnError(throwable -> log.warn("Task change stream interrupted: {}", throwable.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                    .maxBackoff(Duration.ofSeconds(30)))
+            .doOnCancel(() -> {
+              // Changes made while nobody listens are not seen, the history would have a gap
+              lastResumeToken.set(null);
+              forget();
+            })
+            .publish()
+            .refCount(1, taskProperties.getChanges().getResumeWindow());
+  }
+
+  /**
+   * Subscribes to the changes of the tasks of a user.
+   *
+   * @param userId The ID of the user.
+   * @param lastEventId The ID of the last event received by the client, if reconnecting.
+   * @return A Flux emitting a server-sent event per change, plus periodic keep-alive comments.
+   */
+  public Flux<ServerSentEvent<TaskResponse>> subscribe(String userId, String lastEventId) {
+    Flux<TaskChange> changes = StringUtils.isBlank(lastEventId)
+            ? changesOf(userId)
+            : resume(userId, lastEventId);
+
+    Flux<ServerSentEvent<TaskResponse>> events = changes
+            .onBackpressureBuffer(taskProperties.getChanges().getBufferSize())
+            .map(change -> ServerSentEvent.<TaskResponse>builder()
+                    .id(change.getResumeToken())
+                    .event(change.getOperation())
+                    .data(taskMapper.withDetailsOf(change.getTask()))
+                    .build());
+
+    Flux<ServerSentEvent<TaskResponse>> heartbeats = Flux.interval(taskProperties.getChanges().getHeartbeat())
+            .map(tick -> ServerSentEvent.<TaskResponse>builder()
+                    .comment("heartbeat")
+                    .build());
+
+    return Flux.merge(events, heartbeats);
+  }
+
+  private Flux<TaskChange> changesOf(String userId) {
+    return sharedChanges.filter(change -> userId.equals(change.getTask().getUserId()));
+  }
+
+  /**
+   * Replays the changes of a user made after a given event, then follows the shared stream. The
+   * shared stream is joined before the history is read, and the changes replayed from the history
+   * are skipped on it, so none is lost or sent twice. An event that is no longer, or never was, in
+   * the history cannot be resumed from, and the client only gets the changes from now on.
+   */
+  private Flux<TaskChange> resume(String userId, String lastEventId) {
+    return Flux.defer(() -> {
+      ConnectableFlux<TaskChange> live = changesOf(userId)
+              .onBackpressureBuffer(taskProperties.getChanges().getBufferSize())
+              .publish();
+      Disposable connection = live.connect();
+
+      List<TaskChange> missed = changesAfter(lastEventId);
+      if (Objects.isNull(missed)) {
+        log.debug("Cannot resume the task changes of user {} after an unknown event", userId);
+        return live.doFinally(signal -> connection.dispose());
+      }
+      List<TaskChange> replayed = missed.stream()
+              .filter(change -> userId.equals(change.getTask().getUserId()))
+              .toList();
+      Set<String> replayedTokens = replayed.stream()
+              .map(TaskChange::getResumeToken)
+              .collect(Collectors.toSet());
+      return Flux.concat(Flux.fromIterable(replayed),
+                      live.filter(change -> !replayedTokens.contains(change.getResumeToken())))
+              .doFinally(signal -> connection.dispose());
+    });
+  }
+
+  private void remember(TaskChange change) {
+    synchronized (history) {
+      history.addLast(change);
+      while (history.size() > taskProperties.getChanges().getHistorySize()) {
+        history.removeFirst();
+      }
+    }
+  }
+
+  private void forget() {
+    synchronized (history) {
+      history.clear();
+    }
+  }
+
+  /**
+   * The changes kept after the one with a given resume token, or null when it is not kept.
+   */
+  private List<TaskChange> changesAfter(String resumeToken) {
+    synchronized (history) {
+      Iterator<TaskChange> changes = history.descendingIterator();
+      List<TaskChange> after = new ArrayList<>();
+      while (changes.hasNext()) {
+        TaskChange change = changes.next();
+        if (resumeToken.equals(change.getResumeToken())) {
+          Collections.reverse(after);
+          return after;
+        }
+        after.add(change);
+      }
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.repository.TaskCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Periodically recomputes the materialized task counters from the tasks, fixing any drift left by
+ * failed or concurrent counter updates.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskCountersReconciler {
+
+  private final TaskCounterRepository taskCounterRepository;
+
+  /**
+   * Recomputes the counters of every user.
+   *
+   * @return A Mono completing when the counters are reconciled.
+   */
+  @Scheduled(cron = "${application.tasks.counters.reconcile-cron}")
+  public Mono<Void> reconcile() {
+    return taskCounterRepository.reconcileAll()
+            .doOnSubscribe(subscription -> log.info("Reconciling task counters"))
+            .doOnError(throwable -> log.error("Error reconciling task counters", throwable))
+            .onErrorResume(throwable -> Mono.empty());
+  }
+
+}
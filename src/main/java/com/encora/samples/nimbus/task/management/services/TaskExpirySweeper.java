@@ -0,0 +1,204 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCountersDelta;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStatus;
+import com.encora.samples.nimbus.task.management.repository.SchedulerLockRepository;
+import com.encora.samples.nimbus.task.management.repository.TaskCounterRepository;
+import com.encora.samples.nimbus.task.management.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Periodically moves the pending and in progress tasks whose due date has passed to
+ * {@link TaskStatus#EXPIRED}.
+ *
+ * A sweep runs on a single instance at a time, the one holding the lease of the sweeper lock.
+ * Overdue tasks are expired in batches of a bounded updateMany, the longest overdue first, until
+ * none is left or the maximum number of batches of a sweep is reached. The lease is extended
+ * before every further batch, and the sweep stops as soon as it cannot be, so a sweep outlasting
+ * the lease never runs along with the one of another instance.
+ */
+@Slf4j
+@Service
+public class TaskExpirySweeper {
+
+  static final String LOCK = "task-expiry";
+
+  private static final List<String> EXPIRABLE = List.of(TaskStatus.PENDING.name(), TaskStatus.IN_PROGRESS.name());
+
+  private final TaskRepository taskRepository;
+
+  private final TaskCounterRepository taskCounterRepository;
+
+  private final SchedulerLockRepository schedulerLockRepository;
+
+  private final TaskCache taskCache;
+
+  private final TaskReadCoalescer taskReadCoalescer;
+
+  private final TaskProperties.Expiry settings;
+
+  private final String owner = UUID.randomUUID().toString();
+
+  private final DistributionSummary batchSize;
+
+  private final Counter expired;
+
+  private final Timer lag;
+
+  public TaskExpirySweeper(TaskRepository taskRepository, TaskCounterRepository taskCounterRepository,
+                           SchedulerLockRepository schedulerLockRepository, TaskCache taskCache,
+                           TaskReadCoalescer taskReadCoalescer, TaskProperties taskProperties,
+                           MeterRegistry meterRegistry) {
+    this.taskRepository = taskRepository;
+    this.taskCounterRepository = taskCounterRepository;
+    this.schedulerLockRepository = schedulerLockRepository;
+    this.taskCache = taskCache;
+    this.taskReadCoalescer = taskReadCoalescer;
+    this.settings = taskProperties.getExpiry();
+    this.batchSize = DistributionSummary.builder("tasks.expiry.batch.size")
+            .description("Tasks expired by a single batch of the expiry sweeper")
+            .register(meterRegistry);
+    this.expired = Counter.builder("tasks.expiry.expired")
+            .description("Tasks expired by the expiry sweeper")
+            .register(meterRegistry);
+    this.lag = Timer.builder("tasks.expiry.lag")
+            .description("Time the longest overdue task of a batch waited to be expired")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Expires the overdue tasks, unless another instance is already doing it.
+   *
+   * @return A Mono completing when the sweep is over.
+   */
+  @Scheduled(cron = "${application.tasks.expiry.sweep-cron}")
+  public Mono<Void> sweep() {
+    LocalDate today = LocalDate.now();
+    return Mono.usingWhen(
+                    schedulerLockRepository.acquire(LOCK, owner, settings.getLockLease())
+                            .filter(Boolean::booleanValue),
+                    locked -> expireAll(today),
+                    locked -> release())
+            .doOnNext(count -> log.info("Expired {} overdue tasks", count))
+            .doOnError(throwable -> log.error("Error expiring overdue tasks", throwable))
+            .onErrorResume(throwable -> Mono.empty())
+            .then();
+  }
+
+  private Mono<Long> expireAll(LocalDate today) {
+    return Flux.range(0, settings.getMaxBatches())
+            .concatMap(batch -> extendLease(batch).flatMap(held -> held
+                    ? taskRepository.findOverdue(EXPIRABLE, today, settings.getBatchSize())
+                            .collectList()
+                            .flatMap(overdue -> expire(overdue, today).map(count -> Map.entry(overdue.size(), count)))
+                    : Mono.just(Map.entry(0, 0L))))
+            .takeUntil(batch -> batch.getKey() < settings.getBatchSize())
+            .reduce(0L, (total, batch) -> total + batch.getValue());
+  }
+
+  /**
+   * Extends the lease of the sweep before every batch but the first one, taken along with it.
+   *
+   * @return Whether the lease is still held.
+   */
+  private Mono<Boolean> extendLease(int batch) {
+    if (batch == 0) {
+      return Mono.just(true);
+    }
+    return schedulerLockRepository.acquire(LOCK, owner, settings.getLockLease())
+            .doOnNext(held -> {
+              if (!held) {
+                log.warn("Lost the {} lock, stopping the sweep", LOCK);
+              }
+            });
+  }
+
+  /**
+   * Expires a batch of overdue tasks and moves them to the expired status in the counters of
+   * their users. The tasks are expired by the status they were read with, so each update only
+   * matches tasks still in that status. Tasks changed since they were read are left alone, in
+   * which case the counters of the users of the batch are recomputed instead.
+   *
+   * @return The number of tasks expired.
+   */
+  private Mono<Long> expire(List<Task> overdue, LocalDate today) {
+    if (overdue.isEmpty()) {
+      return Mono.just(0L);
+    }
+    List<String> ids = overdue.stream().map(Task::getId).toList();
+    Map<String, List<String>> idsByStatus = overdue.stream()
+            .collect(Collectors.groupingBy(Task::getStatus, LinkedHashMap::new,
+                    Collectors.mapping(Task::getId, Collectors.toList())));
+    return Flux.fromIterable(idsByStatus.entrySet())
+            .concatMap(status -> taskRepository.markOverdue(status.getValue(), List.of(status.getKey()), today,
+                    TaskStatus.EXPIRED.name()))
+            .reduce(0L, Long::sum)
+            .flatMap(count -> {
+              taskCache.invalidateAll(ids);
+              taskReadCoalescer.forgetTasks(ids::contains);
+              batchSize.record(count);
+              expired.increment(count);
+              ZonedDateTime overdueSince = overdue.get(0).getDueDate().plusDays(1).atStartOfDay(ZoneId.systemDefault());
+              lag.record(Duration.between(overdueSince, ZonedDateTime.now()));
+              return updateCounters(overdue, count == overdue.size()).thenReturn(count);
+            });
+  }
+
+  /**
+   * Moves the expired tasks in the counters of their users, then forgets the reads of the users
+   * in flight, which may still see the tasks in their previous status.
+   */
+  private Mono<Void> updateCounters(List<Task> overdue, boolean allExpired) {
+    Set<String> userIds = overdue.stream().map(Task::getUserId).collect(Collectors.toSet());
+    return countersOf(overdue, userIds, allExpired)
+            .then(Mono.fromRunnable(() -> userIds.forEach(taskReadCoalescer::forget)));
+  }
+
+  private Mono<Void> countersOf(List<Task> overdue, Set<String> userIds, boolean allExpired) {
+    if (!allExpired) {
+      return Flux.fromIterable(userIds)
+              .concatMap(userId -> taskCounterRepository.reconcile(userId)
+                      .doOnError(throwable -> log.warn("Error reconciling task counters of {}: {}", userId,
+                              throwable.getMessage()))
+                      .onErrorResume(throwable -> Mono.empty()))
+              .then();
+    }
+    Map<String, TaskCountersDelta> deltas = new HashMap<>();
+    overdue.forEach(task -> deltas.computeIfAbsent(task.getUserId(), userId -> new TaskCountersDelta())
+            .move(task.getStatus(), TaskStatus.EXPIRED.name()));
+    return Flux.fromIterable(deltas.entrySet())
+            .concatMap(delta -> taskCounterRepository.increment(delta.getKey(), delta.getValue())
+                    .doOnError(throwable -> log.warn("Error updating task counters of {}: {}", delta.getKey(),
+                            throwable.getMessage()))
+                    .onErrorResume(throwable -> Mono.empty()))
+            .then();
+  }
+
+  private Mono<Void> release() {
+    return schedulerLockRepository.release(LOCK, owner)
+            .doOnError(throwable -> log.warn("Error releasing the {} lock: {}", LOCK, throwable.getMessage()))
+            .onErrorResume(throwable -> Mono.empty());
+  }
+
+}
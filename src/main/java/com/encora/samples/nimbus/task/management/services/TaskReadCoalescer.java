@@ -0,0 +1,142 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.encora.samples.nimbus.task.management.model.domain.TaskPage;
+import com.encora.samples.nimbus.task.management.utils.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collapses concurrent identical reads of tasks, so a storm of refreshes of the same view costs a
+ * single database read.
+ *
+ * Reads are identical when they have the same key: the task id for details, the user for
+ * counters, the user and the normalized query for lists. Callers of a read still in flight share
+ * its result instead of starting their own. Writes forget the reads in flight they change, so a
+ * read following a write never shares a read started before it. The reads run and collapsed are
+ * published as the {@code tasks.reads} metric, tagged with the kind of read and its result.
+ */
+@Slf4j
+@Component
+public class TaskReadCoalescer {
+
+  private final boolean enabled;
+
+  private final SingleFlight<String, TaskResponse> tasks = new SingleFlight<>();
+
+  private final SingleFlight<String, TaskCounters> counters = new SingleFlight<>();
+
+  private final SingleFlight<UserRead, Task> lists = new SingleFlight<>();
+
+  private final SingleFlight<UserRead, TaskPage> pages = new SingleFlight<>();
+
+  public TaskReadCoalescer(TaskProperties taskProperties, MeterRegistry meterRegistry) {
+    this.enabled = taskProperties.getCoalescing().isEnabled();
+    if (enabled) {
+      monitor(meterRegistry, "task", tasks);
+      monitor(meterRegistry, "counters", counters);
+      monitor(meterRegistry, "list", lists);
+      monitor(meterRegistry, "page", pages);
+    } else {
+      log.info("Task read coalescing disabled");
+    }
+  }
+
+  /**
+   * Reads the details of a task, sharing an identical read in flight.
+   *
+   * @param id The ID of the task.
+   * @param read Reads the task.
+   * @return A Mono emitting the task, or empty when it does not exist.
+   */
+  public Mono<TaskResponse> task(String id, Supplier<Mono<TaskResponse>> read) {
+    return enabled ? tasks.execute(id, read) : read.get();
+  }
+
+  /**
+   * Reads the counters of a user, sharing an identical read in flight.
+   *
+   * @param userId The ID of the user.
+   * @param read Reads the counters.
+   * @return A Mono emitting the counters.
+   */
+  public Mono<TaskCounters> counters(String userId, Supplier<Mono<TaskCounters>> read) {
+    return enabled ? counters.execute(userId, read) : read.get();
+  }
+
+  /**
+   * Reads a list of tasks, sharing an identical read in flight. Tasks are emitted as they are
+   * read, callers joining a shared list late are first replayed the tasks already read.
+   *
+   * @param userId The ID of the user.
+   * @param query The normalized query of the list.
+   * @param read Reads the tasks.
+   * @return A Flux emitting the tasks.
+   */
+  public Flux<Task> list(String userId, Object query, Supplier<Flux<Task>> read) {
+    return enabled ? lists.executeMany(new UserRead(userId, query), read) : read.get();
+  }
+
+  /**
+   * Reads a page of tasks and its total, sharing an identical read in flight.
+   *
+   * @param userId The ID of the user.
+   * @param query The normalized query of the page.
+   * @param read Reads the page.
+   * @return A Mono emitting the page.
+   */
+  public Mono<TaskPage> page(String userId, Object query, Supplier<Mono<TaskPage>> read) {
+    return enabled ? pages.execute(new UserRead(userId, query), read) : read.get();
+  }
+
+  /**
+   * Forgets the counters and lists of a user in flight, once a write of theirs is done.
+   *
+   * @param userId The ID of the user.
+   */
+  public void forget(String userId) {
+    counters.forget(userId::equals);
+    lists.forget(read -> userId.equals(read.userId()));
+    pages.forget(read -> userId.equals(read.userId()));
+  }
+
+  /**
+   * Forgets the details of tasks in flight, once they were written.
+   *
+   * @param ids Matches the IDs of the written tasks.
+   */
+  public void forgetTasks(Predicate<String> ids) {
+    tasks.forget(ids);
+  }
+
+  private static void monitor(MeterRegistry meterRegistry, String read, SingleFlight<?, ?> flight) {
+    FunctionCounter.builder("tasks.reads", flight, SingleFlight::executed)
+            .description("Reads of tasks, run or collapsed into an identical read in flight")
+            .tag("read", read)
+            .tag("result", "executed")
+            .register(meterRegistry);
+    FunctionCounter.builder("tasks.reads", flight, SingleFlight::collapsed)
+            .description("Reads of tasks, run or collapsed into an identical read in flight")
+            .tag("read", read)
+            .tag("result", "collapsed")
+            .register(meterRegistry);
+    Gauge.builder("tasks.reads.in.flight", flight, SingleFlight::inFlight)
+            .description("Distinct reads of tasks in flight")
+            .tag("read", read)
+            .register(meterRegistry);
+  }
+
+  private record UserRead(String userId, Object query) {
+  }
+
+}
@@ -0,0 +1,203 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.utils.TaskSearchTerms;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process inverted indexes of the titles and descriptions of the tasks of the users currently
+ * searching, for type-ahead suggestions that do not reach the database.
+ *
+ * The index of a user is built from all their live tasks on their first search, and dropped when
+ * they write or stop searching for {@code application.tasks.search.ttl}. Every term of a search
+ * matches as a prefix, so suggestions follow the user while typing. Users with too many tasks are
+ * not indexed. Hits, misses and evictions are published as the {@code cache.*} metrics of the
+ * {@code task-search} cache.
+ */
+@Slf4j
+@Component
+public class TaskSearchIndex {
+
+  private static final String CACHE_NAME = "task-search";
+
+  private final AsyncCache<String, UserIndex> indexes;
+
+  private final int maximumTasks;
+
+  public TaskSearchIndex(TaskProperties taskProperties, MeterRegistry meterRegistry) {
+    TaskProperties.Search properties = taskProperties.getSearch();
+    this.maximumTasks = properties.getMaximumTasks();
+    if (properties.isIndexEnabled()) {
+      this.indexes = Caffeine.newBuilder()
+              .maximumSize(properties.getMaximumUsers())
+              .expireAfterAccess(properties.getTtl())
+              .recordStats()
+              .buildAsync();
+      CaffeineCacheMetrics.monitor(meterRegistry, indexes, CACHE_NAME);
+    } else {
+      this.indexes = null;
+      log.info("Task search index disabled");
+    }
+  }
+
+  /**
+   * Suggests the tasks of a user having, for every term of a text, a term of their title or
+   * description starting with it. Tasks matching in their title come first, then by title.
+   *
+   * @param userId The ID of the user.
+   * @param text The text typed by the user.
+   * @param limit The maximum number of tasks suggested.
+   * @param loader Reads the id, title and description of the live tasks of the user, to index them
+   *               when they are not yet.
+   * @return A Mono emitting the suggested tasks, with their id and title only, or empty when the
+   *         tasks of the user cannot be indexed.
+   */
+  public Mono<List<Task>> suggest(String userId, String text, int limit, Function<String, Flux<Task>> loader) {
+    if (Objects.isNull(indexes)) {
+      return Mono.empty();
+    }
+    List<String> terms = TaskSearchTerms.of(text);
+    return Mono.defer(() -> Mono.fromFuture(indexes.get(userId, (key, executor) -> loader.apply(key)
+                    .take(maximumTasks + 1L)
+                    .collectList()
+                    .map(tasks -> tasks.size() > maximumTasks ? UserIndex.OVERSIZED : UserIndex.of(tasks))
+                    .toFuture()), true))
+            .filter(index -> index != UserIndex.OVERSIZED)
+            .map(index -> index.suggest(terms, limit));
+  }
+
+  /**
+   * Drops the index of a user, after their tasks changed.
+   *
+   * @param userId The ID of the user.
+   */
+  public void invalidate(String userId) {
+    if (Objects.nonNull(indexes)) {
+      indexes.synchronous().invalidate(userId);
+    }
+  }
+
+  /**
+   * Immutable index of the tasks of a user: every term of their titles and descriptions, sorted so
+   * the terms starting with a prefix are contiguous, with the positions of the tasks having it.
+   */
+  static final class UserIndex {
+
+    static final UserIndex OVERSIZED = new UserIndex(new Task[0], new TreeMap<>(), new TreeMap<>());
+
+    private static final int IN_TITLE = 2;
+
+    private static final int IN_DESCRIPTION = 1;
+
+    private static final Comparator<Task> BY_TITLE = Comparator.comparing(Task::getTitle,
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(Task::getId);
+
+    private final Task[] tasks;
+
+    private final NavigableMap<String, int[]> titleTerms;
+
+    private final NavigableMap<String, int[]> descriptionTerms;
+
+    private UserIndex(Task[] tasks, NavigableMap<String, int[]> titleTerms,
+                      NavigableMap<String, int[]> descriptionTerms) {
+      this.tasks = tasks;
+      this.titleTerms = titleTerms;
+      this.descriptionTerms = descriptionTerms;
+    }
+
+    static UserIndex of(List<Task> tasks) {
+      List<Task> sorted = tasks.stream()
+              .sorted(BY_TITLE)
+              .toList();
+      Task[] indexed = new Task[sorted.size()];
+      Map<String, List<Integer>> titleTerms = new HashMap<>();
+      Map<String, List<Integer>> descriptionTerms = new HashMap<>();
+      for (int position = 0; position < indexed.length; position++) {
+        Task task = sorted.get(position);
+        indexed[position] = new Task();
+        indexed[position].setId(task.getId());
+        indexed[position].setTitle(task.getTitle());
+        add(titleTerms, TaskSearchTerms.of(task.getTitle()), position);
+        add(descriptionTerms, TaskSearchTerms.of(task.getDescription()), position);
+      }
+      return new UserIndex(indexed, sorted(titleTerms), sorted(descriptionTerms));
+    }
+
+    List<Task> suggest(List<String> terms, int limit) {
+      if (terms.isEmpty()) {
+        return List.of();
+      }
+      int[] scores = null;
+      for (String term : terms) {
+        int[] matches = new int[tasks.length];
+        match(titleTerms, term, matches, IN_TITLE);
+        match(descriptionTerms, term, matches, IN_DESCRIPTION);
+        if (Objects.isNull(scores)) {
+          scores = matches;
+          continue;
+        }
+        for (int position = 0; position < scores.length; position++) {
+          scores[position] = scores[position] == 0 || matches[position] == 0 ? 0 : scores[position] + matches[position];
+        }
+      }
+
+      List<Integer> positions = new ArrayList<>();
+      for (int position = 0; position < scores.length; position++) {
+        if (scores[position] > 0) {
+          positions.add(position);
+        }
+      }
+      int[] ranking = scores;
+      return positions.stream()
+              .sorted(Comparator.<Integer>comparingInt(position -> ranking[position]).reversed()
+                      .thenComparingInt(position -> position))
+              .limit(limit)
+              .map(position -> tasks[position])
+              .toList();
+    }
+
+    private static void add(Map<String, List<Integer>> terms, List<String> taskTerms, int position) {
+      for (String term : taskTerms) {
+        List<Integer> positions = terms.computeIfAbsent(term, key -> new ArrayList<>());
+        if (positions.isEmpty() || positions.get(positions.size() - 1) != position) {
+          positions.add(position);
+        }
+      }
+    }
+
+    private static NavigableMap<String, int[]> sorted(Map<String, List<Integer>> terms) {
+      NavigableMap<String, int[]> sorted = new TreeMap<>();
+      terms.forEach((term, positions) -> sorted.put(term, positions.stream()
+              .mapToInt(Integer::intValue)
+              .toArray()));
+      return sorted;
+    }
+
+    private static void match(NavigableMap<String, int[]> terms, String prefix, int[] matches, int weight) {
+      for (int[] positions : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+        for (int position : positions) {
+          matches[position] |= weight;
+        }
+      }
+    }
+  }
+
+}
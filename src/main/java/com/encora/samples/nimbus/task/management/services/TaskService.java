@@ -1,40 +1,99 @@
 package com.encora.samples.nimbus.task.management.services;
 
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
 import com.encora.samples.nimbus.task.management.exception.TaskException;
 import com.encora.samples.nimbus.task.management.mapper.TaskMapper;
+import com.encora.samples.nimbus.task.management.model.api.BatchOperation;
+import com.encora.samples.nimbus.task.management.model.api.BatchRequest;
+import com.encora.samples.nimbus.task.management.model.api.BatchResponse;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteRequest;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteResponse;
 import com.encora.samples.nimbus.task.management.model.api.QueryRequest;
 import com.encora.samples.nimbus.task.management.model.api.ServiceResponse;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponseStream;
 import com.encora.samples.nimbus.task.management.model.api.TaskIDResponse;
+import com.encora.samples.nimbus.task.management.model.api.TaskPatchRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.api.TaskStatsResponse;
 import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCountersDelta;
+import com.encora.samples.nimbus.task.management.model.domain.TaskPage;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStats;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStatus;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.encora.samples.nimbus.task.management.repository.TaskCounterRepository;
 import com.encora.samples.nimbus.task.management.repository.TaskRepository;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import com.encora.samples.nimbus.task.management.utils.TaskETags;
+import com.encora.samples.nimbus.task.management.utils.TaskFields;
 import io.micrometer.common.util.StringUtils;
-import java.time.LocalDateTime;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 /**
  * Service class for managing tasks.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TaskService {
 
+  private static final Set<String> STATUSES = Arrays.stream(TaskStatus.values())
+          .map(TaskStatus::name)
+          .collect(Collectors.toUnmodifiableSet());
+
+  private static final Set<String> SUGGESTION_FIELDS = Set.of("id", "title");
+
+  /**
+   * The only order of the task listings backed by an index, the one a $facet can page without
+   * sorting every task of the user in memory first.
+   */
+  private static final String FACET_SORT = "dueDate";
+
+  private static final Set<String> INDEXED_FIELDS = Set.of("id", "title", "description");
+
+  private static final List<String> OPEN_STATUSES = List.of(TaskStatus.PENDING.name(), TaskStatus.IN_PROGRESS.name());
+
   private final TaskRepository taskRepository;
 
+  private final TaskCounterRepository taskCounterRepository;
+
   private final TaskMapper taskMapper;
 
+  private final TaskProperties taskProperties;
+
+  private final TaskCache taskCache;
+
+  private final TaskSearchIndex taskSearchIndex;
+
+  private final TaskReadCoalescer taskReadCoalescer;
+
   /**
    * Creates a new task.
    *
@@ -43,22 +102,17 @@ public class TaskService {
    * @return A Mono emitting the ID of the created task.
    */
   public Mono<TaskIDResponse> createTask(String userId, TaskRequest task) {
-    return taskRepository.findByTitleAndUserId(task.getTitle(), userId)
-            .switchIfEmpty(Mono.just(new Task()))
-            .flatMap(newTask -> {
-              if (Objects.isNull(newTask.getId())){
-                task.setUserId(userId);
-                return taskRepository.save(taskMapper.createOf(task));
-              }
-              return Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Task already exists"));
-            })
+    task.setUserId(userId);
+    return taskRepository.insert(taskMapper.createOf(task))
+            .flatMap(newTask -> updateCounters(userId, new TaskCountersDelta().add(newTask.getStatus()))
+                    .thenReturn(newTask))
             .map(newTask -> TaskIDResponse.builder()
                     .id(newTask.getId())
                     .build()
             )
             .onErrorResume(throwable -> {
-              if (throwable instanceof TaskException) {
-                return Mono.error(throwable);
+              if (throwable instanceof DuplicateKeyException) {
+                return Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Task already exists"));
               }
               return Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
                       "Error creating task", throwable));
@@ -68,37 +122,170 @@ public class TaskService {
   /**
    * Retrieves a list of tasks for the specified user.
    *
+   * The counters of the user are read first, for the total and the revision of the tasks. The
+   * tasks themselves are only read once the returned stream is subscribed, emitted in the
+   * requested order, and the paging is resolved once they have all been emitted.
+   *
+   * When a search text is given, only the tasks matching it are listed, most relevant first. The
+   * total of a search is not counted, it would cost a second search.
+   *
+   * With the {@code facet} listing engine, the page and the total of the lists ordered by due date
+   * are rather read together in a single aggregation, and the list has no revision. Lists in any
+   * other order have no index to sort them and keep to the counters.
+   *
    * @param userId The ID of the user.
    * @param queryRequest The query request object containing the search criteria.
-   * @return A Mono emitting a ServiceResponse containing a set of TaskResponse objects.
+   * @return A Mono emitting a ServiceResponseStream of TaskResponse objects.
    */
-  public Mono<ServiceResponse<Set<TaskResponse>>> getTasks(String userId, QueryRequest queryRequest) {
-    Pageable pageable = PageRequest.of(queryRequest.getPage(),
-            queryRequest.getSize(),
-            Sort.by(Sort.Direction.fromString(queryRequest.getSortDirection()),
-                    queryRequest.getSortBy()));
+  public Mono<ServiceResponseStream<TaskResponse>> getTasks(String userId, QueryRequest queryRequest) {
+    return Mono.fromCallable(() -> TaskFields.parse(queryRequest.getFields()))
+            .onErrorMap(IllegalArgumentException.class,
+                    throwable -> new TaskException(HttpStatus.BAD_REQUEST, "Invalid fields"))
+            // Checked before the stream starts, an error once tasks were written can no longer change the status
+            .filter(fields -> TaskFields.SUPPORTED.contains(queryRequest.getSortBy()))
+            .switchIfEmpty(Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Invalid sortBy")))
+            .filter(fields -> Sort.Direction.fromOptionalString(queryRequest.getSortDirection()).isPresent())
+            .switchIfEmpty(Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Invalid sortDirection")))
+            .flatMap(fields -> isFacetListing(queryRequest)
+                    ? getTaskPage(userId, queryRequest, fields)
+                    : getTaskCounters(userId).map(counters -> getTasks(userId, queryRequest, fields, counters)));
+  }
+
+  private boolean isFacetListing(QueryRequest queryRequest) {
+    return taskProperties.getListing().getEngine() == TaskProperties.Listing.Engine.FACET
+            && StringUtils.isBlank(queryRequest.getQ())
+            && FACET_SORT.equals(queryRequest.getSortBy());
+  }
+
+  private Mono<ServiceResponseStream<TaskResponse>> getTaskPage(String userId, QueryRequest queryRequest,
+                                                                Set<String> fields) {
+    return taskReadCoalescer.page(userId, ListingKey.of(queryRequest, fields),
+                    () -> findTaskPage(userId, queryRequest, TaskFields.projectionOf(fields, queryRequest.getSortBy())))
+            .map(page -> {
+              List<Task> tasks = page.getTasks();
+              Task lastTask = tasks.isEmpty() ? null : tasks.get(tasks.size() - 1);
+              ServiceResponse.PageInfo pageInfo = buildPageInfo((int) page.getTotal(), queryRequest, tasks.size(),
+                      lastTask);
+              return new ServiceResponseStream<>(Flux.fromIterable(tasks).map(task -> responseOf(task, fields)),
+                      Mono.just(pageInfo), null);
+            })
+            .onErrorResume(throwable -> {
+              if (throwable instanceof TaskException) {
+                return Mono.error(throwable);
+              }
+              return Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
+                      "Error retrieving tasks", throwable));
+            });
+  }
 
-    Mono<Integer> count = getTaskCount(userId, queryRequest);
+  private ServiceResponseStream<TaskResponse> getTasks(String userId, QueryRequest queryRequest, Set<String> fields,
+                                                       TaskCounters counters) {
+    AtomicInteger numberOfElements = new AtomicInteger();
+    AtomicReference<Task> lastTask = new AtomicReference<>();
+    Sinks.Empty<Void> drained = Sinks.empty();
 
-    Flux<Task> tasks = taskRepository.findAllByUserId(userId, pageable)
-            .filter(task -> !task.getDeleted() &&
-                    (StringUtils.isBlank(queryRequest.getStatus()) || queryRequest.getStatus().equals(task.getStatus())))
+    Flux<TaskResponse> tasks = taskReadCoalescer.list(userId, ListingKey.of(queryRequest, fields),
+                    () -> findTasks(userId, queryRequest, TaskFields.projectionOf(fields, queryRequest.getSortBy())))
+            .doOnNext(task -> {
+              numberOfElements.incrementAndGet();
+              lastTask.set(task);
+            })
+            .doOnComplete(drained::tryEmitEmpty)
+            .map(task -> responseOf(task, fields))
+            .onErrorResume(throwable -> {
+              if (throwable instanceof TaskException) {
+                return Mono.error(throwable);
+              }
+              return Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
+                      "Error retrieving tasks", throwable));
+            });
+
+    // The number of tasks and the cursor are only known once the last task was emitted
+    int totalRecords = (int) Math.max(0, counters.count(queryRequest.getStatus()));
+    Mono<ServiceResponse.PageInfo> paging = drained.asMono()
+            .then(Mono.fromSupplier(() -> StringUtils.isNotBlank(queryRequest.getQ())
+                    ? buildSearchPageInfo(queryRequest, numberOfElements.get())
+                    : buildPageInfo(totalRecords, queryRequest, numberOfElements.get(), lastTask.get())));
+
+    return new ServiceResponseStream<>(tasks, paging, counters.getRevision());
+  }
+
+  /**
+   * Suggests the tasks of a user while they type, matching every typed term as the prefix of a
+   * term of the title or description.
+   *
+   * Suggestions are served from the in-process index of the tasks of the user, built on their
+   * first search. Users with too many tasks to index get the whole-term matches of the text
+   * index of Mongo instead.
+   *
+   * @param userId The ID of the user.
+   * @param text The text typed by the user.
+   * @param limit The maximum number of suggestions, capped by {@code application.tasks.search.maximum-suggestions}.
+   * @return A Mono emitting the id and title of the suggested tasks.
+   */
+  public Mono<List<TaskResponse>> suggestTasks(String userId, String text, int limit) {
+    if (StringUtils.isBlank(text)) {
+      return Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Search text is required"));
+    }
+    int size = Math.max(1, Math.min(limit, taskProperties.getSearch().getMaximumSuggestions()));
+    return taskSearchIndex.suggest(userId, text, size,
+                    id -> taskRepository.findAllByUserId(id, null, Pageable.unpaged(), INDEXED_FIELDS))
+            .switchIfEmpty(Mono.defer(() -> taskRepository.searchByUserId(userId, null, text,
+                    PageRequest.of(0, size), SUGGESTION_FIELDS).collectList()))
+            .map(tasks -> tasks.stream()
+                    .map(task -> taskMapper.responseOf(task, SUGGESTION_FIELDS))
+                    .toList())
             .onErrorResume(throwable -> Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
-                    "Error retrieving tasks", throwable)));
+                    "Error searching tasks", throwable)));
+  }
 
-    return Mono.zip(tasks.collectList(), count)
-            .map(tuple -> {
-              List<Task> tasksList = tuple.getT1();
-              Integer totalRecords = tuple.getT2();
+  /**
+   * Summarizes the tasks of a user for their dashboard: how many there are per status, and how
+   * many of the open ones are overdue or due today, this week or later.
+   *
+   * The summary is computed by the database in a single aggregation. Overdue tasks include the
+   * ones already expired by the sweeper. Weeks end on Sunday.
+   *
+   * @param userId The ID of the user.
+   * @return A Mono emitting the TaskStatsResponse.
+   */
+  public Mono<TaskStatsResponse> getTaskStats(String userId) {
+    LocalDate today = LocalDate.now();
+    LocalDate endOfWeek = today.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+    return taskRepository.statsByUserId(userId, OPEN_STATUSES, today, endOfWeek)
+            .defaultIfEmpty(new TaskStats())
+            .map(stats -> TaskStatsResponse.builder()
+                    .total(stats.getTotal())
+                    .statuses(stats.getStatuses())
+                    .overdue(stats.getOverdue() + stats.getStatuses().getOrDefault(TaskStatus.EXPIRED.name(), 0L))
+                    .dueToday(stats.getDueToday())
+                    .dueThisWeek(stats.getDueThisWeek())
+                    .dueLater(stats.getDueLater())
+                    .withoutDueDate(stats.getWithoutDueDate())
+                    .build())
+            .onErrorResume(throwable -> Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error retrieving task statistics", throwable)));
+  }
 
-              ServiceResponse.PageInfo pageInfo = buildPageInfo(totalRecords, queryRequest);
+  /**
+   * Streams every task of the specified user straight from the database cursor.
+   *
+   * @param userId The ID of the user.
+   * @param status The optional status the tasks must have.
+   * @return A Flux emitting the TaskResponse objects as they are read.
+   */
+  public Flux<TaskResponse> exportTasks(String userId, String status) {
+    if (StringUtils.isNotBlank(status) && !STATUSES.contains(status)) {
+      return Flux.error(new TaskException(HttpStatus.BAD_REQUEST, "Invalid status"));
+    }
+    Sort sort = Sort.by(Sort.Direction.DESC, "dueDate", "id");
+    Flux<Task> tasks = StringUtils.isBlank(status)
+            ? taskRepository.streamAllByUserIdAndDeleted(userId, false, sort)
+            : taskRepository.streamAllByUserIdAndStatusAndDeleted(userId, status, false, sort);
 
-              return ServiceResponse.queryResponse(
-                      tasksList.stream()
-                              .map(taskMapper::responseOf)
-                              .collect(Collectors.toUnmodifiableSet()),
-                      pageInfo);
-            });
+    return tasks.map(taskMapper::withDetailsOf)
+            .onErrorResume(throwable -> Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error exporting tasks", throwable)));
   }
 
   /**
@@ -108,11 +295,11 @@ public class TaskService {
    * @return A Mono emitting the TaskResponse object.
    */
   public Mono<TaskResponse> getTaskById(String taskId) {
-    return taskRepository.findById(taskId)
-            .filter(task -> !task.getDeleted())
+    return taskCache.get(taskId, id -> taskReadCoalescer.task(id, () -> taskRepository.findById(id)
+                    .filter(task -> !task.getDeleted())
+                    .map(taskMapper::withDetailsOf)))
             .switchIfEmpty(Mono.error(new TaskException(HttpStatus.NOT_FOUND,
                     "Task not found")))
-            .map(taskMapper::withDetailsOf)
             .onErrorResume(throwable -> {
               if (throwable instanceof TaskException) {
                 return Mono.error(throwable);
@@ -126,22 +313,81 @@ public class TaskService {
   /**
    * Updates an existing task.
    *
+   * The task is replaced only if it is still at the version it was read at, so a concurrent
+   * update is reported as a conflict instead of being overwritten.
+   *
    * @param id The ID of the task to update.
    * @param task The task request object containing the updated task details.
+   * @param ifMatch The optional If-Match header, the ETags the task must have.
    * @return A Mono emitting the updated TaskResponse object.
    */
-  public Mono<TaskResponse> updateTask(String id, TaskRequest task) {
+  public Mono<TaskResponse> updateTask(String id, TaskRequest task, String ifMatch) {
+    List<Long> versions = TaskETags.versionsOf(ifMatch);
     return taskRepository.findById(id)
             .switchIfEmpty(Mono.error(new TaskException(HttpStatus.NOT_FOUND, "Task not found")))
             .flatMap(existingTask -> {
+              long version = TaskETags.versionOf(existingTask.getVersion());
+              if (Objects.nonNull(versions) && !versions.contains(version)) {
+                return Mono.error(preconditionFailed());
+              }
               task.setId(existingTask.getId());
-              return taskRepository.save(taskMapper.updateOf(task));
+              Task updatedTask = taskMapper.updateOf(task);
+              updatedTask.setUserId(existingTask.getUserId());
+              updatedTask.setCreatedDate(existingTask.getCreatedDate());
+              updatedTask.setCreatedBy(existingTask.getCreatedBy());
+              updatedTask.setDeleted(existingTask.getDeleted());
+              return taskRepository.replaceById(updatedTask, version)
+                      .switchIfEmpty(Mono.error(() -> Objects.isNull(versions)
+                              ? new TaskException(HttpStatus.CONFLICT, "Task was modified concurrently")
+                              : preconditionFailed()))
+                      .flatMap(savedTask -> Boolean.TRUE.equals(existingTask.getDeleted())
+                              ? Mono.just(savedTask)
+                              : updateCounters(existingTask.getUserId(), new TaskCountersDelta()
+                                      .move(existingTask.getStatus(), savedTask.getStatus()))
+                                      .thenReturn(savedTask));
             })
             .map(taskMapper::withDetailsOf)
+            .doOnNext(taskCache::refresh)
+            .doOnNext(updatedTask -> taskReadCoalescer.forgetTasks(id::equals))
             .onErrorResume(throwable -> {
               if (throwable instanceof TaskException) {
                 return Mono.error(throwable);
               }
+              if (throwable instanceof DuplicateKeyException) {
+                return Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Task already exists"));
+              }
+              return Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
+                      "Error updating task", throwable));
+            });
+  }
+
+  /**
+   * Partially updates an existing task, changing only the supplied fields.
+   *
+   * @param userId The ID of the user updating the task.
+   * @param id The ID of the task to update.
+   * @param task The patch request object containing the fields to change.
+   * @param ifMatch The optional If-Match header, the ETags the task must have.
+   * @return A Mono emitting the updated TaskResponse object.
+   */
+  public Mono<TaskResponse> patchTask(String userId, String id, TaskPatchRequest task, String ifMatch) {
+    task.setUserId(userId);
+    List<Long> versions = TaskETags.versionsOf(ifMatch);
+    return taskRepository.updateFieldsById(id, taskMapper.patchOf(task), versions)
+            .switchIfEmpty(Mono.defer(() -> notFoundOrPreconditionFailed(id, versions)))
+            .flatMap(update -> updateCounters(update.getCurrent().getUserId(), new TaskCountersDelta()
+                    .move(update.getPrevious().getStatus(), update.getCurrent().getStatus()))
+                    .thenReturn(update.getCurrent()))
+            .map(taskMapper::withDetailsOf)
+            .doOnNext(taskCache::refresh)
+            .doOnNext(updatedTask -> taskReadCoalescer.forgetTasks(id::equals))
+            .onErrorResume(throwable -> {
+              if (throwable instanceof TaskException) {
+                return Mono.error(throwable);
+              }
+              if (throwable instanceof DuplicateKeyException) {
+                return Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Task already exists"));
+              }
               return Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
                       "Error updating task", throwable));
             });
@@ -151,17 +397,19 @@ public class TaskService {
    * Deletes a task.
    *
    * @param id The ID of the task to delete.
+   * @param ifMatch The optional If-Match header, the ETags the task must have.
    * @return A Mono emitting a void value.
    */
-  public Mono<Void> deleteTask(String id) {
-    return taskRepository.findById(id)
-            .switchIfEmpty(Mono.error(new TaskException(HttpStatus.NOT_FOUND, "Task not found")))
-            .flatMap(existingTask -> {
-              existingTask.setDeleted(Boolean.TRUE);
-              existingTask.setLastModifiedDate(LocalDateTime.now());
-              return taskRepository.save(existingTask);
+  public Mono<Void> deleteTask(String id, String ifMatch) {
+    List<Long> versions = TaskETags.versionsOf(ifMatch);
+    return taskRepository.softDeleteById(id, versions)
+            .doOnNext(deletedTask -> {
+              taskCache.invalidate(id);
+              taskReadCoalescer.forgetTasks(id::equals);
             })
-            .then()
+            .switchIfEmpty(Mono.defer(() -> notFoundOrPreconditionFailed(id, versions)))
+            .flatMap(deletedTask -> updateCounters(deletedTask.getUserId(),
+                    new TaskCountersDelta().remove(deletedTask.getStatus())))
             .onErrorResume(throwable -> {
               if (throwable instanceof TaskException) {
                 return Mono.error(throwable);
@@ -171,28 +419,376 @@ public class TaskService {
             });
   }
 
-  private Mono<Integer> getTaskCount(String userId, QueryRequest queryRequest) {
-    if (StringUtils.isBlank(queryRequest.getStatus())) {
-      return taskRepository.countByUserIdAndDeleted(userId, false)
-              .onErrorResume(throwable -> Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
-                      "Error retrieving tasks", throwable)));
-    } else {
-      return taskRepository.countByUserIdAndStatusAndDeleted(userId, queryRequest.getStatus(), false)
-              .onErrorResume(throwable -> Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
-                      "Error retrieving tasks", throwable)));
+  /**
+   * Tells why a conditional write matched no task: either there is no such live task, or it is at
+   * another version than the client expected.
+   */
+  private <T> Mono<T> notFoundOrPreconditionFailed(String id, List<Long> versions) {
+    TaskException notFound = new TaskException(HttpStatus.NOT_FOUND, "Task not found");
+    if (Objects.isNull(versions)) {
+      return Mono.error(notFound);
     }
+    return taskRepository.findById(id)
+            .filter(task -> Boolean.FALSE.equals(task.getDeleted()))
+            .flatMap(task -> Mono.<T>error(preconditionFailed()))
+            .switchIfEmpty(Mono.error(notFound));
+  }
+
+  private static TaskException preconditionFailed() {
+    return new TaskException(HttpStatus.PRECONDITION_FAILED, "Task was modified");
+  }
+
+  /**
+   * Deletes every task of the user matching the given ids and/or status.
+   *
+   * @param userId The ID of the user owning the tasks.
+   * @param request The bulk delete request containing the ids and/or status to delete.
+   * @return A Mono emitting the number of tasks deleted.
+   */
+  public Mono<BulkDeleteResponse> deleteTasks(String userId, BulkDeleteRequest request) {
+    if (CollectionUtils.isEmpty(request.getIds()) && StringUtils.isBlank(request.getStatus())) {
+      return Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Task ids or status are required"));
+    }
+    return taskRepository.softDeleteAllByUserId(userId, request.getIds(), request.getStatus())
+            .flatMap(deleted -> {
+              if (deleted == 0) {
+                return Mono.just(deleted);
+              }
+              if (CollectionUtils.isEmpty(request.getIds())) {
+                taskCache.invalidateAll(userId, request.getStatus());
+                // The deleted tasks are not known, the few reads of tasks in flight are all read again
+                taskReadCoalescer.forgetTasks(id -> true);
+              } else {
+                taskCache.invalidateAll(request.getIds());
+                taskReadCoalescer.forgetTasks(request.getIds()::contains);
+              }
+              // Deleting by ids only leaves the status of the deleted tasks unknown
+              Mono<?> counters = StringUtils.isBlank(request.getStatus())
+                      ? reconcileCounters(userId)
+                      : updateCounters(userId, new TaskCountersDelta().remove(request.getStatus(), deleted));
+              return counters.thenReturn(deleted);
+            })
+            .map(deleted -> BulkDeleteResponse.builder()
+                    .deleted(deleted)
+                    .build())
+            .onErrorResume(throwable -> Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error deleting tasks", throwable)));
+  }
+
+  /**
+   * Executes a batch of create, update and delete operations over the tasks of a user.
+   *
+   * Operations are sent to Mongo as bulk writes of at most {@code application.tasks.batch.chunk-size}
+   * operations. In ordered mode the batch stops at the first failed operation and the remaining
+   * ones are reported as skipped; otherwise every operation is attempted. As in a Mongo ordered
+   * bulkWrite, an update or delete of a task that does not exist is not a failure: it is reported
+   * and counted as not found, and the batch goes on.
+   *
+   * @param userId The ID of the user owning the tasks.
+   * @param request The batch request containing the operations to execute.
+   * @return A Mono emitting the result of every operation, in request order.
+   */
+  public Mono<BatchResponse> executeBatch(String userId, BatchRequest request) {
+    List<BatchOperation> operations = request.getOperations();
+    if (operations.size() > taskProperties.getBatch().getMaxOperations()) {
+      return Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "At most "
+              + taskProperties.getBatch().getMaxOperations() + " operations are allowed per batch"));
+    }
+
+    BatchResponse.BatchItemResult[] results = new BatchResponse.BatchItemResult[operations.size()];
+    List<Integer> indexes = new ArrayList<>();
+    List<TaskWrite> writes = new ArrayList<>();
+    for (int i = 0; i < operations.size(); i++) {
+      BatchOperation operation = operations.get(i);
+      try {
+        writes.add(toTaskWrite(userId, operation));
+        indexes.add(i);
+      } catch (IllegalArgumentException e) {
+        results[i] = batchItemResult(i, operation.getId(), HttpStatus.BAD_REQUEST, e.getMessage());
+        if (request.isOrdered()) {
+          break;
+        }
+      }
+    }
+
+    int chunkSize = taskProperties.getBatch().getChunkSize();
+    AtomicBoolean halted = new AtomicBoolean(false);
+    return Flux.range(0, (writes.size() + chunkSize - 1) / chunkSize)
+            .concatMap(chunk -> {
+              int from = chunk * chunkSize;
+              int to = Math.min(from + chunkSize, writes.size());
+              if (halted.get()) {
+                return Mono.empty();
+              }
+              return taskRepository.bulkWrite(userId, writes.subList(from, to), request.isOrdered())
+                      .onErrorResume(throwable -> {
+                        log.error("Error executing batch chunk", throwable);
+                        return Mono.just(writes.subList(from, to).stream()
+                                .map(write -> new TaskWriteResult(write.getId(), TaskWriteResult.Outcome.FAILED))
+                                .toList());
+                      })
+                      .doOnNext(chunkResults -> {
+                        List<String> written = writes.subList(from, to).stream()
+                                .filter(write -> write.getType() != TaskWrite.Type.INSERT)
+                                .map(TaskWrite::getId)
+                                .toList();
+                        taskCache.invalidateAll(written);
+                        taskReadCoalescer.forgetTasks(written::contains);
+                      })
+                      .flatMap(chunkResults -> (chunkResults.stream().anyMatch(TaskWriteResult::isUnconfirmed)
+                              ? reconcileCounters(userId)
+                              : updateCounters(userId, countersDeltaOf(writes.subList(from, to), chunkResults)))
+                              .thenReturn(chunkResults))
+                      .doOnNext(chunkResults -> {
+                        for (int j = 0; j < chunkResults.size(); j++) {
+                          int index = indexes.get(from + j);
+                          BatchResponse.BatchItemResult itemResult = batchItemResult(index,
+                                  operations.get(index).getOperation(), chunkResults.get(j));
+                          results[index] = itemResult;
+                          if (request.isOrdered() && itemResult.getStatus() >= HttpStatus.BAD_REQUEST.value()
+                                  && itemResult.getStatus() != HttpStatus.NOT_FOUND.value()) {
+                            halted.set(true);
+                          }
+                        }
+                      });
+            })
+            .then(Mono.fromSupplier(() -> buildBatchResponse(operations, results)));
+  }
+
+  private TaskWrite toTaskWrite(String userId, BatchOperation operation) {
+    TaskRequest task = operation.getTask();
+    try {
+      switch (operation.getOperation()) {
+        case "CREATE" -> {
+          if (Objects.isNull(task) || StringUtils.isBlank(task.getTitle()) || StringUtils.isBlank(task.getDueDate())) {
+            throw new IllegalArgumentException("Title and due date are mandatory");
+          }
+          task.setUserId(userId);
+          return TaskWrite.insert(taskMapper.createOf(task));
+        }
+        case "UPDATE" -> {
+          if (StringUtils.isBlank(operation.getId()) || Objects.isNull(task)) {
+            throw new IllegalArgumentException("Task id and task are mandatory");
+          }
+          if (StringUtils.isNotBlank(task.getStatus()) && !STATUSES.contains(task.getStatus())) {
+            throw new IllegalArgumentException("Invalid status " + task.getStatus());
+          }
+          task.setUserId(userId);
+          return TaskWrite.update(operation.getId(), taskMapper.updateOf(task));
+        }
+        case "DELETE" -> {
+          if (StringUtils.isBlank(operation.getId())) {
+            throw new IllegalArgumentException("Task id is mandatory");
+          }
+          return TaskWrite.delete(operation.getId());
+        }
+        default -> throw new IllegalArgumentException("Unknown operation " + operation.getOperation());
+      }
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid due date " + task.getDueDate(), e);
+    }
+  }
+
+  private static TaskCountersDelta countersDeltaOf(List<TaskWrite> writes, List<TaskWriteResult> results) {
+    TaskCountersDelta delta = new TaskCountersDelta();
+    for (int i = 0; i < results.size(); i++) {
+      TaskWriteResult result = results.get(i);
+      if (result.getOutcome() != TaskWriteResult.Outcome.APPLIED) {
+        continue;
+      }
+      TaskWrite write = writes.get(i);
+      switch (write.getType()) {
+        case INSERT -> delta.add(write.getTask().getStatus());
+        case UPDATE -> delta.move(result.getPreviousStatus(), Objects.isNull(write.getTask().getStatus())
+                ? result.getPreviousStatus()
+                : write.getTask().getStatus());
+        case DELETE -> delta.remove(result.getPreviousStatus());
+      }
+    }
+    return delta;
+  }
+
+  private static BatchResponse.BatchItemResult batchItemResult(int index, String operation, TaskWriteResult result) {
+    return switch (result.getOutcome()) {
+      case APPLIED -> batchItemResult(index, result.getId(), "CREATE".equals(operation)
+              ? HttpStatus.CREATED
+              : HttpStatus.OK, null);
+      case NOT_FOUND -> batchItemResult(index, result.getId(), HttpStatus.NOT_FOUND, "Task not found");
+      case DUPLICATED -> batchItemResult(index, result.getId(), HttpStatus.BAD_REQUEST, "Task already exists");
+      case SKIPPED -> batchItemResult(index, result.getId(), HttpStatus.FAILED_DEPENDENCY,
+              "Skipped after a previous error");
+      case FAILED -> batchItemResult(index, result.getId(), HttpStatus.INTERNAL_SERVER_ERROR,
+              "Error executing operation");
+    };
   }
 
-  private ServiceResponse.PageInfo buildPageInfo(int totalRecords, QueryRequest queryRequest) {
+  private static BatchResponse.BatchItemResult batchItemResult(int index, String id, HttpStatus status, String message) {
+    return BatchResponse.BatchItemResult.builder()
+            .index(index)
+            .id(id)
+            .status(status.value())
+            .message(message)
+            .build();
+  }
+
+  private static BatchResponse buildBatchResponse(List<BatchOperation> operations,
+                                                  BatchResponse.BatchItemResult[] results) {
+    for (int i = 0; i < results.length; i++) {
+      if (Objects.isNull(results[i])) {
+        results[i] = batchItemResult(i, operations.get(i).getId(), HttpStatus.FAILED_DEPENDENCY,
+                "Skipped after a previous error");
+      }
+    }
+    int succeeded = (int) Arrays.stream(results)
+            .filter(result -> result.getStatus() < HttpStatus.BAD_REQUEST.value())
+            .count();
+    int notFound = (int) Arrays.stream(results)
+            .filter(result -> result.getStatus() == HttpStatus.NOT_FOUND.value())
+            .count();
+    return BatchResponse.builder()
+            .succeeded(succeeded)
+            .notFound(notFound)
+            .failed(results.length - succeeded - notFound)
+            .results(List.of(results))
+            .build();
+  }
+
+  private Flux<Task> findTasks(String userId, QueryRequest queryRequest, Set<String> projection) {
+    Sort.Direction direction = Sort.Direction.fromString(queryRequest.getSortDirection());
+
+    if (StringUtils.isNotBlank(queryRequest.getQ())) {
+      // Results are ranked by relevance, which no cursor can resume from
+      if (StringUtils.isNotBlank(queryRequest.getCursor())) {
+        return Flux.error(new TaskException(HttpStatus.BAD_REQUEST, "Cursors are not supported when searching"));
+      }
+      return taskRepository.searchByUserId(userId, queryRequest.getStatus(), queryRequest.getQ(),
+              PageRequest.of(queryRequest.getPage(), queryRequest.getSize()), projection);
+    }
+
+    if (StringUtils.isNotBlank(queryRequest.getCursor())) {
+      return decodeCursor(queryRequest, direction)
+              .flatMapMany(cursor -> taskRepository.findAllByUserIdAfter(userId, queryRequest.getStatus(),
+                      cursor, queryRequest.getSize(), projection));
+    }
+
+    Pageable pageable = PageRequest.of(queryRequest.getPage(),
+            queryRequest.getSize(),
+            Sort.by(direction, queryRequest.getSortBy(), "id"));
+
+    return taskRepository.findAllByUserId(userId, queryRequest.getStatus(), pageable, projection);
+  }
+
+  private Mono<TaskPage> findTaskPage(String userId, QueryRequest queryRequest, Set<String> projection) {
+    Sort.Direction direction = Sort.Direction.fromString(queryRequest.getSortDirection());
+
+    if (StringUtils.isNotBlank(queryRequest.getCursor())) {
+      return decodeCursor(queryRequest, direction)
+              .flatMap(cursor -> taskRepository.findPageByUserIdAfter(userId, queryRequest.getStatus(),
+                      cursor, queryRequest.getSize(), projection));
+    }
+
+    Pageable pageable = PageRequest.of(queryRequest.getPage(),
+            queryRequest.getSize(),
+            Sort.by(direction, queryRequest.getSortBy(), "id"));
+
+    return taskRepository.findPageByUserId(userId, queryRequest.getStatus(), pageable, projection);
+  }
+
+  private static Mono<TaskCursor> decodeCursor(QueryRequest queryRequest, Sort.Direction direction) {
+    return Mono.fromCallable(() -> TaskCursor.decode(queryRequest.getCursor()))
+            .onErrorMap(IllegalArgumentException.class,
+                    throwable -> new TaskException(HttpStatus.BAD_REQUEST, "Invalid cursor"))
+            .filter(cursor -> cursor.matches(queryRequest.getSortBy(), direction))
+            .switchIfEmpty(Mono.error(new TaskException(HttpStatus.BAD_REQUEST, "Invalid cursor")));
+  }
+
+  private TaskResponse responseOf(Task task, Set<String> fields) {
+    return TaskFields.SUMMARY.equals(fields)
+            ? taskMapper.responseOf(task)
+            : taskMapper.responseOf(task, fields);
+  }
+
+  /**
+   * Reads the materialized counters of the user, seeding them from the tasks the first time they
+   * are needed.
+   */
+  private Mono<TaskCounters> getTaskCounters(String userId) {
+    return taskReadCoalescer.counters(userId, () -> taskCounterRepository.findById(userId)
+                    .switchIfEmpty(Mono.defer(() -> taskCounterRepository.reconcile(userId))))
+            .onErrorResume(throwable -> Mono.error(new TaskException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error retrieving tasks", throwable)));
+  }
+
+  /**
+   * Applies a delta to the counters of a user, and drops the search index of their tasks. Counters
+   * are a read model: a failure here must not fail a write that already happened, the
+   * reconciliation job fixes any drift. Once the counters are updated, the reads of the user in
+   * flight are forgotten, for the next ones to see the write.
+   */
+  private Mono<Void> updateCounters(String userId, TaskCountersDelta delta) {
+    taskSearchIndex.invalidate(userId);
+    return taskCounterRepository.increment(userId, delta)
+            .onErrorResume(throwable -> {
+              log.warn("Error updating task counters of user {}", userId, throwable);
+              return Mono.empty();
+            })
+            .then(Mono.fromRunnable(() -> taskReadCoalescer.forget(userId)));
+  }
+
+  private Mono<Void> reconcileCounters(String userId) {
+    taskSearchIndex.invalidate(userId);
+    return taskCounterRepository.reconcile(userId)
+            .then()
+            .onErrorResume(throwable -> {
+              log.warn("Error reconciling task counters of user {}", userId, throwable);
+              return Mono.empty();
+            })
+            .then(Mono.fromRunnable(() -> taskReadCoalescer.forget(userId)));
+  }
+
+  static ServiceResponse.PageInfo buildPageInfo(int totalRecords, QueryRequest queryRequest, int numberOfElements,
+                                                Task lastTask) {
     int totalPages = (int) Math.ceil((double) totalRecords / queryRequest.getSize());
+    boolean cursorMode = StringUtils.isNotBlank(queryRequest.getCursor());
     return ServiceResponse.PageInfo.builder()
             .totalElements(totalRecords)
-            .currentPage(queryRequest.getPage())
+            .currentPage(cursorMode ? null : queryRequest.getPage())
             .pageSize(queryRequest.getSize())
             .totalPages(totalPages)
-            .numberOfElements(totalRecords > 0 ? Math.min(queryRequest.getSize(), totalRecords - queryRequest.getPage() * queryRequest.getSize()) : 0)
+            .numberOfElements(numberOfElements)
+            .nextCursor(Objects.isNull(lastTask) || numberOfElements < queryRequest.getSize() ? null
+                    : TaskCursor.of(lastTask, queryRequest.getSortBy(),
+                    Sort.Direction.fromString(queryRequest.getSortDirection())).encode())
             .build();
   }
 
+  private static ServiceResponse.PageInfo buildSearchPageInfo(QueryRequest queryRequest, int numberOfElements) {
+    return ServiceResponse.PageInfo.builder()
+            .currentPage(queryRequest.getPage())
+            .pageSize(queryRequest.getSize())
+            .numberOfElements(numberOfElements)
+            .build();
+  }
+
+  /**
+   * Identifies a list read, for it to be shared by concurrent identical requests. Parameters that
+   * do not change the result are normalized away: the page of cursor requests, the case of the
+   * sort direction, the order of the fields and blank filters.
+   */
+  private record ListingKey(String status, String q, String sortBy, Sort.Direction direction, int page, int size,
+                            String cursor, Set<String> fields) {
+
+    static ListingKey of(QueryRequest queryRequest, Set<String> fields) {
+      boolean cursorMode = StringUtils.isNotBlank(queryRequest.getCursor());
+      return new ListingKey(StringUtils.isBlank(queryRequest.getStatus()) ? null : queryRequest.getStatus(),
+              StringUtils.isBlank(queryRequest.getQ()) ? null : queryRequest.getQ().trim(),
+              queryRequest.getSortBy(),
+              Sort.Direction.fromOptionalString(queryRequest.getSortDirection()).orElse(null),
+              cursorMode ? 0 : queryRequest.getPage(),
+              queryRequest.getSize(),
+              cursorMode ? queryRequest.getCursor() : null,
+              fields);
+    }
+  }
 
 }
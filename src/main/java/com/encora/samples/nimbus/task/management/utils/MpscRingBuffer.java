@@ -0,0 +1,123 @@
+package com.encora.samples.nimbus.task.management.utils;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer single-consumer ring buffer.
+ *
+ * Every slot carries a sequence number telling whether it is free for the producer claiming
+ * position {@code p} (sequence {@code p}) or holds the element the consumer expects at that
+ * position (sequence {@code p + 1}). Producers claim positions with a CAS on the tail and never
+ * block or allocate: when the buffer is full {@link #offer(Object)} simply fails.
+ *
+ * @param <E> The type of the elements.
+ */
+public class MpscRingBuffer<E> {
+
+  private final int mask;
+
+  private final AtomicReferenceArray<E> elements;
+
+  private final AtomicLongArray sequences;
+
+  private final AtomicLong tail = new AtomicLong();
+
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Creates a ring buffer.
+   *
+   * @param capacity The requested capacity, rounded up to the next power of two.
+   */
+  public MpscRingBuffer(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Invalid ring buffer capacity " + capacity);
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.mask = size - 1;
+    this.elements = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Adds an element, from any thread.
+   *
+   * @param element The element to add.
+   * @return False when the buffer is full and the element was not added.
+   */
+  public boolean offer(E element) {
+    Objects.requireNonNull(element);
+    long position = tail.get();
+    for (;;) {
+      int index = (int) (position & mask);
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.lazySet(index, element);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest element. Must only be called from the single consumer thread.
+   *
+   * @return The oldest element, or null when the buffer is empty.
+   */
+  public E poll() {
+    long position = head.get();
+    int index = (int) (position & mask);
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    E element = elements.get(index);
+    elements.lazySet(index, null);
+    sequences.set(index, position + mask + 1);
+    head.lazySet(position + 1);
+    return element;
+  }
+
+  /**
+   * Removes up to {@code limit} elements, oldest first. Must only be called from the single
+   * consumer thread.
+   *
+   * @param consumer Receives every removed element.
+   * @param limit The maximum number of elements to remove.
+   * @return The number of elements removed.
+   */
+  public int drain(Consumer<E> consumer, int limit) {
+    int drained = 0;
+    E element;
+    while (drained < limit && (element = poll()) != null) {
+      consumer.accept(element);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Approximate number of elements in the buffer.
+   */
+  public int size() {
+    return (int) Math.max(0, Math.min(tail.get() - head.get(), capacity()));
+  }
+
+  public int capacity() {
+    return mask + 1;
+  }
+
+}
@@ -0,0 +1,114 @@
+package com.encora.samples.nimbus.task.management.utils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collapses concurrent identical calls into a single one.
+ *
+ * The first caller of a key starts the call; callers of the same key arriving while it is still
+ * in flight share its outcome instead of starting their own. The call is forgotten as soon as it
+ * completes, so results are never reused once delivered: this is not a cache. A call keeps
+ * running while at least one of its callers is still waiting for it.
+ *
+ * A flight is used either for single results, with {@link #execute}, or for streams, with
+ * {@link #executeMany}, never both.
+ *
+ * @param <K> The type of the keys identifying identical calls.
+ * @param <V> The type of the results.
+ */
+public class SingleFlight<K, V> {
+
+  private final Map<K, Publisher<V>> flights = new ConcurrentHashMap<>();
+
+  private final LongAdder executed = new LongAdder();
+
+  private final LongAdder collapsed = new LongAdder();
+
+  /**
+   * Runs a call, unless an identical one is in flight.
+   *
+   * @param key The key identifying the call, with consistent equals and hashCode.
+   * @param call Starts the call, only invoked when no identical call is in flight.
+   * @return A Mono emitting the outcome of the call, shared with the identical calls.
+   */
+  public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+    return Mono.defer(() -> Mono.from(join(key, self -> Mono.defer(call)
+            .doFinally(signal -> flights.remove(key, self.get()))
+            .cache())));
+  }
+
+  /**
+   * Runs a call emitting many results, unless an identical one is in flight. Results are emitted
+   * as they come; callers joining late are replayed the ones already emitted.
+   *
+   * @param key The key identifying the call, with consistent equals and hashCode.
+   * @param call Starts the call, only invoked when no identical call is in flight.
+   * @return A Flux emitting the results of the call, shared with the identical calls.
+   */
+  public Flux<V> executeMany(K key, Supplier<Flux<V>> call) {
+    return Flux.defer(() -> join(key, self -> Flux.defer(call)
+            .doFinally(signal -> flights.remove(key, self.get()))
+            .replay()
+            .refCount()));
+  }
+
+  /**
+   * Forgets the calls in flight with matching keys, so later callers start a new call instead of
+   * sharing them. Their current callers still get their outcome.
+   *
+   * @param keys Matches the keys of the calls to forget.
+   */
+  public void forget(Predicate<K> keys) {
+    flights.keySet().removeIf(keys);
+  }
+
+  private Publisher<V> join(K key, Function<AtomicReference<Publisher<V>>, Publisher<V>> start) {
+    Publisher<V> flight = flights.get(key);
+    if (Objects.nonNull(flight)) {
+      collapsed.increment();
+      return flight;
+    }
+    AtomicReference<Publisher<V>> self = new AtomicReference<>();
+    Publisher<V> candidate = start.apply(self);
+    self.set(candidate);
+    flight = flights.putIfAbsent(key, candidate);
+    if (Objects.nonNull(flight)) {
+      collapsed.increment();
+      return flight;
+    }
+    executed.increment();
+    return candidate;
+  }
+
+  /**
+   * @return The number of calls actually run.
+   */
+  public long executed() {
+    return executed.sum();
+  }
+
+  /**
+   * @return The number of calls that shared the outcome of an identical one.
+   */
+  public long collapsed() {
+    return collapsed.sum();
+  }
+
+  /**
+   * @return The number of calls in flight.
+   */
+  public int inFlight() {
+    return flights.size();
+  }
+
+}
@@ -0,0 +1,120 @@
+package com.encora.samples.nimbus.task.management.utils;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Objects;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Opaque keyset pagination cursor.
+ *
+ * A cursor remembers the sort field, the sort direction and the last {@code (sortBy value, id)}
+ * pair returned to the client, so the next page can be requested as a range condition on
+ * the index instead of skipping every previous document.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TaskCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final String sortBy;
+
+  private final Sort.Direction direction;
+
+  private final Object value;
+
+  private final String id;
+
+  /**
+   * Builds the cursor pointing right after the given task.
+   *
+   * @param task The last task of the current page.
+   * @param sortBy The property the page is sorted by.
+   * @param direction The sort direction of the page.
+   * @return The cursor for the next page.
+   */
+  public static TaskCursor of(Task task, String sortBy, Sort.Direction direction) {
+    try {
+      return new TaskCursor(sortBy, direction, new BeanWrapperImpl(task).getPropertyValue(sortBy), task.getId());
+    } catch (BeansException e) {
+      throw new IllegalArgumentException("Unknown sort property " + sortBy, e);
+    }
+  }
+
+  /**
+   * Decodes a cursor previously produced by {@link #encode()}.
+   *
+   * @param cursor The opaque cursor value.
+   * @return The decoded cursor.
+   * @throws IllegalArgumentException when the value is not a valid cursor.
+   */
+  public static TaskCursor decode(String cursor) {
+    String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    String[] parts = decoded.split("\\" + SEPARATOR, 5);
+    if (parts.length != 5 || parts[0].isEmpty() || parts[3].isEmpty()) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    try {
+      return new TaskCursor(parts[0], Sort.Direction.fromString(parts[1]), decodeValue(parts[2], parts[4]), parts[3]);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Malformed cursor value", e);
+    }
+  }
+
+  /**
+   * Encodes the cursor as an URL safe opaque string.
+   *
+   * @return The encoded cursor.
+   */
+  public String encode() {
+    String raw = String.join(SEPARATOR, sortBy, direction.name(), typeOf(value), id,
+            Objects.isNull(value) ? "" : value.toString());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Checks whether the cursor was produced for the given ordering.
+   *
+   * @param sortBy The requested sort property.
+   * @param direction The requested sort direction.
+   * @return True when the cursor can be used to continue this ordering.
+   */
+  public boolean matches(String sortBy, Sort.Direction direction) {
+    return this.sortBy.equals(sortBy) && this.direction == direction;
+  }
+
+  private static String typeOf(Object value) {
+    if (Objects.isNull(value)) {
+      return "n";
+    } else if (value instanceof LocalDate) {
+      return "d";
+    } else if (value instanceof LocalDateTime) {
+      return "t";
+    } else if (value instanceof Boolean) {
+      return "b";
+    }
+    return "s";
+  }
+
+  private static Object decodeValue(String type, String value) {
+    return switch (type) {
+      case "n" -> null;
+      case "d" -> LocalDate.parse(value);
+      case "t" -> LocalDateTime.parse(value);
+      case "b" -> Boolean.valueOf(value);
+      case "s" -> value;
+      default -> throw new IllegalArgumentException("Unknown cursor value type " + type);
+    };
+  }
+
+}
@@ -0,0 +1,78 @@
+package com.encora.samples.nimbus.task.management.utils;
+
+import io.micrometer.common.util.StringUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Entity tags of the tasks and of their listings.
+ *
+ * A task is tagged with its version, a strong validator. A listing is tagged with the revision of
+ * the tasks of its user, a weak one: it changes whenever any of them does.
+ */
+public final class TaskETags {
+
+  private static final String ANY = "*";
+
+  private static final String WEAK_PREFIX = "W/";
+
+  private static final String QUOTE = "\"";
+
+  private TaskETags() {
+  }
+
+  /**
+   * The version of a task, tasks written before versioning being at version 0.
+   */
+  public static long versionOf(Long version) {
+    return Objects.isNull(version) ? 0L : version;
+  }
+
+  /**
+   * The strong ETag of a task.
+   *
+   * @param version The version of the task.
+   * @return The quoted version.
+   */
+  public static String of(Long version) {
+    return QUOTE + versionOf(version) + QUOTE;
+  }
+
+  /**
+   * The weak ETag of a listing.
+   *
+   * @param revision The revision of the tasks of the user.
+   * @return The weak ETag, null when the revision is unknown.
+   */
+  public static String weakOf(String revision) {
+    return StringUtils.isBlank(revision) ? null : WEAK_PREFIX + QUOTE + revision + QUOTE;
+  }
+
+  /**
+   * Parses an {@code If-Match} header into the versions a task must have to be written. Weak and
+   * malformed tags never match, as If-Match requires a strong comparison.
+   *
+   * @param ifMatch The header, if sent.
+   * @return The acceptable versions, possibly none, or null when any version is.
+   */
+  public static List<Long> versionsOf(String ifMatch) {
+    if (StringUtils.isBlank(ifMatch) || ANY.equals(ifMatch.trim())) {
+      return null;
+    }
+    List<Long> versions = new ArrayList<>();
+    for (String tag : ifMatch.split(",")) {
+      String value = tag.trim();
+      if (value.length() < 3 || !value.startsWith(QUOTE) || !value.endsWith(QUOTE)) {
+        continue;
+      }
+      try {
+        versions.add(Long.parseLong(value.substring(1, value.length() - 1)));
+      } catch (NumberFormatException e) {
+        // Not a tag of ours, it matches no version
+      }
+    }
+    return versions;
+  }
+
+}
@@ -0,0 +1,72 @@
+package com.encora.samples.nimbus.task.management.utils;
+
+import io.micrometer.common.util.StringUtils;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets of the task listings.
+ *
+ * A client lists the task properties it needs as a comma separated {@code fields} parameter, and
+ * only those are read from the database and serialized. The id is always included.
+ */
+public final class TaskFields {
+
+  /**
+   * Properties of a task a client can ask for.
+   */
+  public static final Set<String> SUPPORTED = Set.of("id", "userId", "title", "description", "dueDate", "status",
+          "lastModifiedDate", "createdDate", "createdBy", "lastModifiedBy");
+
+  /**
+   * Properties of a listed task when the client asks for none.
+   */
+  public static final Set<String> SUMMARY = Set.of("id", "title", "description");
+
+  private static final String ID = "id";
+
+  private TaskFields() {
+  }
+
+  /**
+   * Parses a {@code fields} parameter.
+   *
+   * @param fields The comma separated properties, or blank for the {@link #SUMMARY}.
+   * @return The properties to return.
+   * @throws IllegalArgumentException when a property is not {@link #SUPPORTED}.
+   */
+  public static Set<String> parse(String fields) {
+    if (StringUtils.isBlank(fields)) {
+      return SUMMARY;
+    }
+    Set<String> parsed = new LinkedHashSet<>();
+    parsed.add(ID);
+    for (String field : fields.split(",")) {
+      String name = field.trim();
+      if (!SUPPORTED.contains(name)) {
+        throw new IllegalArgumentException("Unknown field " + name);
+      }
+      parsed.add(name);
+    }
+    return Collections.unmodifiableSet(parsed);
+  }
+
+  /**
+   * The properties to read from the database: the returned ones plus the sort property, which
+   * the cursor of the next page is built from.
+   *
+   * @param fields The properties to return.
+   * @param sortBy The property the listing is sorted by.
+   * @return The properties to read.
+   */
+  public static Set<String> projectionOf(Set<String> fields, String sortBy) {
+    if (fields.contains(sortBy)) {
+      return fields;
+    }
+    Set<String> projection = new LinkedHashSet<>(fields);
+    projection.add(sortBy);
+    return projection;
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.encora.samples.nimbus.task.management.utils;
+
+import io.micrometer.common.util.StringUtils;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the text of the tasks and of the searches into terms.
+ *
+ * Terms are the runs of letters and digits of the text, lower cased and without diacritics, so
+ * {@code "Réunion: Q3"} is made of {@code "reunion"} and {@code "q3"}.
+ */
+public final class TaskSearchTerms {
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+  private TaskSearchTerms() {
+  }
+
+  /**
+   * The terms of a text, in order and with repetitions.
+   *
+   * @param text The text, possibly null.
+   * @return The terms, none when the text is blank.
+   */
+  public static List<String> of(String text) {
+    List<String> terms = new ArrayList<>();
+    if (StringUtils.isBlank(text)) {
+      return terms;
+    }
+    String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+    for (String term : SEPARATORS.split(normalized)) {
+      if (!term.isEmpty()) {
+        terms.add(term);
+      }
+    }
+    return terms;
+  }
+
+}
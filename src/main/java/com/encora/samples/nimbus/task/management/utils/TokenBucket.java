@@ -0,0 +1,74 @@
+package com.encora.samples.nimbus.task.management.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, as a generic cell rate algorithm.
+ *
+ * The state of a bucket is a single {@link AtomicLong}: the instant, in {@link System#nanoTime()}
+ * nanoseconds, at which the bucket will be full again. Taking a token pushes that instant one
+ * token period later, which is only allowed while it stays within the capacity of the bucket
+ * from now. Taking a token is a single CAS, retried only under contention, and an idle bucket
+ * needs no refill: a state in the past simply means a full bucket.
+ */
+public class TokenBucket {
+
+  private final long tokenNanos;
+
+  private final long capacityNanos;
+
+  /**
+   * Creates the rules of a family of buckets.
+   *
+   * @param capacity The number of tokens of a full bucket.
+   * @param refillPerSecond The number of tokens added back every second.
+   */
+  public TokenBucket(int capacity, double refillPerSecond) {
+    if (capacity < 1 || !(refillPerSecond > 0)) {
+      throw new IllegalArgumentException("Invalid token bucket " + capacity + " / " + refillPerSecond);
+    }
+    this.tokenNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+    this.capacityNanos = tokenNanos * capacity;
+  }
+
+  /**
+   * Creates the state of a full bucket.
+   *
+   * @param now The current {@link System#nanoTime()}.
+   * @return The state.
+   */
+  public AtomicLong full(long now) {
+    return new AtomicLong(now);
+  }
+
+  /**
+   * Takes a token from a bucket, if it has one.
+   *
+   * @param state The state of the bucket.
+   * @param now The current {@link System#nanoTime()}.
+   * @return 0 when a token was taken, else the nanoseconds until the bucket has one.
+   */
+  public long tryTake(AtomicLong state, long now) {
+    for (;;) {
+      long fullAt = state.get();
+      long next = Math.max(fullAt - now, 0) + now + tokenNanos;
+      long wait = next - now - capacityNanos;
+      if (wait > 0) {
+        return wait;
+      }
+      if (state.compareAndSet(fullAt, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * The time an untouched bucket takes to become full again.
+   *
+   * @return The time in nanoseconds.
+   */
+  public long refillNanos() {
+    return capacityNanos;
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.encora.samples.nimbus.task.management.config;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryMetricsPostProcessorTest {
+
+    private MeterRegistry meterRegistry;
+
+    private BeanPostProcessor repositoryMetricsPostProcessor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        repositoryMetricsPostProcessor = MetricsConfig.repositoryMetricsPostProcessor(
+                beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @Test
+    void testTimesEveryCallOfTheRepositories() {
+        SampleRepository sampleRepository = (SampleRepository) repositoryMetricsPostProcessor
+                .postProcessAfterInitialization(new SampleRepositoryImpl(), "sampleRepository");
+
+        StepVerifier.create(sampleRepository.findById("1"))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(sampleRepository.findById("2"))
+                .expectNext("2")
+                .verifyComplete();
+        StepVerifier.create(sampleRepository.findAll())
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(sampleRepository.watch())
+                .thenCancel()
+                .verify();
+
+        Timer findById = timer("findById", "success");
+        assertEquals(2, findById.count());
+        assertSame(findById, meterRegistry.get("tasks.repository").tag("method", "findById").timer());
+        assertEquals(1, timer("findAll", "error").count());
+        assertEquals(1, timer("watch", "cancelled").count());
+        assertEquals(3, meterRegistry.get("tasks.repository").timers().size());
+    }
+
+    @Test
+    void testLeavesOtherBeansAlone() {
+        Object bean = new Object();
+
+        assertSame(bean, repositoryMetricsPostProcessor.postProcessAfterInitialization(bean, "bean"));
+        assertNull(meterRegistry.find("tasks.repository").timer());
+    }
+
+    private Timer timer(String method, String outcome) {
+        return meterRegistry.get("tasks.repository")
+                .tag("repository", "SampleRepository")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+    interface SampleRepository extends Repository<Task, String> {
+
+        Mono<String> findById(String id);
+
+        Flux<String> findAll();
+
+        Flux<String> watch();
+    }
+
+    static class SampleRepositoryImpl implements SampleRepository {
+
+        @Override
+        public Mono<String> findById(String id) {
+            return Mono.just(id);
+        }
+
+        @Override
+        public Flux<String> findAll() {
+            return Flux.error(new IllegalStateException("Unavailable"));
+        }
+
+        @Override
+        public Flux<String> watch() {
+            return Flux.never();
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.encora.samples.nimbus.task.management.expose.web;
 
 import com.encora.samples.nimbus.task.management.model.api.AuthorizationHeader;
+import com.encora.samples.nimbus.task.management.model.api.BatchRequest;
+import com.encora.samples.nimbus.task.management.model.api.BatchResponse;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteRequest;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteResponse;
 import com.encora.samples.nimbus.task.management.model.api.QueryRequest;
-import com.encora.samples.nimbus.task.management.model.api.ServiceResponse;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponseStream;
 import com.encora.samples.nimbus.task.management.model.api.TaskIDResponse;
+import com.encora.samples.nimbus.task.management.model.api.TaskPatchRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.api.TaskStatsResponse;
+import com.encora.samples.nimbus.task.management.services.TaskChangeFeed;
 import com.encora.samples.nimbus.task.management.services.TaskService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,10 +21,12 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import java.util.Set;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +40,9 @@ class TaskControllerTest {
     @Mock
     private TaskService taskService;
 
+    @Mock
+    private TaskChangeFeed taskChangeFeed;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -60,19 +72,45 @@ class TaskControllerTest {
         verify(taskService, times(1)).createTask("user1", taskRequest);
     }
 
+    @Test
+    void testExecuteBatch() {
+        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
+        authorizationHeader.setUserId("user1");
+        BatchRequest batchRequest = new BatchRequest();
+        BatchResponse batchResponse = BatchResponse.builder()
+                .succeeded(1)
+                .failed(0)
+                .build();
+        when(taskService.executeBatch(anyString(), any(BatchRequest.class))).thenReturn(Mono.just(batchResponse));
+
+        Mono<ResponseEntity<BatchResponse>> result = taskController.executeBatch(authorizationHeader, batchRequest);
+
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals(batchResponse, response.getBody());
+                })
+                .verifyComplete();
+
+        verify(taskService, times(1)).executeBatch("user1", batchRequest);
+    }
+
     @Test
     void testGetTasks() {
         AuthorizationHeader authorizationHeader = new AuthorizationHeader();
         authorizationHeader.setUserId("user1");
         QueryRequest queryRequest = new QueryRequest();
-        ServiceResponse<Set<TaskResponse>> serviceResponse = ServiceResponse.<Set<TaskResponse>>builder().build();
+        ServiceResponseStream<TaskResponse> serviceResponse = new ServiceResponseStream<>(Flux.empty(), Mono.empty(),
+                "rev-1");
         when(taskService.getTasks(anyString(), any(QueryRequest.class))).thenReturn(Mono.just(serviceResponse));
 
-        Mono<ResponseEntity<ServiceResponse>> result = taskController.getTasks(authorizationHeader, queryRequest);
+        Mono<ResponseEntity<ServiceResponseStream<TaskResponse>>> result = taskController.getTasks(authorizationHeader,
+                queryRequest);
 
         StepVerifier.create(result)
                 .assertNext(response -> {
                     assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals("W/\"rev-1\"", response.getHeaders().getETag());
                     assertEquals(serviceResponse, response.getBody());
                 })
                 .verifyComplete();
@@ -80,12 +118,77 @@ class TaskControllerTest {
         verify(taskService, times(1)).getTasks("user1", queryRequest);
     }
 
+    @Test
+    void testSuggestTasks() {
+        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
+        authorizationHeader.setUserId("user1");
+        List<TaskResponse> suggestions = List.of(new TaskResponse());
+        when(taskService.suggestTasks(anyString(), anyString(), anyInt())).thenReturn(Mono.just(suggestions));
+
+        StepVerifier.create(taskController.suggestTasks(authorizationHeader, "quart", 5))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals(suggestions, response.getBody().getData());
+                })
+                .verifyComplete();
+
+        verify(taskService, times(1)).suggestTasks("user1", "quart", 5);
+    }
+
+    @Test
+    void testGetTaskStats() {
+        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
+        authorizationHeader.setUserId("user1");
+        TaskStatsResponse stats = TaskStatsResponse.builder().total(3L).build();
+        when(taskService.getTaskStats(anyString())).thenReturn(Mono.just(stats));
+
+        StepVerifier.create(taskController.getTaskStats(authorizationHeader))
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals(stats, response.getBody());
+                })
+                .verifyComplete();
+
+        verify(taskService, times(1)).getTaskStats("user1");
+    }
+
+    @Test
+    void testExportTasks() {
+        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
+        authorizationHeader.setUserId("user1");
+        TaskResponse taskResponse = new TaskResponse();
+        when(taskService.exportTasks(anyString(), any())).thenReturn(Flux.just(taskResponse));
+
+        StepVerifier.create(taskController.exportTasks(authorizationHeader, "PENDING"))
+                .expectNext(taskResponse)
+                .verifyComplete();
+
+        verify(taskService, times(1)).exportTasks("user1", "PENDING");
+    }
+
+    @Test
+    void testStreamChanges() {
+        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
+        authorizationHeader.setUserId("user1");
+        ServerSentEvent<TaskResponse> event = ServerSentEvent.<TaskResponse>builder()
+                .id("token-1")
+                .build();
+        when(taskChangeFeed.subscribe(anyString(), any())).thenReturn(Flux.just(event));
+
+        StepVerifier.create(taskController.streamChanges(authorizationHeader, "token-0"))
+                .expectNext(event)
+                .verifyComplete();
+
+        verify(taskChangeFeed, times(1)).subscribe("user1", "token-0");
+    }
+
     @Test
     void testGetTaskById() {
         AuthorizationHeader authorizationHeader = new AuthorizationHeader();
         authorizationHeader.setUserId("user1");
         String taskId = "1";
         TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setVersion(3L);
         when(taskService.getTaskById(anyString())).thenReturn(Mono.just(taskResponse));
 
         Mono<ResponseEntity<TaskResponse>> result = taskController.getTaskById(authorizationHeader, taskId);
@@ -93,6 +196,7 @@ class TaskControllerTest {
         StepVerifier.create(result)
                 .assertNext(response -> {
                     assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals("\"3\"", response.getHeaders().getETag());
                     assertEquals(taskResponse, response.getBody());
                 })
                 .verifyComplete();
@@ -107,18 +211,44 @@ class TaskControllerTest {
         String taskId = "1";
         TaskRequest taskRequest = new TaskRequest();
         TaskResponse taskResponse = new TaskResponse();
-        when(taskService.updateTask(anyString(), any(TaskRequest.class))).thenReturn(Mono.just(taskResponse));
+        taskResponse.setVersion(2L);
+        when(taskService.updateTask(anyString(), any(TaskRequest.class), any())).thenReturn(Mono.just(taskResponse));
 
-        Mono<ResponseEntity<TaskResponse>> result = taskController.updateTask(authorizationHeader, taskId, taskRequest);
+        Mono<ResponseEntity<TaskResponse>> result = taskController.updateTask(authorizationHeader, taskId, taskRequest,
+                "\"1\"");
 
         StepVerifier.create(result)
                 .assertNext(response -> {
                     assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals("\"2\"", response.getHeaders().getETag());
                     assertEquals(taskResponse, response.getBody());
                 })
                 .verifyComplete();
 
-        verify(taskService, times(1)).updateTask(taskId, taskRequest);
+        verify(taskService, times(1)).updateTask(taskId, taskRequest, "\"1\"");
+    }
+
+    @Test
+    void testPatchTask() {
+        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
+        authorizationHeader.setUserId("user1");
+        String taskId = "1";
+        TaskPatchRequest patchRequest = new TaskPatchRequest();
+        TaskResponse taskResponse = new TaskResponse();
+        when(taskService.patchTask(anyString(), anyString(), any(TaskPatchRequest.class), any()))
+                .thenReturn(Mono.just(taskResponse));
+
+        Mono<ResponseEntity<TaskResponse>> result = taskController.patchTask(authorizationHeader, taskId, patchRequest,
+                null);
+
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals(taskResponse, response.getBody());
+                })
+                .verifyComplete();
+
+        verify(taskService, times(1)).patchTask("user1", taskId, patchRequest, null);
     }
 
     @Test
@@ -126,13 +256,36 @@ class TaskControllerTest {
         AuthorizationHeader authorizationHeader = new AuthorizationHeader();
         authorizationHeader.setUserId("user1");
         String taskId = "1";
-        when(taskService.deleteTask(anyString())).thenReturn(Mono.empty());
+        when(taskService.deleteTask(anyString(), any())).thenReturn(Mono.empty());
 
-        Mono<Void> result = taskController.deleteTask(authorizationHeader, taskId);
+        Mono<Void> result = taskController.deleteTask(authorizationHeader, taskId, "\"4\"");
 
         StepVerifier.create(result)
                 .verifyComplete();
 
-        verify(taskService, times(1)).deleteTask(taskId);
+        verify(taskService, times(1)).deleteTask(taskId, "\"4\"");
+    }
+
+    @Test
+    void testDeleteTasks() {
+        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
+        authorizationHeader.setUserId("user1");
+        BulkDeleteRequest request = new BulkDeleteRequest();
+        request.setStatus("COMPLETED");
+        BulkDeleteResponse bulkDeleteResponse = BulkDeleteResponse.builder()
+                .deleted(3L)
+                .build();
+        when(taskService.deleteTasks(anyString(), any(BulkDeleteRequest.class))).thenReturn(Mono.just(bulkDeleteResponse));
+
+        Mono<ResponseEntity<BulkDeleteResponse>> result = taskController.deleteTasks(authorizationHeader, request);
+
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertEquals(HttpStatus.OK, response.getStatusCode());
+                    assertEquals(3L, response.getBody().getDeleted());
+                })
+                .verifyComplete();
+
+        verify(taskService, times(1)).deleteTasks("user1", request);
     }
 }
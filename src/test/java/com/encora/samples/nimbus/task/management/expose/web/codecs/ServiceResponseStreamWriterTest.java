@@ -0,0 +1,117 @@
+package com.encora.samples.nimbus.task.management.expose.web.codecs;
+
+import com.encora.samples.nimbus.task.management.exception.TaskException;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponse;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponseStream;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceResponseStreamWriterTest {
+
+    private static final ResolvableType STREAM_TYPE = ResolvableType.forClass(ServiceResponseStream.class);
+
+    private ObjectMapper objectMapper;
+
+    private ServiceResponseStreamWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = new ServiceResponseStreamWriter(objectMapper);
+    }
+
+    @Test
+    void testCanWrite() {
+        assertTrue(writer.canWrite(STREAM_TYPE, MediaType.APPLICATION_JSON));
+        assertTrue(writer.canWrite(STREAM_TYPE, null));
+        assertFalse(writer.canWrite(STREAM_TYPE, MediaType.APPLICATION_XML));
+        assertFalse(writer.canWrite(ResolvableType.forClass(ServiceResponse.class), MediaType.APPLICATION_JSON));
+        assertFalse(writer.canWrite(ResolvableType.forClass(Object.class), null));
+    }
+
+    @Test
+    void testWriteKeepsOrderAndAppendsPaging() throws JsonProcessingException {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        List<TaskResponse> tasks = List.of(taskResponse("2", "B"), taskResponse("1", "A"));
+        ServiceResponse.PageInfo pageInfo = ServiceResponse.PageInfo.builder()
+                .totalElements(2)
+                .numberOfElements(2)
+                .build();
+        ServiceResponseStream<TaskResponse> stream = new ServiceResponseStream<>(Flux.fromIterable(tasks),
+                Mono.just(pageInfo), null);
+        String expected = objectMapper.writeValueAsString(ServiceResponse.queryResponse(tasks, pageInfo));
+
+        StepVerifier.create(writer.write(Mono.just(stream), STREAM_TYPE, MediaType.APPLICATION_JSON, response, Map.of()))
+                .verifyComplete();
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        StepVerifier.create(response.getBodyAsString())
+                .assertNext(body -> {
+                    assertTrue(body.startsWith("{\"data\":[{\"id\":\"2\",\"title\":\"B\"},{\"id\":\"1\""));
+                    assertJsonEquals(expected, body);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testWriteEmptyPage() throws JsonProcessingException {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        ServiceResponse.PageInfo pageInfo = ServiceResponse.PageInfo.builder()
+                .totalElements(0)
+                .build();
+        ServiceResponseStream<TaskResponse> stream = new ServiceResponseStream<>(Flux.empty(), Mono.just(pageInfo), null);
+        String expected = objectMapper.writeValueAsString(ServiceResponse.queryResponse(List.of(), pageInfo));
+
+        StepVerifier.create(writer.write(Mono.just(stream), STREAM_TYPE, MediaType.APPLICATION_JSON, response, Map.of()))
+                .verifyComplete();
+
+        StepVerifier.create(response.getBodyAsString())
+                .assertNext(body -> assertJsonEquals(expected, body))
+                .verifyComplete();
+    }
+
+    @Test
+    void testWriteFailsBeforeAnyItem() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        ServiceResponseStream<TaskResponse> stream = new ServiceResponseStream<>(
+                Flux.error(new TaskException(HttpStatus.BAD_REQUEST, "Invalid cursor")),
+                Mono.never(), null);
+
+        StepVerifier.create(writer.write(Mono.just(stream), STREAM_TYPE, MediaType.APPLICATION_JSON, response, Map.of()))
+                .expectErrorMatches(throwable -> throwable instanceof TaskException)
+                .verify();
+
+        assertFalse(response.isCommitted());
+    }
+
+    private void assertJsonEquals(String expected, String actual) {
+        try {
+            assertEquals(objectMapper.readTree(expected), objectMapper.readTree(actual));
+        } catch (JsonProcessingException e) {
+            fail(e);
+        }
+    }
+
+    private static TaskResponse taskResponse(String id, String title) {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(id);
+        taskResponse.setTitle(title);
+        return taskResponse;
+    }
+}
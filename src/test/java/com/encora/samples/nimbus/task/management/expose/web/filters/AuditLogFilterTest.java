@@ -2,6 +2,7 @@ package com.encora.samples.nimbus.task.management.expose.web.filters;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
@@ -13,13 +14,19 @@ import reactor.core.publisher.Mono;
 import java.net.URI;
 import reactor.test.StepVerifier;
 
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
 class AuditLogFilterTest {
 
     private AuditLogFilter auditLogFilter;
 
+    private AuditLogWriter auditLogWriter;
+
     @BeforeEach
     void setUp() {
-        auditLogFilter = new AuditLogFilter();
+        auditLogWriter = mock(AuditLogWriter.class);
+        auditLogFilter = new AuditLogFilter(auditLogWriter);
     }
 
     @Test
@@ -59,6 +66,14 @@ class AuditLogFilterTest {
                 .expectComplete()
                 .verify();
 
+        ArgumentCaptor<AuditEvent> event = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditLogWriter, times(1)).submit(event.capture());
+        assertEquals(requestId, event.getValue().getRequestId());
+        assertEquals("GET", event.getValue().getMethod());
+        assertEquals(path, event.getValue().getPath());
+        assertEquals(queryParams, event.getValue().getQuery());
+        assertEquals(200, event.getValue().getStatus());
+        assertTrue(event.getValue().getDurationMillis() >= durationMillis);
 
     }
 }
@@ -0,0 +1,98 @@
+package com.encora.samples.nimbus.task.management.expose.web.filters;
+
+import com.encora.samples.nimbus.task.management.config.AuditProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogWriterTest {
+
+    private AuditProperties auditProperties;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        auditProperties = new AuditProperties();
+        auditProperties.setFlushInterval(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testWritesInBatches() {
+        auditProperties.setBatchSize(2);
+        AuditLogWriter auditLogWriter = new AuditLogWriter(auditProperties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(auditLogWriter.submit(auditEvent(i)));
+        }
+
+        assertEquals(2, auditLogWriter.flush());
+        assertEquals(2, auditLogWriter.flush());
+        assertEquals(1, auditLogWriter.flush());
+        assertEquals(0, auditLogWriter.flush());
+        assertEquals(5, auditLogWriter.getWritten());
+        assertEquals(5.0, meterRegistry.get("audit.events.written").functionCounter().count());
+    }
+
+    @Test
+    void testDropsWhenFull() {
+        auditProperties.setBufferSize(4);
+        AuditLogWriter auditLogWriter = new AuditLogWriter(auditProperties, meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(auditLogWriter.submit(auditEvent(i)));
+        }
+        assertFalse(auditLogWriter.submit(auditEvent(4)));
+
+        assertEquals(1, auditLogWriter.getDropped());
+        assertEquals(1.0, meterRegistry.get("audit.events.dropped").functionCounter().count());
+        assertEquals(4.0, meterRegistry.get("audit.events.pending").gauge().value());
+    }
+
+    @Test
+    void testConcurrentProducers() throws Exception {
+        auditProperties.setBufferSize(1024);
+        AuditLogWriter auditLogWriter = new AuditLogWriter(auditProperties, meterRegistry);
+        auditLogWriter.start();
+
+        int producers = 4;
+        int eventsPerProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    auditLogWriter.submit(auditEvent(i));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        auditLogWriter.stop();
+
+        assertEquals(producers * eventsPerProducer, auditLogWriter.getWritten() + auditLogWriter.getDropped());
+    }
+
+    private static AuditEvent auditEvent(int i) {
+        return new AuditEvent(System.currentTimeMillis(), "request-" + i, "GET", "/tasks", "page=" + i, 200, 1);
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.encora.samples.nimbus.task.management.expose.web.filters;
+
+import com.encora.samples.nimbus.task.management.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private RateLimitProperties rateLimitProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private AtomicInteger served;
+
+    private WebFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setRead(new RateLimitProperties.Budget(2, 0.001));
+        rateLimitProperties.setWrite(new RateLimitProperties.Budget(1, 0.001));
+        meterRegistry = new SimpleMeterRegistry();
+        served = new AtomicInteger();
+        chain = exchange -> Mono.fromRunnable(served::incrementAndGet);
+    }
+
+    @Test
+    void testRejectsUsersOverTheirBudget() throws Exception {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(rateLimitProperties, new ObjectMapper(), meterRegistry);
+
+        assertNull(send(rateLimitFilter, HttpMethod.GET, "user1").getResponse().getStatusCode());
+        assertNull(send(rateLimitFilter, HttpMethod.GET, "user1").getResponse().getStatusCode());
+        MockServerWebExchange rejected = send(rateLimitFilter, HttpMethod.GET, "user1");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertTrue(Long.parseLong(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)) > 900);
+        StepVerifier.create(rejected.getResponse().getBodyAsString())
+                .expectNext("{\"error\":{\"status\":429,\"message\":\"Too many requests\"}}")
+                .verifyComplete();
+
+        // Writes and other users have budgets of their own
+        assertNull(send(rateLimitFilter, HttpMethod.POST, "user1").getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                send(rateLimitFilter, HttpMethod.DELETE, "user1").getResponse().getStatusCode());
+        assertNull(send(rateLimitFilter, HttpMethod.GET, "user2").getResponse().getStatusCode());
+        assertNull(send(rateLimitFilter, HttpMethod.GET, null).getResponse().getStatusCode());
+
+        assertEquals(5, served.get());
+        assertEquals(3.0, meterRegistry.get("rate.limit.requests").tag("budget", "read").tag("result", "allowed")
+                .counter().count());
+        assertEquals(1.0, meterRegistry.get("rate.limit.requests").tag("budget", "write").tag("result", "rejected")
+                .counter().count());
+        assertEquals(2.0, meterRegistry.get("rate.limit.users").gauge().value());
+    }
+
+    @Test
+    void testUsersAreLimitedApartWhateverTheirIdFormat() throws Exception {
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(rateLimitProperties, new ObjectMapper(), meterRegistry);
+
+        assertNull(send(rateLimitFilter, HttpMethod.POST, "test-user").getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                send(rateLimitFilter, HttpMethod.POST, "test-user").getResponse().getStatusCode());
+
+        // A busy user does not take the budget of any other
+        assertNull(send(rateLimitFilter, HttpMethod.POST, "other-user").getResponse().getStatusCode());
+        assertNull(send(rateLimitFilter, HttpMethod.POST, "6f1c2a4e-0b7d-4c3e-9a51-2d8e7f6b1c01")
+                .getResponse().getStatusCode());
+
+        assertEquals(3, served.get());
+        assertEquals(3.0, meterRegistry.get("rate.limit.users").gauge().value());
+    }
+
+    @Test
+    void testDisabledRateLimitAllowsEverything() throws Exception {
+        rateLimitProperties.setEnabled(false);
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(rateLimitProperties, new ObjectMapper(), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(send(rateLimitFilter, HttpMethod.POST, "user1").getResponse().getStatusCode());
+        }
+
+        assertEquals(5, served.get());
+        assertNull(meterRegistry.find("rate.limit.users").gauge());
+    }
+
+    private MockServerWebExchange send(RateLimitFilter rateLimitFilter, HttpMethod method, String userId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.method(method, "/tasks");
+        if (userId != null) {
+            request.header("X-User-Id", userId);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.build());
+        StepVerifier.create(rateLimitFilter.filter(exchange, chain))
+                .verifyComplete();
+        return exchange;
+    }
+}
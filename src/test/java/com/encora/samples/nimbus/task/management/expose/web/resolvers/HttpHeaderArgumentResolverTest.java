@@ -2,13 +2,10 @@ package com.encora.samples.nimbus.task.management.expose.web.resolvers;
 
 import com.encora.samples.nimbus.task.management.model.api.AuthorizationHeader;
 import com.encora.samples.nimbus.task.management.utils.annotations.HttpHeadersMapping;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.Map;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
 import org.springframework.core.MethodParameter;
 import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
@@ -24,16 +21,13 @@ import static org.mockito.Mockito.*;
 
 class HttpHeaderArgumentResolverTest {
 
-    @InjectMocks
-    private HttpHeaderArgumentResolver resolver;
+    private static final String REQUEST_ID = "3f1c2a4e-8b7d-4c6a-9e21-5a7b8c9d0e1f";
 
-    @Mock
-    private ObjectMapper objectMapper;
+    private HttpHeaderArgumentResolver resolver;
 
     @BeforeEach
     void setUp() {
-        MockitoAnnotations.openMocks(this);
-        resolver = new HttpHeaderArgumentResolver(objectMapper);
+        resolver = new HttpHeaderArgumentResolver(Validation.buildDefaultValidatorFactory().getValidator());
     }
 
     @Test
@@ -47,7 +41,10 @@ class HttpHeaderArgumentResolverTest {
     void testResolveArgument() throws Exception {
         // Mock the ServerWebExchange
         MockServerHttpRequest request = MockServerHttpRequest.get("/test")
+                .header("X-Request-Id", REQUEST_ID)
+                .header("X-Request-Date", "2024-09-01T10:00:00")
                 .header("X-User-Id", "test-user")
+                .header("X-Other", "ignored")
                 .build();
         ServerWebExchange exchange = MockServerWebExchange.from(request);
 
@@ -55,11 +52,6 @@ class HttpHeaderArgumentResolverTest {
         Method method = TestController.class.getMethod("testMethod", AuthorizationHeader.class);
         MethodParameter parameter = new MethodParameter(method, 0);
 
-        // Mock the objectMapper
-        AuthorizationHeader authorizationHeader = new AuthorizationHeader();
-        authorizationHeader.setUserId("test-user");
-        when(objectMapper.convertValue(any(Map.class), eq(AuthorizationHeader.class))).thenReturn(authorizationHeader);
-
         // Call the method to test
         Mono<Object> result = resolver.resolveArgument(parameter, mock(BindingContext.class), exchange);
 
@@ -67,14 +59,63 @@ class HttpHeaderArgumentResolverTest {
         StepVerifier.create(result)
                 .assertNext(argument -> {
                     assertTrue(argument instanceof AuthorizationHeader);
-                    assertEquals("test-user", ((AuthorizationHeader) argument).getUserId());
+                    AuthorizationHeader header = (AuthorizationHeader) argument;
+                    assertEquals("test-user", header.getUserId());
+                    assertEquals(REQUEST_ID, header.getRequestId());
+                    assertEquals("2024-09-01T10:00:00", header.getRequestDate());
                 })
                 .verifyComplete();
+    }
+
+    @Test
+    void testResolveArgumentIgnoresHeaderNameCase() throws Exception {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/test")
+                .header("x-request-id", REQUEST_ID)
+                .header("x-request-date", "2024-09-01T10:00:00")
+                .header("x-user-id", "test-user")
+                .build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
 
-        verify(objectMapper, times(1)).convertValue(any(Map.class), eq(AuthorizationHeader.class));
+        Method method = TestController.class.getMethod("testMethod", AuthorizationHeader.class);
+        MethodParameter parameter = new MethodParameter(method, 0);
+
+        StepVerifier.create(resolver.resolveArgument(parameter, mock(BindingContext.class), exchange))
+                .assertNext(argument -> assertEquals("test-user", ((AuthorizationHeader) argument).getUserId()))
+                .verifyComplete();
     }
 
+    @Test
+    void testResolveArgumentMissingHeaders() throws Exception {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/test")
+                .header("X-User-Id", "test-user")
+                .build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
+
+        Method method = TestController.class.getMethod("testMethod", AuthorizationHeader.class);
+        MethodParameter parameter = new MethodParameter(method, 0);
+
+        StepVerifier.create(resolver.resolveArgument(parameter, mock(BindingContext.class), exchange))
+                .expectErrorMatches(throwable -> throwable instanceof ConstraintViolationException &&
+                        ((ConstraintViolationException) throwable).getConstraintViolations().size() == 2)
+                .verify();
+    }
+
+    @Test
+    void testResolveArgumentInvalidRequestId() throws Exception {
+        MockServerHttpRequest request = MockServerHttpRequest.get("/test")
+                .header("X-Request-Id", "not-a-uuid")
+                .header("X-Request-Date", "2024-09-01T10:00:00")
+                .header("X-User-Id", "test-user")
+                .build();
+        ServerWebExchange exchange = MockServerWebExchange.from(request);
 
+        Method method = TestController.class.getMethod("testMethod", AuthorizationHeader.class);
+        MethodParameter parameter = new MethodParameter(method, 0);
+
+        StepVerifier.create(resolver.resolveArgument(parameter, mock(BindingContext.class), exchange))
+                .expectError(ConstraintViolationException.class)
+                .verify();
+    }
 
 
     private static class TestController {
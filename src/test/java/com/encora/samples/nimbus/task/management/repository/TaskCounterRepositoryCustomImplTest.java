@@ -0,0 +1,87 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.mongodb.client.result.UpdateResult;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskCounterRepositoryCustomImplTest {
+
+  private ReactiveMongoTemplate mongoTemplate;
+
+  private TaskCounterRepositoryCustomImpl taskCounterRepository;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate = mock(ReactiveMongoTemplate.class);
+    when(mongoTemplate.getCollectionName(Task.class)).thenReturn("tasks");
+    when(mongoTemplate.getCollectionName(TaskCounters.class)).thenReturn("task_counters");
+    taskCounterRepository = new TaskCounterRepositoryCustomImpl(mongoTemplate);
+  }
+
+  @Test
+  void testReconcileCountsAgainWhenTheRevisionChangedMeanwhile() {
+    when(mongoTemplate.findOne(any(Query.class), eq(TaskCounters.class)))
+            .thenReturn(Mono.just(revision("r1")))
+            .thenReturn(Mono.just(revision("r2")));
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+            .thenReturn(Flux.just(new Document("_id", "PENDING").append("count", 2),
+                    new Document("_id", null).append("count", 1)));
+    when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(TaskCounters.class)))
+            .thenReturn(Mono.error(new DuplicateKeyException("E11000")))
+            .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+    StepVerifier.create(taskCounterRepository.reconcile("user1"))
+            .assertNext(counters -> {
+              assertEquals(3, counters.getTotal());
+              assertEquals(Map.of("PENDING", 2L), counters.getStatuses());
+            })
+            .verifyComplete();
+
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate, times(2)).upsert(queries.capture(), any(Update.class), eq(TaskCounters.class));
+    assertEquals("r1", queries.getAllValues().get(0).getQueryObject().get("revision"));
+    assertEquals("r2", queries.getAllValues().get(1).getQueryObject().get("revision"));
+    verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class));
+  }
+
+  @Test
+  void testReconcileAllKeepsRevisionsAndCountsTasksWithoutStatus() {
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class))).thenReturn(Flux.empty());
+
+    StepVerifier.create(taskCounterRepository.reconcileAll())
+            .verifyComplete();
+
+    ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+    verify(mongoTemplate).aggregate(aggregation.capture(), eq("tasks"), eq(Document.class));
+    List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+    assertEquals(List.of("$group", "$group", "$project", "$merge"),
+            pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+    Document statuses = pipeline.get(2).get("$project", Document.class).get("statuses", Document.class);
+    assertTrue(statuses.get("$arrayToObject", Document.class).containsKey("$filter"));
+    assertEquals("merge", pipeline.get(3).get("$merge", Document.class).getString("whenMatched"));
+  }
+
+  private static TaskCounters revision(String revision) {
+    TaskCounters counters = new TaskCounters();
+    counters.setRevision(revision);
+    return counters;
+  }
+}
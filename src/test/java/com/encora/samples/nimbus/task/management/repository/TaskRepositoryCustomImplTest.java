@@ -0,0 +1,270 @@
+package com.encora.samples.nimbus.task.management.repository;
+
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskRepositoryCustomImplTest {
+
+  private static final String ID = "65a1f0c2e4b0a1b2c3d40001";
+
+  private static final String OTHER_ID = "65a1f0c2e4b0a1b2c3d40002";
+
+  private ReactiveMongoTemplate mongoTemplate;
+
+  private MappingMongoConverter converter;
+
+  private TaskRepositoryCustomImpl taskRepository;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate = mock(ReactiveMongoTemplate.class);
+    MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+    when(mongoTemplate.getConverter()).thenReturn(converter);
+    when(mongoTemplate.getCollectionName(Task.class)).thenReturn("tasks");
+    taskRepository = new TaskRepositoryCustomImpl(mongoTemplate);
+  }
+
+  @Test
+  void testCursorComparesObjectIds() {
+    for (Sort.Direction direction : Sort.Direction.values()) {
+      List<Document> byId = criteriaAfter(cursor("id", direction, null));
+      assertEquals(1, byId.size());
+      assertEquals(new ObjectId(ID), idOperand(byId.get(0), direction));
+
+      List<Document> byDueDate = criteriaAfter(cursor("dueDate", direction, LocalDate.of(2030, 1, 1)));
+      Document sameValueNextId = byDueDate.stream()
+              .filter(criteria -> criteria.containsKey("id"))
+              .findFirst()
+              .orElseThrow();
+      assertEquals(new ObjectId(ID), idOperand(sameValueNextId, direction));
+    }
+  }
+
+  @Test
+  void testCursorQueryIsMappedToObjectIds() {
+    when(mongoTemplate.find(any(Query.class), eq(Task.class))).thenReturn(Flux.empty());
+    QueryMapper queryMapper = new QueryMapper(converter);
+    MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(Task.class);
+
+    StepVerifier.create(taskRepository.findAllByUserIdAfter("user1", null,
+                    cursor("id", Sort.Direction.ASC, null), 10, List.of()))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.findAllByUserIdAfter("user1", null,
+                    cursor("dueDate", Sort.Direction.DESC, LocalDate.of(2030, 1, 1)), 10, List.of()))
+            .verifyComplete();
+
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate, times(2)).find(queries.capture(), eq(Task.class));
+    Document byId = queryMapper.getMappedObject(queries.getAllValues().get(0).getQueryObject(), entity);
+    assertEquals(List.of(new Document("_id", new Document("$gt", new ObjectId(ID)))), byId.get("$or"));
+    Document byDueDate = queryMapper.getMappedObject(queries.getAllValues().get(1).getQueryObject(), entity);
+    Document sameDueDateNextId = byDueDate.getList("$or", Document.class).stream()
+            .filter(criteria -> criteria.containsKey("_id"))
+            .findFirst()
+            .orElseThrow();
+    assertEquals(new Document("$lt", new ObjectId(ID)), sameDueDateNextId.get("_id"));
+  }
+
+  @Test
+  void testStatsAggregateTheLiveTasksOfTheUserInASingleHintedFacet() {
+    when(mongoTemplate.aggregate(any(Aggregation.class), eq("tasks"), eq(Document.class)))
+            .thenReturn(Flux.just(new Document("statuses", List.of(
+                    new Document("_id", "PENDING").append("count", 2),
+                    new Document("_id", "COMPLETED").append("count", 1)))
+                    .append("dueDates", List.of(
+                            new Document("_id", "overdue").append("count", 1),
+                            new Document("_id", "none").append("count", 1)))));
+
+    StepVerifier.create(taskRepository.statsByUserId("user1", List.of("PENDING", "IN_PROGRESS"),
+                    LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 6)))
+            .assertNext(stats -> {
+              assertEquals(3, stats.getTotal());
+              assertEquals(2, stats.getStatuses().get("PENDING"));
+              assertEquals(1, stats.getOverdue());
+              assertEquals(1, stats.getWithoutDueDate());
+              assertEquals(0, stats.getDueToday());
+            })
+            .verifyComplete();
+
+    ArgumentCaptor<Aggregation> aggregation = ArgumentCaptor.forClass(Aggregation.class);
+    verify(mongoTemplate).aggregate(aggregation.capture(), eq("tasks"), eq(Document.class));
+    assertEquals("user_deleted_status_due_idx", aggregation.getValue().getOptions().getHintObject().orElseThrow());
+    List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+    assertEquals(List.of("$match", "$project", "$facet"),
+            pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+    assertEquals("user1", pipeline.get(0).get("$match", Document.class).get("userId"));
+    assertEquals(new Document("_id", 0).append("status", 1).append("dueDate", 1), pipeline.get(1).get("$project"));
+
+    Document facet = pipeline.get(2).get("$facet", Document.class);
+    assertEquals(List.of(new Document("$group", new Document("_id", "$status")
+            .append("count", new Document("$sum", 1)))), facet.get("statuses"));
+    List<Document> dueDates = facet.getList("dueDates", Document.class);
+    assertEquals(new Document("status", new Document("$in", List.of("PENDING", "IN_PROGRESS"))),
+            dueDates.get(0).get("$match"));
+    Document dueDateBucket = dueDates.get(1).get("$group", Document.class).get("_id", Document.class)
+            .get("$switch", Document.class);
+    List<Document> branches = dueDateBucket.getList("branches", Document.class);
+    assertEquals(List.of("none", "overdue", "today", "thisWeek"), branches.stream()
+            .map(branch -> branch.getString("then"))
+            .toList());
+    assertEquals(List.of("$dueDate", converter.convertToMongoType(LocalDate.of(2030, 1, 6))),
+            branches.get(3).get("case", Document.class).get("$lte"));
+    assertEquals("later", dueDateBucket.getString("default"));
+  }
+
+  @Test
+  void testBulkWriteTellsItsOwnDeletesFromTasksDeletedBeforeIt() {
+    MongoCollection<Document> collection = collection(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of()));
+    when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+            .thenReturn(Flux.just(task(ID, "PENDING"), task(OTHER_ID, "PENDING")))
+            // Only the task deleted by the bulkWrite bears its id, the other one was deleted before
+            .thenReturn(Flux.just(task(ID, null)));
+
+    StepVerifier.create(taskRepository.bulkWrite("user1", List.of(TaskWrite.delete(ID),
+                    TaskWrite.update(OTHER_ID, task(null, "COMPLETED"))), true))
+            .assertNext(results -> {
+              assertEquals(TaskWriteResult.Outcome.APPLIED, results.get(0).getOutcome());
+              assertEquals("PENDING", results.get(0).getPreviousStatus());
+              assertEquals(TaskWriteResult.Outcome.NOT_FOUND, results.get(1).getOutcome());
+              assertFalse(results.get(0).isUnconfirmed());
+            })
+            .verifyComplete();
+
+    List<UpdateOneModel<Document>> models = updateModels(collection);
+    ObjectId bulkWriteId = bulkWriteIdOf(models.get(0));
+    assertNotNull(bulkWriteId);
+    assertEquals(bulkWriteId, bulkWriteIdOf(models.get(1)));
+
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate, times(2)).find(queries.capture(), eq(Task.class));
+    assertEquals(List.of(new Document("deleted", false), new Document("bulkWriteId", bulkWriteId)),
+            queries.getAllValues().get(1).getQueryObject().get("$or"));
+  }
+
+  @Test
+  void testBulkWriteFollowsTheStatusOfTasksWrittenTwice() {
+    collection(BulkWriteResult.acknowledged(0, 3, 0, 3, List.of()));
+    when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+            .thenReturn(Flux.just(task(ID, "PENDING")));
+
+    StepVerifier.create(taskRepository.bulkWrite("user1", List.of(
+                    TaskWrite.update(ID, task(null, "IN_PROGRESS")),
+                    TaskWrite.update(ID, task(null, "COMPLETED")),
+                    TaskWrite.delete(ID),
+                    TaskWrite.update(ID, task(null, "PENDING"))), false))
+            .assertNext(results -> {
+              assertEquals(List.of("PENDING", "IN_PROGRESS", "COMPLETED"), results.subList(0, 3).stream()
+                      .map(TaskWriteResult::getPreviousStatus)
+                      .toList());
+              assertTrue(results.subList(0, 3).stream()
+                      .allMatch(result -> result.getOutcome() == TaskWriteResult.Outcome.APPLIED));
+              assertEquals(TaskWriteResult.Outcome.NOT_FOUND, results.get(3).getOutcome());
+              assertTrue(results.stream().noneMatch(TaskWriteResult::isUnconfirmed));
+            })
+            .verifyComplete();
+
+    verify(mongoTemplate, times(1)).find(any(Query.class), eq(Task.class));
+  }
+
+  @Test
+  void testBulkWriteLeavesUnexplainedMatchesUnconfirmed() {
+    // One task was deleted before the bulkWrite, the other one replaced and deleted after it, losing its id
+    collection(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of()));
+    when(mongoTemplate.find(any(Query.class), eq(Task.class)))
+            .thenReturn(Flux.just(task(ID, "PENDING"), task(OTHER_ID, "PENDING")))
+            .thenReturn(Flux.empty());
+
+    StepVerifier.create(taskRepository.bulkWrite("user1", List.of(TaskWrite.update(ID, task(null, "COMPLETED")),
+                    TaskWrite.update(OTHER_ID, task(null, "COMPLETED"))), true))
+            .assertNext(results -> {
+              assertTrue(results.stream()
+                      .allMatch(result -> result.getOutcome() == TaskWriteResult.Outcome.NOT_FOUND));
+              assertTrue(results.stream().allMatch(TaskWriteResult::isUnconfirmed));
+            })
+            .verifyComplete();
+  }
+
+  @SuppressWarnings("unchecked")
+  private MongoCollection<Document> collection(BulkWriteResult bulkWriteResult) {
+    MongoCollection<Document> collection = mock(MongoCollection.class);
+    when(mongoTemplate.getCollection("tasks")).thenReturn(Mono.just(collection));
+    when(collection.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(Mono.just(bulkWriteResult));
+    return collection;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<UpdateOneModel<Document>> updateModels(MongoCollection<Document> collection) {
+    ArgumentCaptor<List<WriteModel<Document>>> models = ArgumentCaptor.forClass(List.class);
+    verify(collection).bulkWrite(models.capture(), any(BulkWriteOptions.class));
+    return models.getValue().stream()
+            .map(model -> (UpdateOneModel<Document>) model)
+            .toList();
+  }
+
+  private static ObjectId bulkWriteIdOf(UpdateOneModel<Document> model) {
+    return ((Document) model.getUpdate()).get("$set", Document.class).getObjectId("bulkWriteId");
+  }
+
+  private static Task task(String id, String status) {
+    Task task = new Task();
+    task.setId(id);
+    task.setStatus(status);
+    return task;
+  }
+
+  private static TaskCursor cursor(String sortBy, Sort.Direction direction, LocalDate dueDate) {
+    Task task = new Task();
+    task.setId(ID);
+    task.setDueDate(dueDate);
+    return TaskCursor.of(task, sortBy, direction);
+  }
+
+  private static List<Document> criteriaAfter(TaskCursor cursor) {
+    return Arrays.stream(TaskRepositoryCustomImpl.after(cursor))
+            .map(Criteria::getCriteriaObject)
+            .toList();
+  }
+
+  private static Object idOperand(Document criteria, Sort.Direction direction) {
+    return criteria.get("id", Document.class).get(direction.isAscending() ? "$gt" : "$lt");
+  }
+
+}
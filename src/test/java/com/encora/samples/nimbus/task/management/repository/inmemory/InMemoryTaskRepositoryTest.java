@@ -0,0 +1,377 @@
+package com.encora.samples.nimbus.task.management.repository.inmemory;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskChange;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTaskRepositoryTest {
+
+  private TaskProperties taskProperties;
+
+  private InMemoryTaskStore store;
+
+  private InMemoryTaskRepository taskRepository;
+
+  private InMemoryTaskCounterRepository taskCounterRepository;
+
+  @BeforeEach
+  void setUp() {
+    taskProperties = new TaskProperties();
+    taskProperties.getInMemory().setStripes(4);
+    store = new InMemoryTaskStore(taskProperties);
+    taskRepository = new InMemoryTaskRepository(store);
+    taskCounterRepository = new InMemoryTaskCounterRepository(store);
+  }
+
+  @Test
+  void testInsertAndFindById() {
+    Task task = task(null, "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 1));
+
+    StepVerifier.create(taskRepository.insert(task))
+            .assertNext(inserted -> assertNotNull(inserted.getId()))
+            .verifyComplete();
+
+    task.setTitle("Changed outside");
+    StepVerifier.create(taskRepository.findById(task.getId()))
+            .assertNext(found -> assertEquals("Task 1", found.getTitle()))
+            .verifyComplete();
+  }
+
+  @Test
+  void testInsertDuplicatedTitle() {
+    insert("1", "user1", "Task", "PENDING", LocalDate.of(2030, 1, 1));
+
+    StepVerifier.create(taskRepository.insert(task(null, "user1", "Task", "PENDING", LocalDate.of(2030, 1, 2))))
+            .verifyError(DuplicateKeyException.class);
+    StepVerifier.create(taskRepository.insert(task(null, "user2", "Task", "PENDING", LocalDate.of(2030, 1, 2))))
+            .expectNextCount(1)
+            .verifyComplete();
+  }
+
+  @Test
+  void testFindPagesSortedByDueDate() {
+    insert("a", "user1", "A", "PENDING", LocalDate.of(2030, 1, 1));
+    insert("b", "user1", "B", "COMPLETED", LocalDate.of(2030, 1, 3));
+    insert("c", "user1", "C", "PENDING", LocalDate.of(2030, 1, 2));
+    insert("d", "user1", "D", "PENDING", null);
+    insert("e", "user2", "E", "PENDING", LocalDate.of(2030, 1, 5));
+
+    StepVerifier.create(taskRepository.findAllByUserId("user1", null,
+                    PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "dueDate", "id")), List.of()).map(Task::getId).collectList())
+            .expectNext(List.of("b", "c", "a"))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.findAllByUserId("user1", null,
+                    PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "dueDate", "id")), List.of()).map(Task::getId).collectList())
+            .expectNext(List.of("d"))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.findAllByUserId("user1", "PENDING",
+                    PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "dueDate", "id")), List.of()).map(Task::getId).collectList())
+            .expectNext(List.of("d", "a", "c"))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.streamAllByUserIdAndDeleted("user1", false,
+                    Sort.by(Sort.Direction.DESC, "title", "id")).map(Task::getId).collectList())
+            .expectNext(List.of("d", "c", "b", "a"))
+            .verifyComplete();
+  }
+
+  @Test
+  void testFindAllByUserIdAfter() {
+    insert("a", "user1", "A", "PENDING", LocalDate.of(2030, 1, 1));
+    insert("b", "user1", "B", "PENDING", LocalDate.of(2030, 1, 3));
+    insert("c", "user1", "C", "PENDING", LocalDate.of(2030, 1, 3));
+    insert("d", "user1", "D", "PENDING", LocalDate.of(2030, 1, 2));
+
+    TaskCursor byDueDate = TaskCursor.of(store.findById("c"), "dueDate", Sort.Direction.DESC);
+    StepVerifier.create(taskRepository.findAllByUserIdAfter("user1", null, byDueDate, 2, List.of()).map(Task::getId).collectList())
+            .expectNext(List.of("b", "d"))
+            .verifyComplete();
+
+    TaskCursor byTitle = TaskCursor.of(store.findById("b"), "title", Sort.Direction.ASC);
+    StepVerifier.create(taskRepository.findAllByUserIdAfter("user1", null, byTitle, 10, List.of()).map(Task::getId).collectList())
+            .expectNext(List.of("c", "d"))
+            .verifyComplete();
+  }
+
+  @Test
+  void testFindPageByUserId() {
+    insert("1", "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 3));
+    insert("2", "user1", "Task 2", "COMPLETED", LocalDate.of(2030, 1, 2));
+    insert("3", "user1", "Task 3", "PENDING", LocalDate.of(2030, 1, 1));
+    insert("4", "user2", "Task 4", "PENDING", LocalDate.of(2030, 1, 1));
+    Sort byDueDate = Sort.by(Sort.Direction.DESC, "dueDate", "id");
+
+    StepVerifier.create(taskRepository.findPageByUserId("user1", null, PageRequest.of(0, 2, byDueDate), List.of()))
+            .assertNext(page -> {
+              assertEquals(List.of("1", "2"), page.getTasks().stream().map(Task::getId).toList());
+              assertEquals(3, page.getTotal());
+            })
+            .verifyComplete();
+
+    TaskCursor cursor = TaskCursor.of(store.find("user1", null, false, byDueDate, 0, 1).get(0), "dueDate",
+            Sort.Direction.DESC);
+    StepVerifier.create(taskRepository.findPageByUserIdAfter("user1", "PENDING", cursor, 10, List.of()))
+            .assertNext(page -> {
+              assertEquals(List.of("3"), page.getTasks().stream().map(Task::getId).toList());
+              assertEquals(2, page.getTotal());
+            })
+            .verifyComplete();
+  }
+
+  @Test
+  void testSearchByUserId() {
+    insert("a", "user1", "Review the budget", "PENDING", null);
+    insert("b", "user1", "Budget meeting", "COMPLETED", null);
+    insert("c", "user1", "Call the bank", "PENDING", null);
+    insert("d", "user2", "Budget", "PENDING", null);
+    store.update("a", "user1", description("Budget of the budget team"), null);
+
+    StepVerifier.create(taskRepository.searchByUserId("user1", null, "budget review", PageRequest.of(0, 10), List.of())
+                    .map(Task::getId).collectList())
+            .expectNext(List.of("a", "b"))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.searchByUserId("user1", "PENDING", "BUDGET", PageRequest.of(0, 10), List.of())
+                    .map(Task::getId).collectList())
+            .expectNext(List.of("a"))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.searchByUserId("user1", null, "budg", PageRequest.of(0, 10), List.of()))
+            .verifyComplete();
+  }
+
+  @Test
+  void testStatsByUserId() {
+    LocalDate today = LocalDate.of(2030, 1, 2);
+    LocalDate endOfWeek = LocalDate.of(2030, 1, 6);
+    insert("1", "user1", "Late", "PENDING", LocalDate.of(2030, 1, 1));
+    insert("2", "user1", "Today", "IN_PROGRESS", today);
+    insert("3", "user1", "Sunday", "PENDING", endOfWeek);
+    insert("4", "user1", "Next week", "PENDING", LocalDate.of(2030, 1, 7));
+    insert("5", "user1", "Someday", "PENDING", null);
+    insert("6", "user1", "Done late", "COMPLETED", LocalDate.of(2030, 1, 1));
+    insert("7", "user1", "Deleted", "PENDING", today);
+    insert("8", "user2", "Other", "PENDING", today);
+    taskRepository.softDeleteById("7", null).block();
+
+    StepVerifier.create(taskRepository.statsByUserId("user1", List.of("PENDING", "IN_PROGRESS"), today, endOfWeek))
+            .assertNext(stats -> {
+              assertEquals(6, stats.getTotal());
+              assertEquals(Map.of("PENDING", 4L, "IN_PROGRESS", 1L, "COMPLETED", 1L), stats.getStatuses());
+              assertEquals(1, stats.getOverdue());
+              assertEquals(1, stats.getDueToday());
+              assertEquals(1, stats.getDueThisWeek());
+              assertEquals(1, stats.getDueLater());
+              assertEquals(1, stats.getWithoutDueDate());
+            })
+            .verifyComplete();
+  }
+
+  @Test
+  void testStatsByUserIdWithTasksWithoutStatus() {
+    LocalDate today = LocalDate.of(2030, 1, 2);
+    insert("1", "user1", "No status", null, today);
+    insert("2", "user1", "Pending", "PENDING", today);
+
+    StepVerifier.create(taskRepository.statsByUserId("user1", List.of("PENDING", "IN_PROGRESS"), today,
+                    LocalDate.of(2030, 1, 6)))
+            .assertNext(stats -> {
+              assertEquals(2, stats.getTotal());
+              assertEquals(Map.of("PENDING", 1L), stats.getStatuses());
+              assertEquals(1, stats.getDueToday());
+            })
+            .verifyComplete();
+  }
+
+  @Test
+  void testUpdateFieldsAndSoftDelete() {
+    insert("1", "user1", "Task", "PENDING", LocalDate.of(2030, 1, 1));
+    Task changes = new Task();
+    changes.setStatus("COMPLETED");
+
+    StepVerifier.create(taskRepository.updateFieldsById("1", changes, null))
+            .assertNext(update -> {
+              assertEquals("PENDING", update.getPrevious().getStatus());
+              assertEquals("COMPLETED", update.getCurrent().getStatus());
+              assertEquals("Task", update.getCurrent().getTitle());
+            })
+            .verifyComplete();
+    StepVerifier.create(taskRepository.softDeleteById("1", null))
+            .assertNext(previous -> assertEquals("COMPLETED", previous.getStatus()))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.updateFieldsById("1", changes, null))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.streamAllByUserIdAndDeleted("user1", true, Sort.unsorted()).count())
+            .expectNext(1L)
+            .verifyComplete();
+  }
+
+  @Test
+  void testConditionalWritesFollowTheVersion() {
+    insert("1", "user1", "Task", "PENDING", LocalDate.of(2030, 1, 1));
+    String revision = store.counters("user1").getRevision();
+    Task changes = new Task();
+    changes.setStatus("COMPLETED");
+
+    StepVerifier.create(taskRepository.updateFieldsById("1", changes, List.of(1L)))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.updateFieldsById("1", changes, List.of(0L)))
+            .assertNext(update -> assertEquals(1L, update.getCurrent().getVersion()))
+            .verifyComplete();
+    assertNotEquals(revision, store.counters("user1").getRevision());
+
+    Task replacement = task("1", "user1", "Renamed", "PENDING", null);
+    StepVerifier.create(taskRepository.replaceById(replacement, 0L))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.replaceById(replacement, 1L))
+            .assertNext(replaced -> assertEquals(2L, replaced.getVersion()))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.softDeleteById("1", List.of(1L)))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.softDeleteById("1", List.of(2L)))
+            .assertNext(previous -> assertEquals("Renamed", previous.getTitle()))
+            .verifyComplete();
+  }
+
+  @Test
+  void testCountersFollowTheTasks() {
+    insert("1", "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 1));
+    insert("2", "user1", "Task 2", "PENDING", LocalDate.of(2030, 1, 1));
+    insert("3", "user1", "Task 3", "COMPLETED", LocalDate.of(2030, 1, 1));
+
+    StepVerifier.create(taskRepository.softDeleteAllByUserId("user1", null, "PENDING"))
+            .expectNext(2L)
+            .verifyComplete();
+    StepVerifier.create(taskCounterRepository.findById("user1"))
+            .assertNext(counters -> {
+              assertEquals(1L, counters.getTotal());
+              assertEquals(Map.of("COMPLETED", 1L), counters.getStatuses());
+            })
+            .verifyComplete();
+  }
+
+  @Test
+  void testOrderedBulkWriteStopsAtFirstFailure() {
+    insert("1", "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 1));
+    Task changes = new Task();
+    changes.setStatus("COMPLETED");
+
+    List<TaskWrite> writes = List.of(
+            TaskWrite.insert(task(null, "user1", "Task 1", "PENDING", null)),
+            TaskWrite.update("missing", changes),
+            TaskWrite.update("1", changes));
+
+    StepVerifier.create(taskRepository.bulkWrite("user1", writes, true))
+            .assertNext(results -> assertEquals(List.of(TaskWriteResult.Outcome.DUPLICATED,
+                    TaskWriteResult.Outcome.NOT_FOUND, TaskWriteResult.Outcome.SKIPPED),
+                    results.stream().map(TaskWriteResult::getOutcome).toList()))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.bulkWrite("user1", writes.subList(1, 3), false))
+            .assertNext(results -> assertEquals("PENDING", results.get(1).getPreviousStatus()))
+            .verifyComplete();
+  }
+
+  @Test
+  void testWatchChangesResumesAfterToken() {
+    insert("1", "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 1));
+    String token = taskRepository.watchChanges(null, "")
+            .doOnSubscribe(subscription -> insert("2", "user1", "Task 2", "PENDING", null))
+            .blockFirst(Duration.ofSeconds(5))
+            .getResumeToken();
+    insert("3", "user2", "Task 3", "PENDING", null);
+    insert("4", "user1", "Task 4", "PENDING", null);
+
+    StepVerifier.create(taskRepository.watchChanges("user1", token).map(TaskChange::getTask).map(Task::getId))
+            .expectNext("4")
+            .thenCancel()
+            .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void testFindAndMarkOverdue() {
+    LocalDate today = LocalDate.of(2030, 1, 10);
+    insert("1", "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 5));
+    insert("2", "user2", "Task 2", "IN_PROGRESS", LocalDate.of(2030, 1, 1));
+    insert("3", "user1", "Task 3", "COMPLETED", LocalDate.of(2030, 1, 1));
+    insert("4", "user1", "Task 4", "PENDING", today);
+    List<String> statuses = List.of("PENDING", "IN_PROGRESS");
+
+    StepVerifier.create(taskRepository.findOverdue(statuses, today, 10).map(Task::getId).collectList())
+            .expectNext(List.of("2", "1"))
+            .verifyComplete();
+    StepVerifier.create(taskRepository.markOverdue(List.of("1", "2", "3"), statuses, today, "EXPIRED"))
+            .expectNext(2L)
+            .verifyComplete();
+    assertEquals(1L, store.counters("user1").count("EXPIRED"));
+    assertEquals("COMPLETED", store.findById("3").getStatus());
+  }
+
+  @Test
+  void testFindOverdueKeepsTheLongestOverdueOnly() {
+    LocalDate today = LocalDate.of(2030, 1, 10);
+    insert("1", "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 5));
+    insert("2", "user1", "Task 2", "PENDING", LocalDate.of(2030, 1, 2));
+    insert("3", "user1", "Task 3", "IN_PROGRESS", LocalDate.of(2030, 1, 7));
+    insert("4", "user2", "Task 4", "PENDING", LocalDate.of(2030, 1, 3));
+    insert("5", "user2", "Task 5", "IN_PROGRESS", LocalDate.of(2030, 1, 1));
+    insert("6", "user3", "Task 6", "PENDING", LocalDate.of(2030, 1, 9));
+
+    StepVerifier.create(taskRepository.findOverdue(List.of("PENDING", "IN_PROGRESS"), today, 3)
+                    .map(Task::getId).collectList())
+            .expectNext(List.of("5", "2", "4"))
+            .verifyComplete();
+  }
+
+  @Test
+  void testSnapshotAndRestore(@TempDir Path directory) {
+    taskProperties.getInMemory().setSnapshotFile(directory.resolve("tasks.json"));
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    insert("1", "user1", "Task 1", "PENDING", LocalDate.of(2030, 1, 1));
+    new InMemoryTaskSnapshots(store, objectMapper, null, taskProperties).snapshot();
+
+    InMemoryTaskStore restored = new InMemoryTaskStore(taskProperties);
+    new InMemoryTaskSnapshots(restored, objectMapper, null, taskProperties).restore();
+
+    assertEquals(LocalDate.of(2030, 1, 1), restored.findById("1").getDueDate());
+    assertEquals(1L, restored.counters("user1").count("PENDING"));
+  }
+
+  private void insert(String id, String userId, String title, String status, LocalDate dueDate) {
+    store.insert(task(id, userId, title, status, dueDate));
+  }
+
+  private static Task description(String description) {
+    Task task = new Task();
+    task.setDescription(description);
+    return task;
+  }
+
+  private static Task task(String id, String userId, String title, String status, LocalDate dueDate) {
+    Task task = new Task();
+    task.setId(id);
+    task.setUserId(userId);
+    task.setTitle(title);
+    task.setStatus(status);
+    task.setDueDate(dueDate);
+    task.setDeleted(false);
+    return task;
+  }
+}
@@ -0,0 +1,118 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCacheTest {
+
+  private MeterRegistry meterRegistry;
+
+  private AtomicInteger loads;
+
+  private Function<String, Mono<TaskResponse>> loader;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    loads = new AtomicInteger();
+    loader = id -> Mono.fromSupplier(() -> {
+      loads.incrementAndGet();
+      return taskResponse(id, "user1", "PENDING");
+    });
+  }
+
+  @Test
+  void testGetLoadsOnce() {
+    TaskCache taskCache = new TaskCache(new TaskProperties(), meterRegistry);
+
+    StepVerifier.create(taskCache.get("1", loader).then(taskCache.get("1", loader)))
+            .assertNext(task -> assertEquals("1", task.getId()))
+            .verifyComplete();
+
+    assertEquals(1, loads.get());
+    assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tasks").tag("result", "hit")
+            .functionCounter().count());
+  }
+
+  @Test
+  void testMissingTaskIsNotCached() {
+    TaskCache taskCache = new TaskCache(new TaskProperties(), meterRegistry);
+    Function<String, Mono<TaskResponse>> emptyLoader = id -> Mono.fromRunnable(loads::incrementAndGet);
+
+    StepVerifier.create(taskCache.get("1", emptyLoader).then(taskCache.get("1", emptyLoader)))
+            .verifyComplete();
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void testInvalidateAndRefresh() {
+    TaskCache taskCache = new TaskCache(new TaskProperties(), meterRegistry);
+    taskCache.get("1", loader).block();
+    taskCache.get("2", loader).block();
+
+    taskCache.refresh(taskResponse("1", "user1", "COMPLETED"));
+    StepVerifier.create(taskCache.get("1", loader))
+            .assertNext(task -> assertEquals("COMPLETED", task.getStatus()))
+            .verifyComplete();
+
+    taskCache.invalidateAll("user1", "PENDING");
+    taskCache.invalidateAll(List.of("1"));
+    taskCache.get("1", loader).block();
+    taskCache.get("2", loader).block();
+
+    assertEquals(4, loads.get());
+  }
+
+  @Test
+  void testRefreshDoesNotWaitForLoadInFlight() {
+    TaskCache taskCache = new TaskCache(new TaskProperties(), meterRegistry);
+    Sinks.One<TaskResponse> pending = Sinks.one();
+    taskCache.get("1", id -> pending.asMono()).subscribe();
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5),
+            () -> taskCache.refresh(taskResponse("1", "user1", "COMPLETED")));
+    pending.tryEmitValue(taskResponse("1", "user1", "PENDING"));
+
+    StepVerifier.create(taskCache.get("1", loader))
+            .assertNext(task -> assertEquals("COMPLETED", task.getStatus()))
+            .verifyComplete();
+    assertEquals(0, loads.get());
+  }
+
+  @Test
+  void testDisabledCacheAlwaysLoads() {
+    TaskProperties taskProperties = new TaskProperties();
+    taskProperties.getCache().setEnabled(false);
+    TaskCache taskCache = new TaskCache(taskProperties, meterRegistry);
+
+    taskCache.get("1", loader).block();
+    taskCache.get("1", loader).block();
+    taskCache.invalidate("1");
+
+    assertEquals(2, loads.get());
+    assertNull(meterRegistry.find("cache.gets").meter());
+  }
+
+  private static TaskResponse taskResponse(String id, String userId, String status) {
+    TaskResponse task = new TaskResponse();
+    task.setId(id);
+    task.setUserId(userId);
+    task.setStatus(status);
+    return task;
+  }
+
+}
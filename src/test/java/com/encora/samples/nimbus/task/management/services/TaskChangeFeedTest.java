@@ -0,0 +1,108 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.mapper.TaskMapper;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskChange;
+import com.encora.samples.nimbus.task.management.repository.TaskRepository;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TaskChangeFeedTest {
+
+  private TaskChangeFeed taskChangeFeed;
+
+  @Mock
+  private TaskRepository taskRepository;
+
+  @Mock
+  private TaskMapper taskMapper;
+
+  private Sinks.Many<TaskChange> changes;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    TaskProperties taskProperties = new TaskProperties();
+    taskProperties.getChanges().setHeartbeat(Duration.ofHours(1));
+    changes = Sinks.many().multicast().directBestEffort();
+    when(taskRepository.watchChanges(isNull(), any())).thenReturn(changes.asFlux());
+    when(taskMapper.withDetailsOf(any(Task.class))).thenAnswer(invocation -> {
+      TaskResponse response = new TaskResponse();
+      response.setId(((Task) invocation.getArgument(0)).getId());
+      return response;
+    });
+    taskChangeFeed = new TaskChangeFeed(taskRepository, taskMapper, taskProperties);
+  }
+
+  @Test
+  void testSubscribeSharesOneStreamAndFiltersByUser() {
+    Flux<ServerSentEvent<TaskResponse>> user1 = taskChangeFeed.subscribe("user1", null);
+    Flux<ServerSentEvent<TaskResponse>> user2 = taskChangeFeed.subscribe("user2", null);
+
+    StepVerifier.create(Flux.merge(user1, user2).take(2))
+            .then(() -> {
+              changes.tryEmitNext(change("token-1", "1", "user1"));
+              changes.tryEmitNext(change("token-2", "2", "user3"));
+              changes.tryEmitNext(change("token-3", "3", "user2"));
+            })
+            .assertNext(event -> {
+              assertEquals("token-1", event.id());
+              assertEquals("update", event.event());
+              assertEquals("1", event.data().getId());
+            })
+            .assertNext(event -> assertEquals("3", event.data().getId()))
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).watchChanges(isNull(), any());
+  }
+
+  @Test
+  void testSubscribeWithLastEventIdReplaysMissedChangesThenSharesStream() {
+    Disposable other = taskChangeFeed.subscribe("user2", null).subscribe();
+    changes.tryEmitNext(change("token-1", "1", "user1"));
+    changes.tryEmitNext(change("token-2", "2", "user1"));
+    changes.tryEmitNext(change("token-3", "3", "user2"));
+
+    StepVerifier.create(taskChangeFeed.subscribe("user1", "token-1").take(2))
+            .assertNext(event -> assertEquals("token-2", event.id()))
+            .then(() -> changes.tryEmitNext(change("token-4", "4", "user1")))
+            .assertNext(event -> assertEquals("token-4", event.id()))
+            .verifyComplete();
+
+    other.dispose();
+    verify(taskRepository, times(1)).watchChanges(isNull(), any());
+    verify(taskRepository, never()).watchChanges(eq("user1"), any());
+  }
+
+  @Test
+  void testSubscribeWithUnknownLastEventIdFollowsSharedStream() {
+    StepVerifier.create(taskChangeFeed.subscribe("user1", "expired-token").take(1))
+            .then(() -> changes.tryEmitNext(change("token-5", "5", "user1")))
+            .assertNext(event -> assertEquals("token-5", event.id()))
+            .verifyComplete();
+
+    verify(taskRepository, never()).watchChanges(eq("user1"), any());
+  }
+
+  private static TaskChange change(String token, String id, String userId) {
+    Task task = new Task();
+    task.setId(id);
+    task.setUserId(userId);
+    return new TaskChange("update", token, task);
+  }
+}
@@ -0,0 +1,45 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.repository.TaskCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.*;
+
+class TaskCountersReconcilerTest {
+
+  @InjectMocks
+  private TaskCountersReconciler taskCountersReconciler;
+
+  @Mock
+  private TaskCounterRepository taskCounterRepository;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void testReconcile() {
+    when(taskCounterRepository.reconcileAll()).thenReturn(Mono.empty());
+
+    StepVerifier.create(taskCountersReconciler.reconcile())
+            .verifyComplete();
+
+    verify(taskCounterRepository, times(1)).reconcileAll();
+  }
+
+  @Test
+  void testReconcileFailureDoesNotPropagate() {
+    when(taskCounterRepository.reconcileAll()).thenReturn(Mono.error(new IllegalStateException("timeout")));
+
+    StepVerifier.create(taskCountersReconciler.reconcile())
+            .verifyComplete();
+  }
+
+}
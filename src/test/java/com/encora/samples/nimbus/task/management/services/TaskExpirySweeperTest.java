@@ -0,0 +1,180 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCountersDelta;
+import com.encora.samples.nimbus.task.management.repository.SchedulerLockRepository;
+import com.encora.samples.nimbus.task.management.repository.TaskCounterRepository;
+import com.encora.samples.nimbus.task.management.repository.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskExpirySweeperTest {
+
+  @Mock
+  private TaskRepository taskRepository;
+
+  @Mock
+  private TaskCounterRepository taskCounterRepository;
+
+  @Mock
+  private SchedulerLockRepository schedulerLockRepository;
+
+  private TaskCache taskCache;
+
+  private TaskReadCoalescer taskReadCoalescer;
+
+  private MeterRegistry meterRegistry;
+
+  private TaskExpirySweeper taskExpirySweeper;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    TaskProperties taskProperties = new TaskProperties();
+    taskProperties.getExpiry().setBatchSize(2);
+    meterRegistry = new SimpleMeterRegistry();
+    taskCache = spy(new TaskCache(taskProperties, meterRegistry));
+    taskReadCoalescer = spy(new TaskReadCoalescer(taskProperties, meterRegistry));
+    taskExpirySweeper = new TaskExpirySweeper(taskRepository, taskCounterRepository, schedulerLockRepository,
+            taskCache, taskReadCoalescer, taskProperties, meterRegistry);
+
+    when(schedulerLockRepository.acquire(eq(TaskExpirySweeper.LOCK), anyString(), any(Duration.class)))
+            .thenReturn(Mono.just(true));
+    when(schedulerLockRepository.release(eq(TaskExpirySweeper.LOCK), anyString())).thenReturn(Mono.empty());
+    when(taskCounterRepository.increment(anyString(), any(TaskCountersDelta.class))).thenReturn(Mono.empty());
+  }
+
+  @Test
+  void testSweepExpiresOverdueTasksInBatches() {
+    when(taskRepository.findOverdue(anyList(), any(LocalDate.class), eq(2)))
+            .thenReturn(Flux.just(task("1", "user1", "PENDING"), task("2", "user1", "IN_PROGRESS")))
+            .thenReturn(Flux.just(task("3", "user2", "PENDING")));
+    when(taskRepository.markOverdue(anyList(), anyList(), any(LocalDate.class), eq("EXPIRED")))
+            .thenAnswer(invocation -> Mono.just((long) invocation.<List<String>>getArgument(0).size()));
+
+    StepVerifier.create(taskExpirySweeper.sweep())
+            .verifyComplete();
+
+    verify(taskRepository, times(2)).findOverdue(anyList(), any(LocalDate.class), eq(2));
+    verify(schedulerLockRepository, times(2)).acquire(eq(TaskExpirySweeper.LOCK), anyString(), any(Duration.class));
+    verify(taskCache).invalidateAll(List.of("1", "2"));
+    verify(taskCache).invalidateAll(List.of("3"));
+    verify(taskRepository, times(2)).markOverdue(anyList(), eq(List.of("PENDING")), any(LocalDate.class), eq("EXPIRED"));
+    verify(taskRepository).markOverdue(eq(List.of("2")), eq(List.of("IN_PROGRESS")), any(LocalDate.class),
+            eq("EXPIRED"));
+    verify(taskReadCoalescer, times(2)).forgetTasks(any());
+    verify(taskReadCoalescer).forget("user1");
+    verify(taskReadCoalescer).forget("user2");
+    ArgumentCaptor<TaskCountersDelta> delta = ArgumentCaptor.forClass(TaskCountersDelta.class);
+    verify(taskCounterRepository).increment(eq("user1"), delta.capture());
+    assertEquals(Map.of("PENDING", -1L, "IN_PROGRESS", -1L, "EXPIRED", 2L), delta.getValue().getStatuses());
+    verify(schedulerLockRepository).release(eq(TaskExpirySweeper.LOCK), anyString());
+    assertEquals(3.0, meterRegistry.get("tasks.expiry.expired").counter().count());
+    assertEquals(2, meterRegistry.get("tasks.expiry.batch.size").summary().count());
+  }
+
+  @Test
+  void testSweepReconcilesCountersWhenTasksChanged() {
+    when(taskRepository.findOverdue(anyList(), any(LocalDate.class), eq(2)))
+            .thenReturn(Flux.just(task("1", "user1", "PENDING")));
+    when(taskRepository.markOverdue(anyList(), anyList(), any(LocalDate.class), eq("EXPIRED")))
+            .thenReturn(Mono.just(0L));
+    when(taskCounterRepository.reconcile("user1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(taskExpirySweeper.sweep())
+            .verifyComplete();
+
+    verify(taskCounterRepository).reconcile("user1");
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+    verify(taskReadCoalescer).forget("user1");
+  }
+
+  @Test
+  void testSweepOnlyExpiresTasksStillInTheStatusTheyWereReadWith() {
+    when(taskRepository.findOverdue(anyList(), any(LocalDate.class), eq(2)))
+            .thenReturn(Flux.just(task("1", "user1", "PENDING"), task("2", "user1", "IN_PROGRESS")))
+            .thenReturn(Flux.empty());
+    // Task 1 moved to in progress after it was read
+    when(taskRepository.markOverdue(eq(List.of("1")), eq(List.of("PENDING")), any(LocalDate.class), eq("EXPIRED")))
+            .thenReturn(Mono.just(0L));
+    when(taskRepository.markOverdue(eq(List.of("2")), eq(List.of("IN_PROGRESS")), any(LocalDate.class),
+            eq("EXPIRED")))
+            .thenReturn(Mono.just(1L));
+    when(taskCounterRepository.reconcile("user1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(taskExpirySweeper.sweep())
+            .verifyComplete();
+
+    verify(taskCounterRepository).reconcile("user1");
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+    assertEquals(1.0, meterRegistry.get("tasks.expiry.expired").counter().count());
+  }
+
+  @Test
+  void testSweepStopsWhenLeaseCannotBeExtended() {
+    when(schedulerLockRepository.acquire(eq(TaskExpirySweeper.LOCK), anyString(), any(Duration.class)))
+            .thenReturn(Mono.just(true))
+            .thenReturn(Mono.just(false));
+    when(taskRepository.findOverdue(anyList(), any(LocalDate.class), eq(2)))
+            .thenReturn(Flux.just(task("1", "user1", "PENDING"), task("2", "user1", "IN_PROGRESS")));
+    when(taskRepository.markOverdue(anyList(), anyList(), any(LocalDate.class), eq("EXPIRED")))
+            .thenAnswer(invocation -> Mono.just((long) invocation.<List<String>>getArgument(0).size()));
+
+    StepVerifier.create(taskExpirySweeper.sweep())
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).findOverdue(anyList(), any(LocalDate.class), eq(2));
+    verify(schedulerLockRepository, times(2)).acquire(eq(TaskExpirySweeper.LOCK), anyString(), any(Duration.class));
+    assertEquals(2.0, meterRegistry.get("tasks.expiry.expired").counter().count());
+  }
+
+  @Test
+  void testSweepSkippedWhenLockHeldElsewhere() {
+    when(schedulerLockRepository.acquire(eq(TaskExpirySweeper.LOCK), anyString(), any(Duration.class)))
+            .thenReturn(Mono.just(false));
+
+    StepVerifier.create(taskExpirySweeper.sweep())
+            .verifyComplete();
+
+    verifyNoInteractions(taskRepository);
+    verify(schedulerLockRepository, never()).release(anyString(), anyString());
+  }
+
+  @Test
+  void testSweepFailureReleasesLock() {
+    when(taskRepository.findOverdue(anyList(), any(LocalDate.class), eq(2)))
+            .thenReturn(Flux.error(new IllegalStateException("timeout")));
+
+    StepVerifier.create(taskExpirySweeper.sweep())
+            .verifyComplete();
+
+    verify(schedulerLockRepository).release(eq(TaskExpirySweeper.LOCK), anyString());
+  }
+
+  private static Task task(String id, String userId, String status) {
+    Task task = new Task();
+    task.setId(id);
+    task.setUserId(userId);
+    task.setStatus(status);
+    task.setDueDate(LocalDate.now().minusDays(2));
+    return task;
+  }
+
+}
@@ -0,0 +1,172 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskReadCoalescerTest {
+
+  private MeterRegistry meterRegistry;
+
+  private TaskProperties taskProperties;
+
+  private AtomicInteger reads;
+
+  private Sinks.One<TaskResponse> database;
+
+  private Supplier<Mono<TaskResponse>> read;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    taskProperties = new TaskProperties();
+    reads = new AtomicInteger();
+    database = Sinks.one();
+    read = () -> {
+      reads.incrementAndGet();
+      return database.asMono();
+    };
+  }
+
+  @Test
+  void testConcurrentReadsShareOneRead() {
+    TaskReadCoalescer taskReadCoalescer = new TaskReadCoalescer(taskProperties, meterRegistry);
+    Mono<TaskResponse> first = taskReadCoalescer.task("1", read);
+    Mono<TaskResponse> second = taskReadCoalescer.task("1", read);
+
+    StepVerifier.create(Mono.zip(first, second, taskReadCoalescer.task("2", () -> Mono.just(taskResponse("2")))))
+            .then(() -> database.tryEmitValue(taskResponse("1")))
+            .assertNext(tasks -> {
+              assertEquals("1", tasks.getT1().getId());
+              assertSame(tasks.getT1(), tasks.getT2());
+              assertEquals("2", tasks.getT3().getId());
+            })
+            .verifyComplete();
+
+    assertEquals(1, reads.get());
+    assertEquals(1.0, meterRegistry.get("tasks.reads").tag("read", "task").tag("result", "collapsed")
+            .functionCounter().count());
+    assertEquals(2.0, meterRegistry.get("tasks.reads").tag("read", "task").tag("result", "executed")
+            .functionCounter().count());
+    assertEquals(0.0, meterRegistry.get("tasks.reads.in.flight").tag("read", "task").gauge().value());
+  }
+
+  @Test
+  void testCompletedReadsAreNotReused() {
+    TaskReadCoalescer taskReadCoalescer = new TaskReadCoalescer(taskProperties, meterRegistry);
+    AtomicInteger lists = new AtomicInteger();
+    Supplier<Flux<Task>> list = () -> Flux.defer(() -> {
+      lists.incrementAndGet();
+      return Flux.just(task("1"), task("2"));
+    });
+
+    StepVerifier.create(taskReadCoalescer.list("user1", "all", list).map(Task::getId).collectList()
+                    .concatWith(taskReadCoalescer.list("user1", "all", list).map(Task::getId).collectList()))
+            .expectNext(List.of("1", "2"), List.of("1", "2"))
+            .verifyComplete();
+
+    assertEquals(2, lists.get());
+  }
+
+  @Test
+  void testSharedListIsStreamedAndReplayedToLateCallers() {
+    TaskReadCoalescer taskReadCoalescer = new TaskReadCoalescer(taskProperties, meterRegistry);
+    Sinks.Many<Task> tasks = Sinks.many().unicast().onBackpressureBuffer();
+    AtomicInteger lists = new AtomicInteger();
+    Supplier<Flux<Task>> list = () -> {
+      lists.incrementAndGet();
+      return tasks.asFlux();
+    };
+
+    StepVerifier.create(taskReadCoalescer.list("user1", "all", list).map(Task::getId))
+            .then(() -> tasks.tryEmitNext(task("1")))
+            .expectNext("1")
+            .then(() -> StepVerifier.create(taskReadCoalescer.list("user1", "all", list).map(Task::getId))
+                    .expectNext("1")
+                    .then(() -> {
+                      tasks.tryEmitNext(task("2"));
+                      tasks.tryEmitComplete();
+                    })
+                    .expectNext("2")
+                    .verifyComplete())
+            .expectNext("2")
+            .verifyComplete();
+
+    assertEquals(1, lists.get());
+  }
+
+  @Test
+  void testForgottenReadsAreNotShared() {
+    TaskReadCoalescer taskReadCoalescer = new TaskReadCoalescer(taskProperties, meterRegistry);
+    Disposable stale = taskReadCoalescer.task("1", read).subscribe();
+    Sinks.One<TaskResponse> written = Sinks.one();
+
+    taskReadCoalescer.forgetTasks("1"::equals);
+
+    StepVerifier.create(taskReadCoalescer.task("1", () -> {
+              reads.incrementAndGet();
+              return written.asMono();
+            }))
+            .then(() -> written.tryEmitValue(taskResponse("1")))
+            .assertNext(task -> assertEquals("1", task.getId()))
+            .verifyComplete();
+
+    assertEquals(2, reads.get());
+    stale.dispose();
+  }
+
+  @Test
+  void testReadContinuesWhileACallerWaits() {
+    TaskReadCoalescer taskReadCoalescer = new TaskReadCoalescer(taskProperties, meterRegistry);
+    Disposable cancelled = taskReadCoalescer.task("1", read).subscribe();
+
+    StepVerifier.create(taskReadCoalescer.task("1", read))
+            .then(cancelled::dispose)
+            .then(() -> database.tryEmitValue(taskResponse("1")))
+            .assertNext(task -> assertEquals("1", task.getId()))
+            .verifyComplete();
+
+    assertEquals(1, reads.get());
+  }
+
+  @Test
+  void testDisabledCoalescingReadsEveryTime() {
+    taskProperties.getCoalescing().setEnabled(false);
+    TaskReadCoalescer taskReadCoalescer = new TaskReadCoalescer(taskProperties, meterRegistry);
+    database.tryEmitValue(taskResponse("1"));
+
+    StepVerifier.create(Mono.zip(taskReadCoalescer.task("1", read), taskReadCoalescer.task("1", read)))
+            .expectNextCount(1)
+            .verifyComplete();
+
+    assertEquals(2, reads.get());
+    assertNull(meterRegistry.find("tasks.reads").meter());
+  }
+
+  private static TaskResponse taskResponse(String id) {
+    TaskResponse taskResponse = new TaskResponse();
+    taskResponse.setId(id);
+    return taskResponse;
+  }
+
+  private static Task task(String id) {
+    Task task = new Task();
+    task.setId(id);
+    return task;
+  }
+
+}
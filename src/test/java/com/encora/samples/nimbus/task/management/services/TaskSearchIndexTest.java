@@ -0,0 +1,116 @@
+package com.encora.samples.nimbus.task.management.services;
+
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
+import com.encora.samples.nimbus.task.management.model.domain.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSearchIndexTest {
+
+  private MeterRegistry meterRegistry;
+
+  private TaskProperties taskProperties;
+
+  private AtomicInteger loads;
+
+  private Function<String, Flux<Task>> loader;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    taskProperties = new TaskProperties();
+    loads = new AtomicInteger();
+    loader = userId -> Flux.defer(() -> {
+      loads.incrementAndGet();
+      return Flux.just(task("1", "Prepare the quarterly meeting", "Slides for Q3"),
+              task("2", "Buy groceries", "Milk, eggs and meat for the meeting dinner"),
+              task("3", "Réunion d'équipe", null),
+              task("4", "Meet the architects", "Plans of the new office"));
+    });
+  }
+
+  @Test
+  void testSuggestMatchesPrefixesTitleFirst() {
+    TaskSearchIndex taskSearchIndex = new TaskSearchIndex(taskProperties, meterRegistry);
+
+    StepVerifier.create(taskSearchIndex.suggest("user1", "mee", 10, loader).map(TaskSearchIndexTest::ids))
+            .expectNext(List.of("4", "1", "2"))
+            .verifyComplete();
+    StepVerifier.create(taskSearchIndex.suggest("user1", "MEET din", 10, loader).map(TaskSearchIndexTest::ids))
+            .expectNext(List.of("2"))
+            .verifyComplete();
+    StepVerifier.create(taskSearchIndex.suggest("user1", "reun", 10, loader).map(TaskSearchIndexTest::ids))
+            .expectNext(List.of("3"))
+            .verifyComplete();
+    StepVerifier.create(taskSearchIndex.suggest("user1", "mee", 1, loader).map(TaskSearchIndexTest::ids))
+            .expectNext(List.of("4"))
+            .verifyComplete();
+    StepVerifier.create(taskSearchIndex.suggest("user1", "nothing", 10, loader))
+            .expectNext(List.of())
+            .verifyComplete();
+
+    assertEquals(1, loads.get());
+    assertEquals(4.0, meterRegistry.get("cache.gets").tag("cache", "task-search").tag("result", "hit")
+            .functionCounter().count());
+  }
+
+  @Test
+  void testInvalidateReindexes() {
+    TaskSearchIndex taskSearchIndex = new TaskSearchIndex(taskProperties, meterRegistry);
+    taskSearchIndex.suggest("user1", "meet", 10, loader).block();
+
+    taskSearchIndex.invalidate("user1");
+    taskSearchIndex.suggest("user1", "meet", 10, loader).block();
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void testOversizedUserIsNotIndexed() {
+    taskProperties.getSearch().setMaximumTasks(3);
+    TaskSearchIndex taskSearchIndex = new TaskSearchIndex(taskProperties, meterRegistry);
+
+    StepVerifier.create(taskSearchIndex.suggest("user1", "meet", 10, loader))
+            .verifyComplete();
+    StepVerifier.create(taskSearchIndex.suggest("user1", "meet", 10, loader))
+            .verifyComplete();
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void testDisabledIndexSuggestsNothing() {
+    taskProperties.getSearch().setIndexEnabled(false);
+    TaskSearchIndex taskSearchIndex = new TaskSearchIndex(taskProperties, meterRegistry);
+
+    StepVerifier.create(taskSearchIndex.suggest("user1", "meet", 10, loader))
+            .verifyComplete();
+
+    assertEquals(0, loads.get());
+    assertNull(meterRegistry.find("cache.gets").meter());
+  }
+
+  private static List<String> ids(List<Task> tasks) {
+    return tasks.stream()
+            .map(Task::getId)
+            .toList();
+  }
+
+  private static Task task(String id, String title, String description) {
+    Task task = new Task();
+    task.setId(id);
+    task.setTitle(title);
+    task.setDescription(description);
+    return task;
+  }
+
+}
@@ -1,22 +1,52 @@
 package com.encora.samples.nimbus.task.management.services;
 
+import com.encora.samples.nimbus.task.management.config.TaskProperties;
 import com.encora.samples.nimbus.task.management.exception.TaskException;
 import com.encora.samples.nimbus.task.management.mapper.TaskMapper;
+import com.encora.samples.nimbus.task.management.model.api.BatchOperation;
+import com.encora.samples.nimbus.task.management.model.api.BatchRequest;
+import com.encora.samples.nimbus.task.management.model.api.BatchResponse;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteRequest;
+import com.encora.samples.nimbus.task.management.model.api.BulkDeleteResponse;
 import com.encora.samples.nimbus.task.management.model.api.QueryRequest;
 import com.encora.samples.nimbus.task.management.model.api.ServiceResponse;
+import com.encora.samples.nimbus.task.management.model.api.ServiceResponseStream;
 import com.encora.samples.nimbus.task.management.model.api.TaskIDResponse;
+import com.encora.samples.nimbus.task.management.model.api.TaskPatchRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskRequest;
 import com.encora.samples.nimbus.task.management.model.api.TaskResponse;
 import com.encora.samples.nimbus.task.management.model.domain.Task;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCounters;
+import com.encora.samples.nimbus.task.management.model.domain.TaskCountersDelta;
+import com.encora.samples.nimbus.task.management.model.domain.TaskPage;
+import com.encora.samples.nimbus.task.management.model.domain.TaskStats;
+import com.encora.samples.nimbus.task.management.model.domain.TaskUpdate;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWrite;
+import com.encora.samples.nimbus.task.management.model.domain.TaskWriteResult;
+import com.encora.samples.nimbus.task.management.repository.TaskCounterRepository;
 import com.encora.samples.nimbus.task.management.repository.TaskRepository;
+import com.encora.samples.nimbus.task.management.utils.TaskCursor;
+import com.encora.samples.nimbus.task.management.utils.TaskFields;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,12 +61,28 @@ class TaskServiceTest {
   @Mock
   private TaskRepository taskRepository;
 
+  @Mock
+  private TaskCounterRepository taskCounterRepository;
+
   @Mock
   private TaskMapper taskMapper;
 
+  @Spy
+  private TaskProperties taskProperties = new TaskProperties();
+
+  @Spy
+  private TaskCache taskCache = new TaskCache(new TaskProperties(), new SimpleMeterRegistry());
+
+  @Spy
+  private TaskSearchIndex taskSearchIndex = new TaskSearchIndex(new TaskProperties(), new SimpleMeterRegistry());
+
+  @Spy
+  private TaskReadCoalescer taskReadCoalescer = new TaskReadCoalescer(new TaskProperties(), new SimpleMeterRegistry());
+
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    when(taskCounterRepository.increment(anyString(), any(TaskCountersDelta.class))).thenReturn(Mono.empty());
   }
 
   @Test
@@ -53,9 +99,8 @@ class TaskServiceTest {
     task.setStatus("PENDING");
     task.setUserId("user1");
 
-    when(taskRepository.findByTitleAndUserId(anyString(), anyString())).thenReturn(Mono.empty());
     when(taskMapper.createOf(any(TaskRequest.class))).thenReturn(task);
-    when(taskRepository.save(any(Task.class))).thenReturn(Mono.just(task));
+    when(taskRepository.insert(any(Task.class))).thenReturn(Mono.just(task));
 
     Mono<TaskIDResponse> result = taskService.createTask("user1", taskRequest);
 
@@ -65,9 +110,10 @@ class TaskServiceTest {
             })
             .verifyComplete();
 
-    verify(taskRepository, times(1)).findByTitleAndUserId(anyString(), anyString());
     verify(taskMapper, times(1)).createOf(any(TaskRequest.class));
-    verify(taskRepository, times(1)).save(any(Task.class));
+    verify(taskRepository, times(1)).insert(any(Task.class));
+    verify(taskCounterRepository, times(1)).increment(eq("user1"),
+            argThat(delta -> delta.getTotal() == 1 && delta.getStatuses().equals(Map.of("PENDING", 1L))));
   }
 
   @Test
@@ -77,25 +123,20 @@ class TaskServiceTest {
     taskRequest.setDescription("Test Description");
     taskRequest.setStatus("PENDING");
 
-    Task existingTask = new Task();
-    existingTask.setId("1");
-    existingTask.setTitle("Test Task");
-    existingTask.setDescription("Test Description");
-    existingTask.setStatus("PENDING");
-    existingTask.setUserId("user1");
-
-    when(taskRepository.findByTitleAndUserId(anyString(), anyString())).thenReturn(Mono.just(existingTask));
+    when(taskMapper.createOf(any(TaskRequest.class))).thenReturn(new Task());
+    when(taskRepository.insert(any(Task.class)))
+            .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
 
     Mono<TaskIDResponse> result = taskService.createTask("user1", taskRequest);
 
     StepVerifier.create(result)
             .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST &&
                     throwable.getMessage().equals("Task already exists"))
             .verify();
 
-    verify(taskRepository, times(1)).findByTitleAndUserId(anyString(), anyString());
-    verify(taskMapper, never()).createOf(any(TaskRequest.class));
-    verify(taskRepository, never()).save(any(Task.class));
+    verify(taskRepository, times(1)).insert(any(Task.class));
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
   }
 
   @Test
@@ -120,175 +161,1176 @@ class TaskServiceTest {
     task2.setUserId(userId);
     task2.setDeleted(false);
 
-    when(taskRepository.findAllByUserId(anyString(), any())).thenReturn(Flux.just(task1, task2));
-    when(taskRepository.countByUserIdAndDeleted(anyString(), anyBoolean())).thenReturn(Mono.just(2));
-    when(taskMapper.responseOf(any(Task.class))).thenReturn(new TaskResponse());
+    when(taskRepository.findAllByUserId(anyString(), any(), any(), anyCollection())).thenReturn(Flux.just(task1, task2));
+    TaskCounters counters = counters(2, Map.of("PENDING", 2L));
+    counters.setRevision("rev-1");
+    when(taskCounterRepository.findById(userId)).thenReturn(Mono.just(counters));
+    when(taskMapper.responseOf(any(Task.class))).thenAnswer(invocation -> {
+      TaskResponse response = new TaskResponse();
+      response.setTitle(invocation.<Task>getArgument(0).getTitle());
+      return response;
+    });
 
-    Mono<ServiceResponse<Set<TaskResponse>>> result = taskService.getTasks(userId, queryRequest);
+    Mono<ServiceResponse<List<TaskResponse>>> result = taskService.getTasks(userId, queryRequest)
+            .doOnNext(stream -> assertEquals("rev-1", stream.getRevision()))
+            .flatMap(ServiceResponseStream::collect);
 
     StepVerifier.create(result)
             .assertNext(serviceResponse -> {
               assertNotNull(serviceResponse.getData());
-              assertEquals(1, serviceResponse.getData().size());
+              assertEquals(List.of("Task 1", "Task 2"), serviceResponse.getData().stream()
+                      .map(TaskResponse::getTitle)
+                      .toList());
               assertNotNull(serviceResponse.getPaging());
               assertEquals(2, serviceResponse.getPaging().getTotalElements());
             })
             .verifyComplete();
 
-    verify(taskRepository, times(1)).findAllByUserId(anyString(), any());
-    verify(taskRepository, times(1)).countByUserIdAndDeleted(anyString(), anyBoolean());
+    verify(taskRepository, times(1)).findAllByUserId(userId, null, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "title", "id")),
+            TaskFields.SUMMARY);
+    verify(taskCounterRepository, times(1)).findById(userId);
+    verify(taskCounterRepository, never()).reconcile(anyString());
     verify(taskMapper, times(2)).responseOf(any(Task.class));
   }
 
   @Test
-  void testGetTaskByIdSuccess() {
-    String taskId = "1";
+  void testConcurrentIdenticalGetTasksShareOneRead() {
+    String userId = "user1";
+    Sinks.Many<Task> page = Sinks.many().unicast().onBackpressureBuffer();
+    Task task = new Task();
+    task.setId("1");
+
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setSortDirection("DESC");
+    queryRequest.setFields("title,status");
+    QueryRequest sameQuery = new QueryRequest();
+    sameQuery.setSortDirection("desc");
+    sameQuery.setFields("status, title");
+    sameQuery.setStatus(" ");
+
+    when(taskRepository.findAllByUserId(anyString(), any(), any(), anyCollection())).thenReturn(page.asFlux());
+    when(taskCounterRepository.findById(userId)).thenReturn(Mono.just(counters(1, Map.of("PENDING", 1L))));
+    when(taskMapper.responseOf(any(Task.class), anySet())).thenReturn(new TaskResponse());
+
+    Mono<List<ServiceResponse<List<TaskResponse>>>> result = Flux.merge(
+                    taskService.getTasks(userId, queryRequest).flatMap(ServiceResponseStream::collect),
+                    taskService.getTasks(userId, sameQuery).flatMap(ServiceResponseStream::collect))
+            .collectList();
+
+    StepVerifier.create(result)
+            .then(() -> {
+              page.tryEmitNext(task);
+              page.tryEmitComplete();
+            })
+            .assertNext(responses -> responses.forEach(response -> assertEquals(1, response.getData().size())))
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).findAllByUserId(anyString(), any(), any(), anyCollection());
+  }
 
+  @Test
+  void testGetTasksAfterAWriteDoesNotShareAnOlderRead() {
+    String userId = "user1";
+    Sinks.One<TaskCounters> staleCounters = Sinks.one();
+    TaskCounters freshCounters = counters(1, Map.of("PENDING", 1L));
+    freshCounters.setRevision("2");
     Task task = new Task();
-    task.setId(taskId);
-    task.setTitle("Test Task");
-    task.setDescription("Test Description");
+    task.setId("1");
+    task.setUserId(userId);
     task.setStatus("PENDING");
-    task.setUserId("user1");
-    task.setDeleted(false);
 
+    when(taskCounterRepository.findById(userId)).thenReturn(staleCounters.asMono(), Mono.just(freshCounters));
+    when(taskRepository.findAllByUserId(anyString(), any(), any(), anyCollection())).thenReturn(Flux.just(task));
+    when(taskMapper.createOf(any(TaskRequest.class))).thenReturn(task);
+    when(taskRepository.insert(any(Task.class))).thenReturn(Mono.just(task));
 
-    when(taskRepository.findById(taskId)).thenReturn(Mono.just(task));
-    when(taskMapper.withDetailsOf(any(Task.class))).thenReturn(new TaskResponse());
+    Mono<ServiceResponseStream<TaskResponse>> before = taskService.getTasks(userId, new QueryRequest()).cache();
+    before.subscribe();
+    StepVerifier.create(taskService.createTask(userId, new TaskRequest()))
+            .expectNextCount(1)
+            .verifyComplete();
 
-    Mono<TaskResponse> result = taskService.getTaskById(taskId);
+    StepVerifier.create(taskService.getTasks(userId, new QueryRequest()))
+            .assertNext(response -> assertEquals("2", response.getRevision()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+
+    staleCounters.tryEmitValue(counters(0, Map.of()));
+    StepVerifier.create(before)
+            .assertNext(response -> assertNull(response.getRevision()))
+            .verifyComplete();
+    verify(taskCounterRepository, times(2)).findById(userId);
+  }
+
+  @Test
+  void testGetTasksByStatusSuccess() {
+    String userId = "user1";
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setStatus("COMPLETED");
+
+    Task task = new Task();
+    task.setId("1");
+    task.setTitle("Task 1");
+    task.setUserId(userId);
+    task.setStatus("COMPLETED");
+    task.setDeleted(false);
+
+    when(taskRepository.findAllByUserId(anyString(), anyString(), any(), anyCollection()))
+            .thenReturn(Flux.just(task));
+    when(taskCounterRepository.findById(userId)).thenReturn(Mono.just(counters(3, Map.of("PENDING", 2L, "COMPLETED", 1L))));
+    when(taskMapper.responseOf(any(Task.class))).thenReturn(new TaskResponse());
+
+    Mono<ServiceResponse<List<TaskResponse>>> result = taskService.getTasks(userId, queryRequest)
+            .flatMap(ServiceResponseStream::collect);
 
     StepVerifier.create(result)
-            .assertNext(taskResponse -> {
-              assertNotNull(taskResponse);
+            .assertNext(serviceResponse -> {
+              assertEquals(1, serviceResponse.getData().size());
+              assertEquals(1, serviceResponse.getPaging().getTotalElements());
             })
             .verifyComplete();
 
-    verify(taskRepository, times(1)).findById(taskId);
-    verify(taskMapper, times(1)).withDetailsOf(any(Task.class));
+    verify(taskRepository, times(1)).findAllByUserId(eq(userId), eq("COMPLETED"), any(), anyCollection());
   }
 
   @Test
-  void testGetTaskByIdNotFound() {
-    String taskId = "1";
+  void testGetTasksSeedsMissingCounters() {
+    String userId = "user1";
 
-    when(taskRepository.findById(taskId)).thenReturn(Mono.empty());
+    when(taskRepository.findAllByUserId(anyString(), any(), any(), anyCollection())).thenReturn(Flux.empty());
+    when(taskCounterRepository.findById(userId)).thenReturn(Mono.empty());
+    when(taskCounterRepository.reconcile(userId)).thenReturn(Mono.just(counters(5, Map.of("PENDING", 5L))));
 
-    Mono<TaskResponse> result = taskService.getTaskById(taskId);
+    Mono<ServiceResponse<List<TaskResponse>>> result = taskService.getTasks(userId, new QueryRequest())
+            .flatMap(ServiceResponseStream::collect);
 
     StepVerifier.create(result)
-            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
-                    throwable.getMessage().equals("Task not found"))
-            .verify();
+            .assertNext(serviceResponse -> assertEquals(5, serviceResponse.getPaging().getTotalElements()))
+            .verifyComplete();
 
-    verify(taskRepository, times(1)).findById(taskId);
-    verify(taskMapper, never()).withDetailsOf(any(Task.class));
+    verify(taskCounterRepository, times(1)).reconcile(userId);
   }
 
   @Test
-  void testUpdateTaskSuccess() {
-    String taskId = "1";
+  void testGetTasksWithCursor() {
+    String userId = "user1";
+    Task previous = new Task();
+    previous.setId("1");
+    previous.setTitle("Task 1");
 
-    TaskRequest taskRequest = new TaskRequest();
-    taskRequest.setTitle("Updated Task");
-    taskRequest.setDescription("Updated Description");
-    taskRequest.setStatus("IN_PROGRESS");
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setSize(1);
+    queryRequest.setSortBy("title");
+    queryRequest.setSortDirection("asc");
+    queryRequest.setCursor(TaskCursor.of(previous, "title", Sort.Direction.ASC).encode());
 
-    Task existingTask = new Task();
-    existingTask.setId(taskId);
-    existingTask.setTitle("Test Task");
-    existingTask.setDescription("Test Description");
-    existingTask.setStatus("PENDING");
-    existingTask.setUserId("user1");
+    Task task = new Task();
+    task.setId("2");
+    task.setTitle("Task 2");
+    task.setUserId(userId);
+    task.setDeleted(false);
 
-    Task updatedTask = new Task();
-    updatedTask.setId(taskId);
-    updatedTask.setTitle("Updated Task");
-    updatedTask.setDescription("Updated Description");
-    updatedTask.setStatus("IN_PROGRESS");
-    updatedTask.setUserId("user1");
+    when(taskRepository.findAllByUserIdAfter(anyString(), any(), any(TaskCursor.class), anyInt(), anyCollection()))
+            .thenReturn(Flux.just(task));
+    when(taskCounterRepository.findById(anyString())).thenReturn(Mono.just(counters(3, Map.of("PENDING", 3L))));
+    when(taskMapper.responseOf(any(Task.class))).thenReturn(new TaskResponse());
 
-    when(taskRepository.findById(taskId)).thenReturn(Mono.just(existingTask));
-    when(taskMapper.updateOf(any(TaskRequest.class))).thenReturn(updatedTask);
-    when(taskRepository.save(any(Task.class))).thenReturn(Mono.just(updatedTask));
-    when(taskMapper.withDetailsOf(any(Task.class))).thenReturn(new TaskResponse());
+    Mono<ServiceResponse<List<TaskResponse>>> result = taskService.getTasks(userId, queryRequest)
+            .flatMap(ServiceResponseStream::collect);
+
+    StepVerifier.create(result)
+            .assertNext(serviceResponse -> {
+              ServiceResponse.PageInfo paging = serviceResponse.getPaging();
+              assertNull(paging.getCurrentPage());
+              assertEquals(1, paging.getNumberOfElements());
+              TaskCursor next = TaskCursor.decode(paging.getNextCursor());
+              assertEquals("2", next.getId());
+              assertEquals("Task 2", next.getValue());
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).findAllByUserIdAfter(eq(userId), isNull(), any(TaskCursor.class), eq(1),
+            anyCollection());
+    verify(taskRepository, never()).findAllByUserId(anyString(), any(), any(), anyCollection());
+  }
+
+  @Test
+  void testGetTasksWithFacetListing() {
+    String userId = "user1";
+    taskProperties.getListing().setEngine(TaskProperties.Listing.Engine.FACET);
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setSize(2);
+    queryRequest.setSortBy("dueDate");
+    queryRequest.setSortDirection("asc");
+
+    Task task1 = new Task();
+    task1.setId("1");
+    task1.setTitle("Task 1");
+    Task task2 = new Task();
+    task2.setId("2");
+    task2.setTitle("Task 2");
+
+    when(taskRepository.findPageByUserId(anyString(), any(), any(), anyCollection()))
+            .thenReturn(Mono.just(new TaskPage(List.of(task1, task2), 5)));
+    when(taskMapper.responseOf(any(Task.class))).thenReturn(new TaskResponse());
 
-    Mono<TaskResponse> result = taskService.updateTask(taskId, taskRequest);
+    Mono<ServiceResponse<List<TaskResponse>>> result = taskService.getTasks(userId, queryRequest)
+            .doOnNext(stream -> assertNull(stream.getRevision()))
+            .flatMap(ServiceResponseStream::collect);
 
     StepVerifier.create(result)
-            .assertNext(taskResponse -> {
-              assertNotNull(taskResponse);
+            .assertNext(serviceResponse -> {
+              ServiceResponse.PageInfo paging = serviceResponse.getPaging();
+              assertEquals(2, serviceResponse.getData().size());
+              assertEquals(5, paging.getTotalElements());
+              assertEquals(3, paging.getTotalPages());
+              assertEquals("2", TaskCursor.decode(paging.getNextCursor()).getId());
             })
             .verifyComplete();
 
-    verify(taskRepository, times(1)).findById(taskId);
-    verify(taskMapper, times(1)).updateOf(any(TaskRequest.class));
-    verify(taskRepository, times(1)).save(any(Task.class));
-    verify(taskMapper, times(1)).withDetailsOf(any(Task.class));
+    verify(taskRepository, times(1)).findPageByUserId(userId, null,
+            PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "dueDate", "id")), TaskFields.projectionOf(TaskFields.SUMMARY, "dueDate"));
+    verifyNoInteractions(taskCounterRepository);
   }
 
   @Test
-  void testUpdateTaskNotFound() {
-    String taskId = "1";
+  void testGetTasksWithFacetListingAndCursor() {
+    taskProperties.getListing().setEngine(TaskProperties.Listing.Engine.FACET);
+    Task previous = new Task();
+    previous.setId("1");
+    previous.setDueDate(LocalDate.of(2030, 1, 1));
 
-    TaskRequest taskRequest = new TaskRequest();
-    taskRequest.setTitle("Updated Task");
-    taskRequest.setDescription("Updated Description");
-    taskRequest.setStatus("IN_PROGRESS");
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setSize(1);
+    queryRequest.setSortBy("dueDate");
+    queryRequest.setSortDirection("asc");
+    queryRequest.setCursor(TaskCursor.of(previous, "dueDate", Sort.Direction.ASC).encode());
 
-    when(taskRepository.findById(taskId)).thenReturn(Mono.empty());
+    when(taskRepository.findPageByUserIdAfter(anyString(), any(), any(TaskCursor.class), anyInt(), anyCollection()))
+            .thenReturn(Mono.just(new TaskPage(List.of(), 1)));
+
+    Mono<ServiceResponse<List<TaskResponse>>> result = taskService.getTasks("user1", queryRequest)
+            .flatMap(ServiceResponseStream::collect);
+
+    StepVerifier.create(result)
+            .assertNext(serviceResponse -> {
+              assertTrue(serviceResponse.getData().isEmpty());
+              assertEquals(1, serviceResponse.getPaging().getTotalElements());
+              assertNull(serviceResponse.getPaging().getNextCursor());
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).findPageByUserIdAfter(eq("user1"), isNull(), any(TaskCursor.class), eq(1),
+            anyCollection());
+    verify(taskRepository, never()).findAllByUserIdAfter(anyString(), any(), any(TaskCursor.class), anyInt(), anyCollection());
+  }
+
+  @Test
+  void testGetTasksWithFacetListingInAnUnindexedOrder() {
+    taskProperties.getListing().setEngine(TaskProperties.Listing.Engine.FACET);
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setSortBy("title");
+    queryRequest.setSortDirection("asc");
+
+    when(taskCounterRepository.findById(anyString())).thenReturn(Mono.just(counters(0, Map.of())));
+    when(taskRepository.findAllByUserId(anyString(), any(), any(), anyCollection())).thenReturn(Flux.empty());
+
+    StepVerifier.create(taskService.getTasks("user1", queryRequest).flatMap(ServiceResponseStream::collect))
+            .assertNext(serviceResponse -> assertTrue(serviceResponse.getData().isEmpty()))
+            .verifyComplete();
+
+    verify(taskRepository, never()).findPageByUserId(anyString(), any(), any(), anyCollection());
+    verify(taskRepository, times(1)).findAllByUserId(eq("user1"), isNull(), any(), anyCollection());
+  }
+
+  @Test
+  void testGetTasksWithMismatchedCursor() {
+    Task previous = new Task();
+    previous.setId("1");
+    previous.setTitle("Task 1");
+
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setCursor(TaskCursor.of(previous, "title", Sort.Direction.ASC).encode());
+
+    when(taskCounterRepository.findById(anyString())).thenReturn(Mono.just(counters(3, Map.of("PENDING", 3L))));
 
-    Mono<TaskResponse> result = taskService.updateTask(taskId, taskRequest);
+    Mono<ServiceResponse<List<TaskResponse>>> result = taskService.getTasks("user1", queryRequest)
+            .flatMap(ServiceResponseStream::collect);
 
     StepVerifier.create(result)
             .expectErrorMatches(throwable -> throwable instanceof TaskException &&
-                    throwable.getMessage().equals("Task not found"))
+                    throwable.getMessage().equals("Invalid cursor"))
             .verify();
 
-    verify(taskRepository, times(1)).findById(taskId);
-    verify(taskMapper, never()).updateOf(any(TaskRequest.class));
-    verify(taskRepository, never()).save(any(Task.class));
-    verify(taskMapper, never()).withDetailsOf(any(Task.class));
+    verify(taskRepository, never()).findAllByUserIdAfter(anyString(), any(), any(TaskCursor.class), anyInt(), anyCollection());
   }
 
   @Test
-  void testDeleteTaskSuccess() {
-    String taskId = "1";
+  void testGetTasksWithSparseFieldset() {
+    String userId = "user1";
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setFields("title, status");
 
-    Task existingTask = new Task();
-    existingTask.setId(taskId);
-    existingTask.setTitle("Test Task");
-    existingTask.setDescription("Test Description");
-    existingTask.setStatus("PENDING");
-    existingTask.setUserId("user1");
+    Task task = new Task();
+    task.setId("1");
+    task.setTitle("Task 1");
+    task.setDescription("Not asked for");
+    task.setStatus("PENDING");
+    task.setDueDate(LocalDate.now());
 
-    when(taskRepository.findById(taskId)).thenReturn(Mono.just(existingTask));
-    when(taskRepository.save(any(Task.class))).thenReturn(Mono.just(existingTask));
+    when(taskRepository.findAllByUserId(anyString(), any(), any(), anyCollection())).thenReturn(Flux.just(task));
+    when(taskCounterRepository.findById(userId)).thenReturn(Mono.just(counters(1, Map.of("PENDING", 1L))));
+    when(taskMapper.responseOf(any(Task.class), anySet())).thenCallRealMethod();
 
-    Mono<Void> result = taskService.deleteTask(taskId);
+    StepVerifier.create(taskService.getTasks(userId, queryRequest).flatMap(ServiceResponseStream::collect))
+            .assertNext(serviceResponse -> {
+              TaskResponse response = serviceResponse.getData().get(0);
+              assertEquals("1", response.getId());
+              assertEquals("Task 1", response.getTitle());
+              assertEquals("PENDING", response.getStatus());
+              assertNull(response.getDescription());
+              assertNull(response.getDueDate());
+            })
+            .verifyComplete();
 
-    StepVerifier.create(result)
+    verify(taskRepository, times(1)).findAllByUserId(eq(userId), isNull(), any(),
+            eq(Set.of("id", "title", "status", "dueDate")));
+    verify(taskMapper, never()).responseOf(any(Task.class));
+  }
+
+  @Test
+  void testGetTasksWithUnknownField() {
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setFields("title,secret");
+
+    StepVerifier.create(taskService.getTasks("user1", queryRequest))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    throwable.getMessage().equals("Invalid fields"))
+            .verify();
+
+    verifyNoInteractions(taskRepository);
+  }
+
+  @Test
+  void testGetTasksWithUnknownSortBy() {
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setSortBy("priority");
+
+    StepVerifier.create(taskService.getTasks("user1", queryRequest))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST &&
+                    throwable.getMessage().equals("Invalid sortBy"))
+            .verify();
+
+    verifyNoInteractions(taskRepository, taskCounterRepository);
+  }
+
+  @Test
+  void testGetTasksWithSearchText() {
+    String userId = "user1";
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setQ("quarterly review");
+    queryRequest.setPage(1);
+    queryRequest.setSize(10);
+
+    Task task = new Task();
+    task.setId("1");
+    task.setTitle("Quarterly review");
+
+    when(taskRepository.searchByUserId(anyString(), any(), anyString(), any(), anyCollection()))
+            .thenReturn(Flux.just(task));
+    when(taskCounterRepository.findById(userId)).thenReturn(Mono.just(counters(30, Map.of("PENDING", 30L))));
+    when(taskMapper.responseOf(any(Task.class))).thenReturn(new TaskResponse());
+
+    StepVerifier.create(taskService.getTasks(userId, queryRequest).flatMap(ServiceResponseStream::collect))
+            .assertNext(serviceResponse -> {
+              assertEquals(1, serviceResponse.getData().size());
+              assertEquals(1, serviceResponse.getPaging().getNumberOfElements());
+              assertEquals(1, serviceResponse.getPaging().getCurrentPage());
+              assertNull(serviceResponse.getPaging().getTotalElements());
+              assertNull(serviceResponse.getPaging().getNextCursor());
+            })
             .verifyComplete();
 
-    verify(taskRepository, times(1)).findById(taskId);
-    verify(taskRepository, times(1)).save(any(Task.class));
+    verify(taskRepository, times(1)).searchByUserId(eq(userId), isNull(), eq("quarterly review"),
+            eq(PageRequest.of(1, 10)), anyCollection());
+    verify(taskRepository, never()).findAllByUserId(anyString(), any(), any(), anyCollection());
   }
 
   @Test
-  void testDeleteTaskNotFound() {
-    String taskId = "1";
+  void testGetTasksWithSearchTextAndCursor() {
+    QueryRequest queryRequest = new QueryRequest();
+    queryRequest.setQ("review");
+    queryRequest.setCursor("cursor");
 
-    when(taskRepository.findById(taskId)).thenReturn(Mono.empty());
+    when(taskCounterRepository.findById("user1")).thenReturn(Mono.just(counters(0, Map.of())));
 
-    Mono<Void> result = taskService.deleteTask(taskId);
+    StepVerifier.create(taskService.getTasks("user1", queryRequest).flatMap(ServiceResponseStream::collect))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST)
+            .verify();
 
-    StepVerifier.create(result)
+    verify(taskRepository, never()).searchByUserId(anyString(), any(), anyString(), any(), anyCollection());
+  }
+
+  @Test
+  void testSuggestTasksFromIndex() {
+    String userId = "user1";
+
+    Task task = new Task();
+    task.setId("1");
+    task.setUserId(userId);
+    task.setTitle("Quarterly review");
+    task.setDescription("Slides");
+    task.setStatus("PENDING");
+
+    when(taskRepository.findAllByUserId(userId, null, Pageable.unpaged(), Set.of("id", "title", "description")))
+            .thenReturn(Flux.just(task));
+    when(taskMapper.responseOf(any(Task.class), anySet())).thenCallRealMethod();
+    when(taskMapper.patchOf(any(TaskPatchRequest.class))).thenReturn(new Task());
+    when(taskRepository.updateFieldsById(anyString(), any(Task.class), any()))
+            .thenReturn(Mono.just(new TaskUpdate(task, task)));
+    when(taskMapper.withDetailsOf(any(Task.class))).thenReturn(new TaskResponse());
+
+    StepVerifier.create(taskService.suggestTasks(userId, "quart", 100)
+                    .concatWith(taskService.suggestTasks(userId, "sli", 100)))
+            .assertNext(suggestions -> {
+              assertEquals(1, suggestions.size());
+              assertEquals("1", suggestions.get(0).getId());
+              assertEquals("Quarterly review", suggestions.get(0).getTitle());
+              assertNull(suggestions.get(0).getStatus());
+            })
+            .expectNextCount(1)
+            .verifyComplete();
+    verify(taskRepository, times(1)).findAllByUserId(userId, null, Pageable.unpaged(), Set.of("id", "title", "description"));
+
+    taskService.patchTask(userId, "1", new TaskPatchRequest(), null).block();
+    taskService.suggestTasks(userId, "quart", 10).block();
+
+    verify(taskRepository, times(2)).findAllByUserId(userId, null, Pageable.unpaged(), Set.of("id", "title", "description"));
+    verify(taskRepository, never()).streamAllByUserIdAndDeleted(anyString(), anyBoolean(), any(Sort.class));
+    verify(taskRepository, never()).searchByUserId(anyString(), any(), anyString(), any(), anyCollection());
+  }
+
+  @Test
+  void testSuggestTasksWithoutText() {
+    StepVerifier.create(taskService.suggestTasks("user1", " ", 10))
             .expectErrorMatches(throwable -> throwable instanceof TaskException &&
-                    throwable.getMessage().equals("Task not found"))
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST)
             .verify();
 
-    verify(taskRepository, times(1)).findById(taskId);
-    verify(taskRepository, never()).save(any(Task.class));
+    verifyNoInteractions(taskRepository);
+  }
+
+  @Test
+  void testGetTaskStats() {
+    String userId = "user1";
+
+    TaskStats stats = new TaskStats();
+    stats.setTotal(6);
+    stats.setStatuses(Map.of("PENDING", 3L, "IN_PROGRESS", 1L, "EXPIRED", 2L));
+    stats.setOverdue(1);
+    stats.setDueToday(1);
+    stats.setDueLater(2);
+
+    when(taskRepository.statsByUserId(eq(userId), anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(Mono.just(stats));
+
+    StepVerifier.create(taskService.getTaskStats(userId))
+            .assertNext(response -> {
+              assertEquals(6L, response.getTotal());
+              assertEquals(stats.getStatuses(), response.getStatuses());
+              assertEquals(3L, response.getOverdue());
+              assertEquals(1L, response.getDueToday());
+              assertEquals(0L, response.getDueThisWeek());
+              assertEquals(2L, response.getDueLater());
+              assertEquals(0L, response.getWithoutDueDate());
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).statsByUserId(eq(userId), eq(List.of("PENDING", "IN_PROGRESS")),
+            eq(LocalDate.now()), any(LocalDate.class));
+  }
+
+  @Test
+  void testGetTaskStatsError() {
+    when(taskRepository.statsByUserId(anyString(), anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+            .thenReturn(Mono.error(new RuntimeException("Database error")));
+
+    StepVerifier.create(taskService.getTaskStats("user1"))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.INTERNAL_SERVER_ERROR)
+            .verify();
+  }
+
+  @Test
+  void testExportTasks() {
+    String userId = "user1";
+
+    Task task1 = new Task();
+    task1.setId("1");
+    Task task2 = new Task();
+    task2.setId("2");
+
+    TaskResponse response1 = new TaskResponse();
+    response1.setId("1");
+    TaskResponse response2 = new TaskResponse();
+    response2.setId("2");
+
+    when(taskRepository.streamAllByUserIdAndDeleted(eq(userId), eq(false), any(Sort.class))).thenReturn(Flux.just(task1, task2));
+    when(taskMapper.withDetailsOf(task1)).thenReturn(response1);
+    when(taskMapper.withDetailsOf(task2)).thenReturn(response2);
+
+    StepVerifier.create(taskService.exportTasks(userId, null))
+            .expectNext(response1, response2)
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).streamAllByUserIdAndDeleted(userId, false, Sort.by(Sort.Direction.DESC, "dueDate", "id"));
+  }
+
+  @Test
+  void testExportTasksByStatus() {
+    when(taskRepository.streamAllByUserIdAndStatusAndDeleted(anyString(), anyString(), anyBoolean(), any(Sort.class)))
+            .thenReturn(Flux.error(new IllegalStateException("cursor killed")));
+
+    StepVerifier.create(taskService.exportTasks("user1", "COMPLETED"))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    throwable.getMessage().equals("Error exporting tasks"))
+            .verify();
+  }
+
+  @Test
+  void testExportTasksWithUnknownStatus() {
+    StepVerifier.create(taskService.exportTasks("user1", "DONE"))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST &&
+                    throwable.getMessage().equals("Invalid status"))
+            .verify();
+
+    verifyNoInteractions(taskRepository);
+  }
+
+  @Test
+  void testGetTaskByIdSuccess() {
+    String taskId = "1";
+
+    Task task = new Task();
+    task.setId(taskId);
+    task.setTitle("Test Task");
+    task.setDescription("Test Description");
+    task.setStatus("PENDING");
+    task.setUserId("user1");
+    task.setDeleted(false);
+
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(task));
+    when(taskMapper.withDetailsOf(any(Task.class))).thenReturn(new TaskResponse());
+
+    Mono<TaskResponse> result = taskService.getTaskById(taskId);
+
+    StepVerifier.create(result)
+            .assertNext(taskResponse -> {
+              assertNotNull(taskResponse);
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).findById(taskId);
+    verify(taskMapper, times(1)).withDetailsOf(any(Task.class));
+  }
+
+  @Test
+  void testGetTaskByIdServedFromCache() {
+    String taskId = "1";
+
+    Task task = new Task();
+    task.setId(taskId);
+    task.setDeleted(false);
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(task));
+    when(taskMapper.withDetailsOf(any(Task.class))).thenReturn(new TaskResponse());
+
+    StepVerifier.create(taskService.getTaskById(taskId).then(taskService.getTaskById(taskId)))
+            .assertNext(taskResponse -> assertNotNull(taskResponse))
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).findById(taskId);
+  }
+
+  @Test
+  void testDeleteTaskEvictsCachedTask() {
+    String taskId = "1";
+
+    Task task = new Task();
+    task.setId(taskId);
+    task.setUserId("user1");
+    task.setDeleted(false);
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(task), Mono.empty());
+    when(taskMapper.withDetailsOf(any(Task.class))).thenReturn(new TaskResponse());
+    when(taskRepository.softDeleteById(taskId, null)).thenReturn(Mono.just(task));
+
+    StepVerifier.create(taskService.getTaskById(taskId)
+                    .then(taskService.deleteTask(taskId, null))
+                    .then(taskService.getTaskById(taskId)))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    throwable.getMessage().equals("Task not found"))
+            .verify();
+
+    verify(taskRepository, times(2)).findById(taskId);
+    verify(taskCache, times(1)).invalidate(taskId);
+  }
+
+  @Test
+  void testGetTaskByIdNotFound() {
+    String taskId = "1";
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.empty());
+
+    Mono<TaskResponse> result = taskService.getTaskById(taskId);
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    throwable.getMessage().equals("Task not found"))
+            .verify();
+
+    verify(taskRepository, times(1)).findById(taskId);
+    verify(taskMapper, never()).withDetailsOf(any(Task.class));
+  }
+
+  @Test
+  void testUpdateTaskSuccess() {
+    String taskId = "1";
+
+    TaskRequest taskRequest = new TaskRequest();
+    taskRequest.setTitle("Updated Task");
+    taskRequest.setDescription("Updated Description");
+    taskRequest.setStatus("IN_PROGRESS");
+
+    Task existingTask = new Task();
+    existingTask.setId(taskId);
+    existingTask.setTitle("Test Task");
+    existingTask.setDescription("Test Description");
+    existingTask.setStatus("PENDING");
+    existingTask.setUserId("user1");
+
+    Task updatedTask = new Task();
+    updatedTask.setId(taskId);
+    updatedTask.setTitle("Updated Task");
+    updatedTask.setDescription("Updated Description");
+    updatedTask.setStatus("IN_PROGRESS");
+    updatedTask.setUserId("user1");
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(existingTask));
+    when(taskMapper.updateOf(any(TaskRequest.class))).thenReturn(updatedTask);
+    when(taskRepository.replaceById(any(Task.class), eq(0L))).thenReturn(Mono.just(updatedTask));
+    when(taskMapper.withDetailsOf(any(Task.class))).thenReturn(new TaskResponse());
+
+    Mono<TaskResponse> result = taskService.updateTask(taskId, taskRequest, null);
+
+    StepVerifier.create(result)
+            .assertNext(taskResponse -> {
+              assertNotNull(taskResponse);
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).findById(taskId);
+    verify(taskMapper, times(1)).updateOf(any(TaskRequest.class));
+    verify(taskRepository, times(1)).replaceById(updatedTask, 0L);
+    verify(taskMapper, times(1)).withDetailsOf(any(Task.class));
+    verify(taskCounterRepository, times(1)).increment(eq("user1"), argThat(delta -> delta.getTotal() == 0
+            && delta.getStatuses().equals(Map.of("PENDING", -1L, "IN_PROGRESS", 1L))));
+  }
+
+  @Test
+  void testUpdateTaskNotFound() {
+    String taskId = "1";
+
+    TaskRequest taskRequest = new TaskRequest();
+    taskRequest.setTitle("Updated Task");
+    taskRequest.setDescription("Updated Description");
+    taskRequest.setStatus("IN_PROGRESS");
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.empty());
+
+    Mono<TaskResponse> result = taskService.updateTask(taskId, taskRequest, null);
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    throwable.getMessage().equals("Task not found"))
+            .verify();
+
+    verify(taskRepository, times(1)).findById(taskId);
+    verify(taskMapper, never()).updateOf(any(TaskRequest.class));
+    verify(taskRepository, never()).replaceById(any(Task.class), anyLong());
+    verify(taskMapper, never()).withDetailsOf(any(Task.class));
+  }
+
+  @Test
+  void testUpdateTaskPreconditionFailed() {
+    String taskId = "1";
+
+    Task existingTask = new Task();
+    existingTask.setId(taskId);
+    existingTask.setUserId("user1");
+    existingTask.setVersion(2L);
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(existingTask));
+
+    Mono<TaskResponse> result = taskService.updateTask(taskId, new TaskRequest(), "\"1\"");
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.PRECONDITION_FAILED)
+            .verify();
+
+    verify(taskMapper, never()).updateOf(any(TaskRequest.class));
+    verify(taskRepository, never()).replaceById(any(Task.class), anyLong());
+  }
+
+  @Test
+  void testUpdateTaskConcurrentlyModified() {
+    String taskId = "1";
+
+    Task existingTask = new Task();
+    existingTask.setId(taskId);
+    existingTask.setUserId("user1");
+    existingTask.setVersion(2L);
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(existingTask));
+    when(taskMapper.updateOf(any(TaskRequest.class))).thenReturn(new Task());
+    when(taskRepository.replaceById(any(Task.class), eq(2L))).thenReturn(Mono.empty());
+
+    Mono<TaskResponse> result = taskService.updateTask(taskId, new TaskRequest(), null);
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.CONFLICT)
+            .verify();
+
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+    verify(taskCache, never()).refresh(any(TaskResponse.class));
+  }
+
+  @Test
+  void testUpdateTaskDuplicateTitle() {
+    String taskId = "1";
+
+    Task existingTask = new Task();
+    existingTask.setId(taskId);
+    existingTask.setUserId("user1");
+    existingTask.setStatus("PENDING");
+
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(existingTask));
+    when(taskMapper.updateOf(any(TaskRequest.class))).thenReturn(new Task());
+    when(taskRepository.replaceById(any(Task.class), eq(0L)))
+            .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+    Mono<TaskResponse> result = taskService.updateTask(taskId, new TaskRequest(), null);
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST &&
+                    throwable.getMessage().equals("Task already exists"))
+            .verify();
+
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+    verify(taskCache, never()).refresh(any(TaskResponse.class));
+  }
+
+  @Test
+  void testPatchTaskSuccess() {
+    String taskId = "1";
+
+    TaskPatchRequest patchRequest = new TaskPatchRequest();
+    patchRequest.setStatus("COMPLETED");
+
+    Task changes = new Task();
+    changes.setStatus("COMPLETED");
+
+    Task updatedTask = new Task();
+    updatedTask.setId(taskId);
+    updatedTask.setStatus("COMPLETED");
+    updatedTask.setUserId("user1");
+
+    when(taskMapper.patchOf(any(TaskPatchRequest.class))).thenReturn(changes);
+    Task previousTask = new Task();
+    previousTask.setId(taskId);
+    previousTask.setStatus("PENDING");
+    previousTask.setUserId("user1");
+
+    when(taskRepository.updateFieldsById(taskId, changes, List.of(1L)))
+            .thenReturn(Mono.just(new TaskUpdate(previousTask, updatedTask)));
+    when(taskMapper.withDetailsOf(updatedTask)).thenReturn(new TaskResponse());
+
+    Mono<TaskResponse> result = taskService.patchTask("user1", taskId, patchRequest, "\"1\"");
+
+    StepVerifier.create(result)
+            .assertNext(taskResponse -> assertNotNull(taskResponse))
+            .verifyComplete();
+
+    assertEquals("user1", patchRequest.getUserId());
+    verify(taskRepository, times(1)).updateFieldsById(taskId, changes, List.of(1L));
+    verify(taskRepository, never()).findById(anyString());
+    verify(taskCounterRepository, times(1)).increment(eq("user1"),
+            argThat(delta -> delta.getStatuses().equals(Map.of("PENDING", -1L, "COMPLETED", 1L))));
+  }
+
+  @Test
+  void testPatchTaskNotFound() {
+    String taskId = "1";
+
+    when(taskMapper.patchOf(any(TaskPatchRequest.class))).thenReturn(new Task());
+    when(taskRepository.updateFieldsById(anyString(), any(Task.class), any())).thenReturn(Mono.empty());
+
+    Mono<TaskResponse> result = taskService.patchTask("user1", taskId, new TaskPatchRequest(), null);
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    throwable.getMessage().equals("Task not found"))
+            .verify();
+
+    verify(taskMapper, never()).withDetailsOf(any(Task.class));
+    verify(taskRepository, never()).findById(anyString());
+  }
+
+  @Test
+  void testPatchTaskDuplicateTitle() {
+    String taskId = "1";
+
+    TaskPatchRequest patchRequest = new TaskPatchRequest();
+    patchRequest.setTitle("Existing Task");
+
+    when(taskMapper.patchOf(any(TaskPatchRequest.class))).thenReturn(new Task());
+    when(taskRepository.updateFieldsById(anyString(), any(Task.class), any()))
+            .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+    Mono<TaskResponse> result = taskService.patchTask("user1", taskId, patchRequest, null);
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST &&
+                    throwable.getMessage().equals("Task already exists"))
+            .verify();
+
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+    verify(taskCache, never()).refresh(any(TaskResponse.class));
+  }
+
+  @Test
+  void testPatchTaskPreconditionFailed() {
+    String taskId = "1";
+
+    Task task = new Task();
+    task.setId(taskId);
+    task.setDeleted(false);
+    task.setVersion(3L);
+
+    when(taskMapper.patchOf(any(TaskPatchRequest.class))).thenReturn(new Task());
+    when(taskRepository.updateFieldsById(anyString(), any(Task.class), any())).thenReturn(Mono.empty());
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(task));
+
+    Mono<TaskResponse> result = taskService.patchTask("user1", taskId, new TaskPatchRequest(), "\"2\"");
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.PRECONDITION_FAILED)
+            .verify();
+
+    verify(taskRepository, times(1)).updateFieldsById(eq(taskId), any(Task.class), eq(List.of(2L)));
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+  }
+
+  @Test
+  void testDeleteTaskSuccess() {
+    String taskId = "1";
+
+    Task deletedTask = new Task();
+    deletedTask.setUserId("user1");
+    deletedTask.setStatus("COMPLETED");
+
+    when(taskRepository.softDeleteById(taskId, null)).thenReturn(Mono.just(deletedTask));
+
+    Mono<Void> result = taskService.deleteTask(taskId, null);
+
+    StepVerifier.create(result)
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).softDeleteById(taskId, null);
+    verify(taskRepository, never()).findById(anyString());
+    verify(taskCounterRepository, times(1)).increment(eq("user1"), argThat(delta -> delta.getTotal() == -1
+            && delta.getStatuses().equals(Map.of("COMPLETED", -1L))));
+  }
+
+  @Test
+  void testDeleteTaskNotFound() {
+    String taskId = "1";
+
+    when(taskRepository.softDeleteById(taskId, null)).thenReturn(Mono.empty());
+
+    Mono<Void> result = taskService.deleteTask(taskId, null);
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    throwable.getMessage().equals("Task not found"))
+            .verify();
+
+    verify(taskRepository, times(1)).softDeleteById(taskId, null);
+  }
+
+  @Test
+  void testDeleteTaskPreconditionFailed() {
+    String taskId = "1";
+
+    Task task = new Task();
+    task.setId(taskId);
+    task.setDeleted(false);
+
+    when(taskRepository.softDeleteById(taskId, List.of(4L))).thenReturn(Mono.empty());
+    when(taskRepository.findById(taskId)).thenReturn(Mono.just(task));
+
+    Mono<Void> result = taskService.deleteTask(taskId, "\"4\"");
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.PRECONDITION_FAILED)
+            .verify();
+
+    verify(taskCache, never()).invalidate(anyString());
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+  }
+
+  @Test
+  void testDeleteTasksByStatus() {
+    BulkDeleteRequest request = new BulkDeleteRequest();
+    request.setStatus("COMPLETED");
+
+    when(taskRepository.softDeleteAllByUserId("user1", null, "COMPLETED")).thenReturn(Mono.just(42L));
+
+    Mono<BulkDeleteResponse> result = taskService.deleteTasks("user1", request);
+
+    StepVerifier.create(result)
+            .assertNext(response -> assertEquals(42L, response.getDeleted()))
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).softDeleteAllByUserId("user1", null, "COMPLETED");
+    verify(taskCounterRepository, times(1)).increment(eq("user1"), argThat(delta -> delta.getTotal() == -42
+            && delta.getStatuses().equals(Map.of("COMPLETED", -42L))));
+    verify(taskCounterRepository, never()).reconcile(anyString());
+  }
+
+  @Test
+  void testDeleteTasksByIdsReconcilesCounters() {
+    BulkDeleteRequest request = new BulkDeleteRequest();
+    request.setIds(List.of("1", "2"));
+
+    when(taskRepository.softDeleteAllByUserId("user1", List.of("1", "2"), null)).thenReturn(Mono.just(2L));
+    when(taskCounterRepository.reconcile("user1")).thenReturn(Mono.just(new TaskCounters()));
+
+    StepVerifier.create(taskService.deleteTasks("user1", request))
+            .assertNext(response -> assertEquals(2L, response.getDeleted()))
+            .verifyComplete();
+
+    verify(taskCounterRepository, times(1)).reconcile("user1");
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+  }
+
+  @Test
+  void testDeleteTasksWithoutFilter() {
+    Mono<BulkDeleteResponse> result = taskService.deleteTasks("user1", new BulkDeleteRequest());
+
+    StepVerifier.create(result)
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST)
+            .verify();
+
+    verify(taskRepository, never()).softDeleteAllByUserId(anyString(), any(), any());
+  }
+
+  @Test
+  void testExecuteBatchSuccess() {
+    TaskRequest newTask = new TaskRequest();
+    newTask.setTitle("New Task");
+    newTask.setDueDate("2030-01-01T00:00:00");
+    TaskRequest changes = new TaskRequest();
+    changes.setStatus("COMPLETED");
+
+    BatchRequest request = new BatchRequest();
+    request.setOperations(List.of(
+            batchOperation("CREATE", null, newTask),
+            batchOperation("UPDATE", "2", changes),
+            batchOperation("DELETE", "3", null)));
+
+    Task createdTask = new Task();
+    createdTask.setStatus("PENDING");
+    Task updatedTask = new Task();
+    updatedTask.setStatus("COMPLETED");
+
+    when(taskMapper.createOf(any(TaskRequest.class))).thenReturn(createdTask);
+    when(taskMapper.updateOf(any(TaskRequest.class))).thenReturn(updatedTask);
+    when(taskRepository.bulkWrite(eq("user1"), anyList(), eq(true))).thenReturn(Mono.just(List.of(
+            new TaskWriteResult("1", TaskWriteResult.Outcome.APPLIED),
+            new TaskWriteResult("2", TaskWriteResult.Outcome.APPLIED, "IN_PROGRESS"),
+            new TaskWriteResult("3", TaskWriteResult.Outcome.NOT_FOUND))));
+
+    Mono<BatchResponse> result = taskService.executeBatch("user1", request);
+
+    StepVerifier.create(result)
+            .assertNext(response -> {
+              assertEquals(2, response.getSucceeded());
+              assertEquals(1, response.getNotFound());
+              assertEquals(0, response.getFailed());
+              assertEquals(201, response.getResults().get(0).getStatus());
+              assertEquals("1", response.getResults().get(0).getId());
+              assertEquals(200, response.getResults().get(1).getStatus());
+              assertEquals(404, response.getResults().get(2).getStatus());
+            })
+            .verifyComplete();
+
+    assertEquals("user1", newTask.getUserId());
+    verify(taskRepository, times(1)).bulkWrite(eq("user1"), anyList(), eq(true));
+    verify(taskCounterRepository, times(1)).increment(eq("user1"), argThat(delta -> delta.getTotal() == 1
+            && delta.getStatuses().equals(Map.of("PENDING", 1L, "IN_PROGRESS", -1L, "COMPLETED", 1L))));
+  }
+
+  @Test
+  void testExecuteBatchOrderedStopsAtInvalidOperation() {
+    BatchRequest request = new BatchRequest();
+    request.setOperations(List.of(
+            batchOperation("DELETE", "1", null),
+            batchOperation("UPDATE", null, new TaskRequest()),
+            batchOperation("DELETE", "3", null)));
+
+    when(taskRepository.bulkWrite(eq("user1"), anyList(), eq(true))).thenReturn(Mono.just(List.of(
+            new TaskWriteResult("1", TaskWriteResult.Outcome.APPLIED))));
+
+    Mono<BatchResponse> result = taskService.executeBatch("user1", request);
+
+    StepVerifier.create(result)
+            .assertNext(response -> {
+              assertEquals(1, response.getSucceeded());
+              assertEquals(200, response.getResults().get(0).getStatus());
+              assertEquals(400, response.getResults().get(1).getStatus());
+              assertEquals(424, response.getResults().get(2).getStatus());
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(1)).bulkWrite(eq("user1"),
+            argThat(writes -> writes.size() == 1 && writes.get(0).getType() == TaskWrite.Type.DELETE), eq(true));
+  }
+
+  @Test
+  void testExecuteBatchOrderedGoesOnAfterTaskNotFound() {
+    taskProperties.getBatch().setChunkSize(1);
+
+    BatchRequest request = new BatchRequest();
+    request.setOperations(List.of(
+            batchOperation("DELETE", "1", null),
+            batchOperation("DELETE", "2", null)));
+
+    when(taskRepository.bulkWrite(eq("user1"), anyList(), eq(true)))
+            .thenReturn(Mono.just(List.of(new TaskWriteResult("1", TaskWriteResult.Outcome.NOT_FOUND))))
+            .thenReturn(Mono.just(List.of(new TaskWriteResult("2", TaskWriteResult.Outcome.APPLIED, "PENDING"))));
+
+    Mono<BatchResponse> result = taskService.executeBatch("user1", request);
+
+    StepVerifier.create(result)
+            .assertNext(response -> {
+              assertEquals(1, response.getSucceeded());
+              assertEquals(1, response.getNotFound());
+              assertEquals(0, response.getFailed());
+              assertEquals(404, response.getResults().get(0).getStatus());
+              assertEquals(200, response.getResults().get(1).getStatus());
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(2)).bulkWrite(eq("user1"), anyList(), eq(true));
+  }
+
+  @Test
+  void testExecuteBatchReconcilesCountersOfUnconfirmedWrites() {
+    BatchRequest request = new BatchRequest();
+    request.setOperations(List.of(
+            batchOperation("DELETE", "1", null),
+            batchOperation("DELETE", "2", null)));
+
+    when(taskRepository.bulkWrite(eq("user1"), anyList(), eq(true)))
+            .thenReturn(Mono.just(List.of(
+                    new TaskWriteResult("1", TaskWriteResult.Outcome.APPLIED, "PENDING", true),
+                    new TaskWriteResult("2", TaskWriteResult.Outcome.NOT_FOUND, "PENDING", true))));
+    when(taskCounterRepository.reconcile("user1")).thenReturn(Mono.empty());
+
+    StepVerifier.create(taskService.executeBatch("user1", request))
+            .assertNext(response -> {
+              assertEquals(1, response.getSucceeded());
+              assertEquals(1, response.getNotFound());
+            })
+            .verifyComplete();
+
+    verify(taskCounterRepository, times(1)).reconcile("user1");
+    verify(taskCounterRepository, never()).increment(anyString(), any(TaskCountersDelta.class));
+  }
+
+  @Test
+  void testExecuteBatchInChunks() {
+    taskProperties.getBatch().setChunkSize(2);
+
+    BatchRequest request = new BatchRequest();
+    request.setOrdered(false);
+    request.setOperations(List.of(
+            batchOperation("DELETE", "1", null),
+            batchOperation("DELETE", "2", null),
+            batchOperation("DELETE", "3", null)));
+
+    when(taskRepository.bulkWrite(eq("user1"), anyList(), eq(false)))
+            .thenReturn(Mono.just(List.of(
+                    new TaskWriteResult("1", TaskWriteResult.Outcome.APPLIED),
+                    new TaskWriteResult("2", TaskWriteResult.Outcome.DUPLICATED))))
+            .thenReturn(Mono.just(List.of(
+                    new TaskWriteResult("3", TaskWriteResult.Outcome.APPLIED))));
+
+    Mono<BatchResponse> result = taskService.executeBatch("user1", request);
+
+    StepVerifier.create(result)
+            .assertNext(response -> {
+              assertEquals(2, response.getSucceeded());
+              assertEquals(400, response.getResults().get(1).getStatus());
+              assertEquals(200, response.getResults().get(2).getStatus());
+            })
+            .verifyComplete();
+
+    verify(taskRepository, times(2)).bulkWrite(eq("user1"), anyList(), eq(false));
+  }
+
+  @Test
+  void testExecuteBatchTooManyOperations() {
+    taskProperties.getBatch().setMaxOperations(1);
+
+    BatchRequest request = new BatchRequest();
+    request.setOperations(List.of(
+            batchOperation("DELETE", "1", null),
+            batchOperation("DELETE", "2", null)));
+
+    StepVerifier.create(taskService.executeBatch("user1", request))
+            .expectErrorMatches(throwable -> throwable instanceof TaskException &&
+                    ((TaskException) throwable).getStatus() == HttpStatus.BAD_REQUEST)
+            .verify();
+
+    verify(taskRepository, never()).bulkWrite(anyString(), anyList(), anyBoolean());
+  }
+
+  private static TaskCounters counters(long total, Map<String, Long> statuses) {
+    TaskCounters counters = new TaskCounters();
+    counters.setTotal(total);
+    counters.getStatuses().putAll(statuses);
+    return counters;
+  }
+
+  private static BatchOperation batchOperation(String operation, String id, TaskRequest task) {
+    BatchOperation batchOperation = new BatchOperation();
+    batchOperation.setOperation(operation);
+    batchOperation.setId(id);
+    batchOperation.setTask(task);
+    return batchOperation;
   }
 
 }